@@ -0,0 +1,452 @@
+package com.javabuilders.demowebscraping.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Propiedades de configuración del proceso de scraping.
+ * Se cargan desde {@code application.properties} bajo el prefijo {@code scraping}.
+ */
+@Data
+@ConfigurationProperties(prefix = "scraping")
+public class ScrapingProperties {
+
+    private final Pool pool = new Pool();
+    private final Http http = new Http();
+    private final Pagination pagination = new Pagination();
+    private final Jobs jobs = new Jobs();
+    private final Permits permits = new Permits();
+    private final History history = new History();
+    private final Dedup dedup = new Dedup();
+    private final Stream stream = new Stream();
+    private final Runs runs = new Runs();
+    private final Blocking blocking = new Blocking();
+    private final Readiness readiness = new Readiness();
+    private final Query query = new Query();
+    private final RateLimit rateLimit = new RateLimit();
+    private final Resilience resilience = new Resilience();
+    private final Admission admission = new Admission();
+    private final Cache cache = new Cache();
+    private final Watchdog watchdog = new Watchdog();
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * Modos de recorrer las páginas de resultados.
+     */
+    public enum PaginationMode {
+        // Hace clic en "Siguiente" página por página
+        SEQUENTIAL,
+        // Construye la URL de cada página y las procesa a la vez
+        PARALLEL,
+        // Como PARALLEL, pero con el navegador carga las páginas en varias pestañas de un mismo Chrome
+        TABS
+    }
+
+    /**
+     * Configuración del pool de sesiones de navegador reutilizables.
+     */
+    @Data
+    public static class Pool {
+
+        // Si es false se vuelve a crear un navegador nuevo por cada scraping
+        private boolean enabled = true;
+
+        // Número máximo de sesiones de navegador (prestadas + libres)
+        private int maxSize = 4;
+
+        // Sesiones que se inician al arrancar la aplicación
+        private int prewarm = 1;
+
+        // Usos tras los cuales una sesión se retira y se reemplaza por una nueva
+        private int maxUses = 50;
+
+        // Tiempo máximo de espera para obtener una sesión libre
+        private Duration borrowTimeout = Duration.ofSeconds(60);
+
+        // Si es true, se borra también la caché HTTP del navegador al devolver una sesión (las cookies y el
+        // almacenamiento se borran siempre)
+        private boolean clearHttpCache = false;
+    }
+
+    /**
+     * Configuración del motor de descarga HTTP ({@code HttpFetchEngine}).
+     */
+    @Data
+    public static class Http {
+
+        // Si es true, los sitios con páginas generadas en el servidor se descargan sin navegador
+        private boolean enabled = true;
+
+        private int maxConnections = 200;
+
+        private int maxConnectionsPerHost = 20;
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        private Duration responseTimeout = Duration.ofSeconds(20);
+
+        private String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/130.0.0.0 Safari/537.36";
+
+        private String acceptLanguage = "es-ES,es;q=0.9,en;q=0.8";
+    }
+
+    /**
+     * Configuración de la paginación.
+     */
+    @Data
+    public static class Pagination {
+
+        private PaginationMode mode = PaginationMode.PARALLEL;
+
+        // Número máximo de páginas procesadas a la vez
+        private int parallelism = 4;
+
+        // Pestañas abiertas a la vez en cada navegador en el modo TABS
+        private int tabs = 4;
+
+        // Productos por página solicitados al sitio (0 = valor por defecto del sitio)
+        private int itemsPerPage = 0;
+    }
+
+    /**
+     * Configuración de la ejecución de tareas programadas.
+     */
+    @Data
+    public static class Jobs {
+
+        // Ejecuciones en curso o esperando permisos; las que no caben se omiten hasta el siguiente intervalo
+        private int maxPendingRuns = 10000;
+
+        // Si es true, cada ejecución solo devuelve los productos nuevos y deja de paginar en la primera página sin novedades
+        private boolean incremental = true;
+
+        // Productos recordados por tarea en el modo incremental; al superarlo la siguiente ejecución vuelve a ser completa
+        private int incrementalMaxItems = 100_000;
+    }
+
+    /**
+     * Límites de recursos costosos utilizados a la vez por todas las tareas ({@code ResourcePermits}).
+     */
+    @Data
+    public static class Permits {
+
+        // Sesiones de navegador en uso simultáneo
+        private int browser = 4;
+
+        // Descargas HTTP en curso simultáneas
+        private int http = 64;
+    }
+
+    /**
+     * Configuración del historial de precios en disco ({@code PriceHistoryStore}).
+     */
+    @Data
+    public static class History {
+
+        private boolean enabled = true;
+
+        // Directorio donde se guardan los segmentos
+        private String directory = "data/history";
+
+        // Tamaño a partir del cual se cierra el segmento activo y se abre uno nuevo (como máximo 2 GB menos 1 byte,
+        // porque cada segmento se mapea en memoria)
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+    }
+
+    /**
+     * Configuración de la eliminación de productos repetidos ({@code ProductDeduplicator}).
+     */
+    @Data
+    public static class Dedup {
+
+        // Si es false, los resultados y el historial conservan los productos repetidos
+        private boolean enabled = true;
+
+        // Si es true, el historial solo guarda observaciones nuevas o con precio distinto del último guardado
+        private boolean crossRun = true;
+
+        // Archivo con el último precio guardado de cada producto
+        private String file = "data/history/last-prices.bin";
+
+        // Productos recordados como máximo (unos 32 bytes de memoria cada uno); al superarlo se reinicia el registro
+        private int maxItems = 1_000_000;
+    }
+
+    /**
+     * Configuración del scraping en streaming ({@code ScrapingStreamService}).
+     */
+    @Data
+    public static class Stream {
+
+        // Tiempo máximo que puede mantenerse abierta la respuesta
+        private Duration timeout = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Configuración de las ejecuciones asíncronas ({@code ScrapingRunService}).
+     */
+    @Data
+    public static class Runs {
+
+        // Tiempo que se conserva una ejecución terminada para consultar su estado y sus productos
+        private Duration retention = Duration.ofHours(1);
+
+        // Ejecuciones conservadas como máximo; al superarlo se descartan las terminadas más antiguas
+        private int maxRetained = 1000;
+
+        // Productos por página como máximo al consultar los resultados
+        private int maxPageSize = 500;
+    }
+
+    /**
+     * Tipos de recurso que pueden bloquearse en el navegador. {@code Network.setBlockedURLs} solo admite patrones
+     * de URL, por lo que cada tipo se traduce a los patrones de sus extensiones habituales.
+     */
+    public enum ResourceType {
+        IMAGE("png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico"),
+        STYLESHEET("css"),
+        FONT("woff", "woff2", "ttf", "otf", "eot"),
+        MEDIA("mp4", "webm", "m3u8", "mp3", "ogg");
+
+        private final List<String> urlPatterns = new ArrayList<>();
+
+        ResourceType(String... extensions) {
+            for (String extension : extensions) {
+                urlPatterns.add("*." + extension);
+                urlPatterns.add("*." + extension + "?*");
+            }
+        }
+
+        public List<String> getUrlPatterns() {
+            return urlPatterns;
+        }
+    }
+
+    /**
+     * Configuración del bloqueo de recursos en el navegador ({@code ResourceBlocker}).
+     */
+    @Data
+    public static class Blocking {
+
+        private boolean enabled = true;
+
+        // Cada cuántas páginas de un mismo sitio se carga una sin bloqueo para estimar el ahorro (0 = nunca)
+        private int baselineEvery = 50;
+
+        // Perfiles por nombre; se aplica el primero cuyo host coincida y, si ninguno coincide, el llamado "default"
+        private final Map<String, BlockingProfile> profiles = new LinkedHashMap<>();
+    }
+
+    /**
+     * Recursos que se bloquean en los sitios de un perfil.
+     */
+    @Data
+    public static class BlockingProfile {
+
+        // Hosts a los que se aplica el perfil (también a sus subdominios)
+        private List<String> hosts = new ArrayList<>();
+
+        // Patrones de URL con comodines (*), por ejemplo de anuncios o rastreadores
+        private List<String> urlPatterns = new ArrayList<>();
+
+        private Set<ResourceType> resourceTypes = EnumSet.noneOf(ResourceType.class);
+    }
+
+    /**
+     * Configuración de las esperas del navegador ({@code PageReadiness}).
+     */
+    @Data
+    public static class Readiness {
+
+        // Intervalo entre comprobaciones de la página
+        private Duration pollInterval = Duration.ofMillis(50);
+
+        // Límites del tiempo máximo de espera aprendido por sitio
+        private Duration minTimeout = Duration.ofSeconds(2);
+        private Duration maxTimeout = Duration.ofSeconds(20);
+
+        // Tiempo máximo de espera del botón de siguiente página, que aparece junto con los productos
+        private Duration nextButtonMaxTimeout = Duration.ofSeconds(1);
+
+        // Percentil de las duraciones observadas y margen por el que se multiplica
+        private double percentile = 0.99;
+        private double timeoutFactor = 3.0;
+
+        // Duraciones recordadas por sitio y mínimo necesario para dejar de usar el tiempo máximo
+        private int window = 256;
+        private int minSamples = 10;
+    }
+
+    /**
+     * Configuración del índice de productos para las consultas ({@code ProductIndex}).
+     */
+    @Data
+    public static class Query {
+
+        // Si es true, los productos de cada resultado se añaden al índice
+        private boolean enabled = true;
+
+        // Productos distintos conservados como máximo; al superarlo se descartan los vistos hace más tiempo
+        private int maxProducts = 500_000;
+
+        // Productos por página de la consulta cuando no se indica y como máximo
+        private int defaultLimit = 50;
+        private int maxLimit = 500;
+    }
+
+    /**
+     * Configuración del ritmo de peticiones por sitio ({@code HostRateLimiter}), común a todas las tareas
+     * y a los dos motores de descarga.
+     */
+    @Data
+    public static class RateLimit {
+
+        private boolean enabled = true;
+
+        // Peticiones por segundo permitidas a cada host y peticiones seguidas que se admiten tras una pausa
+        private double rate = 2.0;
+        private int burst = 5;
+
+        // Ritmo mínimo al que puede reducirse un host que responde con errores
+        private double minRate = 0.1;
+
+        // Peticiones por segundo que se recuperan por cada segundo de respuestas correctas
+        private double additiveIncrease = 0.05;
+
+        // Factor por el que se multiplica el ritmo ante un 429, un 503, una página de verificación o una respuesta lenta
+        private double decreaseFactor = 0.5;
+
+        // Tiempo mínimo entre dos reducciones, para que un lote de respuestas fallidas cuente como una sola
+        private Duration decreaseInterval = Duration.ofSeconds(2);
+
+        // Respuestas más lentas se consideran señal de sobrecarga
+        private Duration slowResponse = Duration.ofSeconds(5);
+
+        // Textos que identifican una página de verificación antibots en el título o en la URL de la página
+        private List<String> challengeMarkers = new ArrayList<>(List.of(
+                "Pardon Our Interruption", "/splashui/challenge", "captcha"));
+
+        // Ritmo y ráfaga propios de algunos hosts, por ejemplo scraping.rate-limit.hosts[www.ebay.com].rate=3
+        private final Map<String, HostRate> hosts = new LinkedHashMap<>();
+    }
+
+    /**
+     * Ritmo de peticiones de un host concreto.
+     */
+    @Data
+    public static class HostRate {
+        private double rate;
+        private int burst;
+    }
+
+    /**
+     * Configuración de los reintentos ({@code ScrapeRetryPolicy}) y del circuito por host ({@code HostCircuitBreaker}).
+     */
+    @Data
+    public static class Resilience {
+
+        // Intentos ante fallos transitorios (tiempo agotado, red o caída del navegador): por ejecución en el
+        // recorrido secuencial y por página en el paralelo
+        private int maxAttempts = 3;
+
+        // Espera antes del primer reintento; se duplica en cada intento hasta el máximo y se reparte al azar
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofSeconds(20);
+
+        // Si es false, nunca se abre el circuito de un host
+        private boolean circuitBreakerEnabled = true;
+
+        // Ejecuciones fallidas seguidas que abren el circuito (una página de verificación lo abre directamente)
+        private int failureThreshold = 3;
+
+        // Tiempo que el circuito permanece abierto; se duplica cada vez que falla la prueba, hasta el máximo
+        private Duration openDuration = Duration.ofMinutes(1);
+        private Duration maxOpenDuration = Duration.ofMinutes(30);
+
+        // Si la ejecución de prueba no informa su resultado en este tiempo, se admite otra
+        private Duration probeTimeout = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Configuración del control de admisión de las solicitudes de scraping ({@code ScrapingAdmission}).
+     */
+    @Data
+    public static class Admission {
+
+        private boolean enabled = true;
+
+        // Solicitudes admitidas a la vez, entre las que se ejecutan y las que esperan permiso; el resto recibe un 503
+        private int maxInFlight = 32;
+
+        // Si es true, las solicitudes idénticas en curso comparten una sola ejecución
+        private boolean coalesce = true;
+
+        // Límites del Retry-After, que se estima con la duración media de un scraping
+        private Duration retryAfter = Duration.ofSeconds(5);
+        private Duration maxRetryAfter = Duration.ofMinutes(2);
+    }
+
+    /**
+     * Configuración de la caché de resultados de {@code POST /scraping} ({@code ScrapingResultCache}).
+     */
+    @Data
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        // Tiempo durante el que un resultado se sirve sin volver a hacer el scraping
+        private Duration ttl = Duration.ofMinutes(5);
+
+        // Tiempo adicional durante el que se sirve el resultado mientras se actualiza en segundo plano
+        private Duration staleWhileRevalidate = Duration.ofMinutes(10);
+
+        // Búsquedas distintas guardadas como máximo
+        private int maxEntries = 1000;
+    }
+
+    /**
+     * Configuración del vigilante de los procesos del navegador ({@code BrowserProcessWatchdog}).
+     */
+    @Data
+    public static class Watchdog {
+
+        private boolean enabled = true;
+
+        // Tiempo entre mediciones de memoria y CPU de cada sesión
+        private Duration interval = Duration.ofSeconds(30);
+
+        // Memoria residente de chromedriver, Chrome y sus procesos a partir de la cual la sesión se recicla (0 = sin límite)
+        private DataSize maxRss = DataSize.ofMegabytes(1536);
+
+        // Porcentaje de CPU (100 = un núcleo) que, mantenido durante cpu-samples mediciones, recicla la sesión (0 = sin límite)
+        private double maxCpu = 200.0;
+        private int cpuSamples = 4;
+
+        // Si es true, al arrancar se matan los chromedriver huérfanos que inició esta aplicación
+        // (los que escriben su registro en driver-log-directory)
+        private boolean killStrayDrivers = false;
+
+        // Directorio del registro de cada chromedriver; su ruta en --log-path identifica los procesos de esta aplicación
+        private String driverLogDirectory = "data/chromedriver";
+    }
+
+    /**
+     * Configuración de las métricas de scraping ({@code ScrapingMetrics}).
+     */
+    @Data
+    public static class Metrics {
+
+        // Hosts que se etiquetan por su nombre; el resto se agrupa como "other" para acotar las series de métricas
+        private List<String> hosts = new ArrayList<>(List.of("www.ebay.com"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.javabuilders.demowebscraping.controller;
+
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.service.PriceHistoryStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Controlador que expone el historial de precios guardado en disco por {@link PriceHistoryStore}.
+ */
+@RestController
+public class PriceHistoryController {
+
+    private final PriceHistoryStore priceHistoryStore;
+
+    /**
+     * Constructor del controlador que inyecta el almacén del historial de precios.
+     *
+     * @param priceHistoryStore El almacén con las observaciones de cada producto.
+     */
+    @Autowired
+    public PriceHistoryController(PriceHistoryStore priceHistoryStore) {
+        this.priceHistoryStore = priceHistoryStore;
+    }
+
+    /**
+     * Endpoint que devuelve las observaciones de un producto, de la más antigua a la más reciente.
+     *
+     * @param link El enlace del producto. Los parámetros de la URL se ignoran.
+     * @param from Fecha inicial en formato ISO-8601 (incluida). Opcional.
+     * @param to   Fecha final en formato ISO-8601 (excluida). Opcional.
+     * @return La lista de observaciones del producto en el rango indicado.
+     */
+    @GetMapping("/price-history")
+    public List<Product> getPriceHistory(@RequestParam String link,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return priceHistoryStore.history(link, from, to);
+    }
+}
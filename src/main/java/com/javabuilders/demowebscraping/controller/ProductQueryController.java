@@ -0,0 +1,89 @@
+package com.javabuilders.demowebscraping.controller;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.model.ProductQuery;
+import com.javabuilders.demowebscraping.model.ProductQueryResult;
+import com.javabuilders.demowebscraping.model.ProductSort;
+import com.javabuilders.demowebscraping.service.ProductIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+
+/**
+ * Controlador de las consultas sobre los productos obtenidos en los scrapings.
+ * <p>
+ * En lugar de descargar el último resultado completo con {@code GET /latest-scraping} y filtrarlo en el cliente,
+ * se buscan en el servidor los productos por palabras del nombre y rango de precios, y se devuelven por páginas
+ * solo los que coinciden.
+ * </p>
+ */
+@RestController
+public class ProductQueryController {
+
+    private final ProductIndex productIndex;
+    private final int defaultLimit;
+
+    /**
+     * Constructor del controlador que inyecta el índice de productos.
+     *
+     * @param productIndex El índice sobre el que se realizan las consultas.
+     * @param properties   La configuración, con los productos por página cuando la consulta no lo indica.
+     */
+    @Autowired
+    public ProductQueryController(ProductIndex productIndex, ScrapingProperties properties) {
+        this.productIndex = productIndex;
+        this.defaultLimit = properties.getQuery().getDefaultLimit();
+    }
+
+    /**
+     * Endpoint que busca productos.
+     *
+     * @param q        Palabras que deben aparecer todas en el nombre, sin distinguir mayúsculas ni acentos.
+     * @param minPrice Precio mínimo, en la moneda de cada producto.
+     * @param maxPrice Precio máximo, en la moneda de cada producto.
+     * @param sort     {@code newest} (por defecto), {@code price_asc} o {@code price_desc}.
+     * @param cursor   El {@code nextCursor} de la página anterior, para continuar la consulta.
+     * @param limit    Los productos por página.
+     * @return Los productos de la página y el cursor de la siguiente, o un estado HTTP 400 si algún parámetro no es válido.
+     */
+    @GetMapping("/products")
+    public ProductQueryResult searchProducts(@RequestParam(required = false) String q,
+                                             @RequestParam(required = false) BigDecimal minPrice,
+                                             @RequestParam(required = false) BigDecimal maxPrice,
+                                             @RequestParam(defaultValue = "newest") String sort,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        ProductQuery query = new ProductQuery(q,
+                toCents(minPrice, RoundingMode.CEILING),
+                toCents(maxPrice, RoundingMode.FLOOR),
+                parseSort(sort),
+                cursor,
+                limit == null ? defaultLimit : limit);
+        return productIndex.query(query);
+    }
+
+    private static Long toCents(BigDecimal price, RoundingMode rounding) {
+        if (price == null) {
+            return null;
+        }
+        try {
+            return price.movePointRight(2).setScale(0, rounding).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidParametersException("Precio fuera de rango: " + price);
+        }
+    }
+
+    private static ProductSort parseSort(String sort) {
+        try {
+            return ProductSort.valueOf(sort.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParametersException("Orden desconocido: " + sort + " (newest, price_asc o price_desc)");
+        }
+    }
+}
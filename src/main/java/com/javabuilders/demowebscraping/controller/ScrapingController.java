@@ -2,23 +2,33 @@ package com.javabuilders.demowebscraping.controller;
 
 import com.javabuilders.demowebscraping.model.ScrapingParameters;
 import com.javabuilders.demowebscraping.model.ScrapingResult;
+import com.javabuilders.demowebscraping.model.SerializedResult;
 import com.javabuilders.demowebscraping.service.IntervalSchedulerService;
 import com.javabuilders.demowebscraping.service.ScrapingResultManager;
+import com.javabuilders.demowebscraping.service.ScrapingStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 /**
  * Controlador encargado de manejar las solicitudes HTTP relacionadas con el proceso de scraping de productos.
  * <p>
- * Este controlador proporciona dos endpoints para interactuar con el sistema de scraping:
+ * Este controlador proporciona los siguientes endpoints para interactuar con el sistema de scraping:
  * </p>
  * <ul>
  *   <li>Un endpoint POST para ejecutar el proceso de scraping de acuerdo con los parámetros proporcionados.</li>
+ *   <li>Un endpoint POST que ejecuta el scraping enviando los productos de cada página en cuanto se extraen.</li>
  *   <li>Un endpoint GET para obtener los productos más recientes obtenidos del scraping.</li>
  * </ul>
  * <p>
@@ -31,17 +41,21 @@ public class ScrapingController {
 
     private final IntervalSchedulerService schedulerService;
     private final ScrapingResultManager resultManager;
+    private final ScrapingStreamService streamService;
 
     /**
      * Constructor del controlador que inyecta los servicios necesarios para ejecutar el scraping y gestionar los resultados.
      *
      * @param schedulerService El servicio encargado de gestionar las solicitudes de scraping y su programación.
      * @param resultManager El servicio encargado de manejar los resultados obtenidos del scraping.
+     * @param streamService El servicio que envía los resultados de cada página a medida que se obtienen.
      */
     @Autowired
-    public ScrapingController(IntervalSchedulerService schedulerService, ScrapingResultManager resultManager) {
+    public ScrapingController(IntervalSchedulerService schedulerService, ScrapingResultManager resultManager,
+                              ScrapingStreamService streamService) {
         this.schedulerService = schedulerService;
         this.resultManager = resultManager;
+        this.streamService = streamService;
     }
 
     /**
@@ -50,6 +64,8 @@ public class ScrapingController {
      * <p>
      * Si el resultado del scraping está vacío, devuelve un estado HTTP 204 No Content.
      * Si se obtienen productos, devuelve un estado HTTP 200 OK con la lista de productos obtenidos.
+     * Si hay demasiadas solicitudes en curso, devuelve un estado HTTP 503 con la cabecera {@code Retry-After};
+     * una solicitud idéntica a otra en curso recibe el resultado de esa ejecución.
      * </p>
      *
      * @param scrapingParameters Los parámetros necesarios para configurar y ejecutar el scraping,
@@ -67,14 +83,88 @@ public class ScrapingController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Endpoint que ejecuta el scraping y envía como Server-Sent Events los productos de cada página en cuanto
+     * se extraen, seguidos de un evento de progreso. Al terminar se envía un evento {@code complete}
+     * (o {@code error} si el scraping falla).
+     *
+     * @param scrapingParameters Los parámetros del scraping, como en {@code POST /scraping}.
+     * @return El flujo de eventos del scraping.
+     */
+    @PostMapping(value = "/scraping/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamScraping(@RequestBody ScrapingParameters scrapingParameters) {
+        return streamService.streamEvents(scrapingParameters);
+    }
+
+    /**
+     * Endpoint equivalente a {@link #streamScraping(ScrapingParameters)} que envía cada evento como una línea JSON
+     * (NDJSON), con el tipo de evento en el campo {@code event}.
+     *
+     * @param scrapingParameters Los parámetros del scraping, como en {@code POST /scraping}.
+     * @return El flujo de eventos del scraping.
+     */
+    @PostMapping(value = "/scraping/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter streamScrapingLines(@RequestBody ScrapingParameters scrapingParameters) {
+        return streamService.streamLines(scrapingParameters);
+    }
+
     /**
      * Endpoint que devuelve los productos más recientes obtenidos en la última ejecución de scraping.
      * Si no ha habido ejecuciones recientes, podría devolver un resultado vacío.
+     * <p>
+     * El JSON se genera una vez por cada scraping: la respuesta incluye su ETag y, si el cliente envía la misma
+     * en {@code If-None-Match}, se responde {@code 304 Not Modified} sin cuerpo. Si el cliente acepta gzip,
+     * se envía la versión ya comprimida, con su propia ETag.
+     * </p>
      *
-     * @return Un objeto {@link ScrapingResult} con los productos obtenidos en la última ejecución de scraping.
+     * @param ifNoneMatch    La ETag de la versión que ya tiene el cliente, si la envía.
+     * @param acceptEncoding Las codificaciones que acepta el cliente.
+     * @return El JSON del {@link ScrapingResult} con los productos obtenidos en la última ejecución de scraping.
      */
     @GetMapping("/latest-scraping")
-    public ScrapingResult getLatestProducts() {
-        return resultManager.getLatestResult();
+    public ResponseEntity<?> getLatestProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SerializedResult latest = resultManager.getLatestSerializedResult();
+        if (latest == null) {
+            return ResponseEntity.ok().build();
+        }
+        if (!latest.isSerialized()) {
+            return ResponseEntity.ok(latest.getResult());
+        }
+        boolean gzipped = acceptsGzip(acceptEncoding);
+        if (latest.matches(ifNoneMatch, gzipped)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(latest.etagFor(gzipped))
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(latest.etagFor(gzipped))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzipped) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(latest.getGzip());
+        }
+        return response.body(latest.getJson());
+    }
+
+    /**
+     * @return {@code true} si la cabecera {@code Accept-Encoding} incluye gzip sin {@code q=0}.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
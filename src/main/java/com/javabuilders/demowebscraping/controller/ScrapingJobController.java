@@ -0,0 +1,94 @@
+package com.javabuilders.demowebscraping.controller;
+
+import com.javabuilders.demowebscraping.model.ScrapingJob;
+import com.javabuilders.demowebscraping.service.TaskSchedulerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+
+/**
+ * Controlador encargado de gestionar las tareas de scraping programadas.
+ * <p>
+ * Las tareas se crean a través de {@code POST /scraping} con un intervalo distinto de "once";
+ * este controlador permite consultarlas, pausarlas, reanudarlas y cancelarlas mediante su identificador.
+ * </p>
+ */
+@RestController
+@RequestMapping("/scheduled-jobs")
+public class ScrapingJobController {
+
+    private final TaskSchedulerService taskSchedulerService;
+
+    /**
+     * Constructor del controlador que inyecta el servicio de programación de tareas.
+     *
+     * @param taskSchedulerService El servicio que mantiene el registro de tareas programadas.
+     */
+    @Autowired
+    public ScrapingJobController(TaskSchedulerService taskSchedulerService) {
+        this.taskSchedulerService = taskSchedulerService;
+    }
+
+    /**
+     * Endpoint que devuelve todas las tareas programadas.
+     *
+     * @return La lista de tareas con su estado y el resumen de sus ejecuciones.
+     */
+    @GetMapping
+    public List<ScrapingJob> listJobs() {
+        return taskSchedulerService.listJobs();
+    }
+
+    /**
+     * Endpoint que devuelve una tarea programada.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return La tarea solicitada, o un estado HTTP 404 si no existe.
+     */
+    @GetMapping("/{jobId}")
+    public ScrapingJob getJob(@PathVariable String jobId) {
+        return taskSchedulerService.getJob(jobId);
+    }
+
+    /**
+     * Endpoint que pausa una tarea programada.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return La tarea pausada.
+     */
+    @PostMapping("/{jobId}/pause")
+    public ScrapingJob pauseJob(@PathVariable String jobId) {
+        return taskSchedulerService.pauseJob(jobId);
+    }
+
+    /**
+     * Endpoint que reanuda una tarea pausada.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return La tarea reanudada.
+     */
+    @PostMapping("/{jobId}/resume")
+    public ScrapingJob resumeJob(@PathVariable String jobId) {
+        return taskSchedulerService.resumeJob(jobId);
+    }
+
+    /**
+     * Endpoint que cancela una tarea y la elimina del registro.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return Un estado HTTP 204 No Content si la tarea se canceló.
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancelJob(@PathVariable String jobId) {
+        taskSchedulerService.cancelJob(jobId);
+        return ResponseEntity.noContent().build();
+    }
+}
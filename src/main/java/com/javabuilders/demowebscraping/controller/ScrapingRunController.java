@@ -0,0 +1,97 @@
+package com.javabuilders.demowebscraping.controller;
+
+import com.javabuilders.demowebscraping.model.ProductPage;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingRun;
+import com.javabuilders.demowebscraping.service.ScrapingRunService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+
+/**
+ * Controlador encargado de las ejecuciones de scraping asíncronas.
+ * <p>
+ * A diferencia de {@code POST /scraping}, que mantiene ocupada la petición hasta que termina el scraping,
+ * aquí la solicitud se acepta de inmediato con un identificador, y el estado, el avance y los productos
+ * se consultan después con ese identificador.
+ * </p>
+ */
+@RestController
+@RequestMapping("/scraping/jobs")
+public class ScrapingRunController {
+
+    private final ScrapingRunService runService;
+
+    /**
+     * Constructor del controlador que inyecta el servicio de ejecuciones asíncronas.
+     *
+     * @param runService El servicio que ejecuta y registra los scrapings asíncronos.
+     */
+    @Autowired
+    public ScrapingRunController(ScrapingRunService runService) {
+        this.runService = runService;
+    }
+
+    /**
+     * Endpoint que acepta una solicitud de scraping y la ejecuta en segundo plano.
+     *
+     * @param scrapingParameters Los parámetros del scraping, como en {@code POST /scraping}.
+     * @return Un estado HTTP 202 Accepted con la ejecución y, en la cabecera {@code Location}, la URL de su estado.
+     */
+    @PostMapping
+    public ResponseEntity<ScrapingRun> submit(@RequestBody ScrapingParameters scrapingParameters) {
+        ScrapingRun run = runService.submit(scrapingParameters);
+        return ResponseEntity.accepted()
+                .location(URI.create("/scraping/jobs/" + run.getId()))
+                .body(run);
+    }
+
+    /**
+     * Endpoint que devuelve el estado y el avance de una ejecución: páginas completadas, productos encontrados
+     * y duración de cada fase.
+     *
+     * @param jobId El identificador de la ejecución.
+     * @return La ejecución solicitada, o un estado HTTP 404 si no existe.
+     */
+    @GetMapping("/{jobId}")
+    public ScrapingRun getRun(@PathVariable String jobId) {
+        return runService.getRun(jobId);
+    }
+
+    /**
+     * Endpoint que devuelve los productos de una ejecución terminada, por páginas.
+     *
+     * @param jobId El identificador de la ejecución.
+     * @param page  El número de página, empezando por 0.
+     * @param size  Los productos por página.
+     * @return La página de productos, o un estado HTTP 409 si la ejecución no terminó correctamente.
+     */
+    @GetMapping("/{jobId}/products")
+    public ProductPage getProducts(@PathVariable String jobId,
+                                   @RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "100") int size) {
+        return runService.getProducts(jobId, page, size);
+    }
+
+    /**
+     * Endpoint que cancela una ejecución en curso o descarta una terminada.
+     *
+     * @param jobId El identificador de la ejecución.
+     * @return Un estado HTTP 204 No Content.
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable String jobId) {
+        runService.cancel(jobId);
+        return ResponseEntity.noContent().build();
+    }
+}
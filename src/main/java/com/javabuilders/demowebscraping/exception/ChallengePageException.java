@@ -0,0 +1,18 @@
+package com.javabuilders.demowebscraping.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando el sitio responde con una página de verificación antibots
+ * en lugar de la página solicitada.
+ * Esta excepción es una subclase de {@link RuntimeException}, lo que la convierte en una excepción no verificada.
+ */
+public class ChallengePageException extends RuntimeException {
+
+    /**
+     * Constructor de la excepción {@link ChallengePageException}.
+     *
+     * @param url La URL que se solicitó.
+     */
+    public ChallengePageException(String url) {
+        super("El sitio respondió con una página de verificación al solicitar " + url);
+    }
+}
@@ -1,10 +1,12 @@
 package com.javabuilders.demowebscraping.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +44,70 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Maneja las excepciones de tipo {@link JobNotFoundException}, que ocurren cuando se consulta o modifica
+     * una tarea de scraping que no existe.
+     *
+     * @param ex La excepción {@link JobNotFoundException} que contiene el mensaje de error.
+     * @return Una respuesta con un código HTTP 404 (Not Found) y un mensaje detallado sobre el error.
+     */
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleJobNotFound(JobNotFoundException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Maneja las excepciones de tipo {@link JobNotFinishedException}, que ocurren cuando se solicitan los productos
+     * de una ejecución que todavía no ha terminado o que terminó con error.
+     *
+     * @param ex La excepción {@link JobNotFinishedException} que contiene el mensaje de error.
+     * @return Una respuesta con un código HTTP 409 (Conflict) y un mensaje detallado sobre el error.
+     */
+    @ExceptionHandler(JobNotFinishedException.class)
+    public ResponseEntity<Map<String, Object>> handleJobNotFinished(JobNotFinishedException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las excepciones de tipo {@link HostUnavailableException}, que ocurren cuando el circuito del host
+     * está abierto tras varios fallos seguidos y no se inicia el scraping.
+     *
+     * @param ex La excepción {@link HostUnavailableException} con el tiempo que falta para reintentar.
+     * @return Una respuesta con un código HTTP 503 (Service Unavailable), la cabecera {@code Retry-After}
+     *         y un mensaje detallado sobre el error.
+     */
+    @ExceptionHandler(HostUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleHostUnavailable(HostUnavailableException ex) {
+        return withRetryAfter(buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE), ex.getRetryAfter());
+    }
+
+    /**
+     * Maneja las excepciones de tipo {@link ScrapingOverloadedException}, que ocurren cuando hay demasiadas
+     * solicitudes de scraping en curso para admitir una más.
+     *
+     * @param ex La excepción {@link ScrapingOverloadedException} con el tiempo estimado para reintentar.
+     * @return Una respuesta con un código HTTP 503 (Service Unavailable), la cabecera {@code Retry-After}
+     *         y un mensaje detallado sobre el error.
+     */
+    @ExceptionHandler(ScrapingOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleScrapingOverloaded(ScrapingOverloadedException ex) {
+        return withRetryAfter(buildErrorResponse(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE), ex.getRetryAfter());
+    }
+
+    /**
+     * Añade a una respuesta de error la cabecera {@code Retry-After}, en segundos.
+     *
+     * @param response   La respuesta de error.
+     * @param retryAfter El tiempo tras el cual el cliente puede volver a intentarlo.
+     * @return La respuesta con la cabecera.
+     */
+    private ResponseEntity<Map<String, Object>> withRetryAfter(ResponseEntity<Map<String, Object>> response,
+                                                              Duration retryAfter) {
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body(response.getBody());
+    }
+
     /**
      * Método auxiliar para construir una respuesta de error detallada en formato JSON.
      * Se incluye la marca de tiempo, el código de estado HTTP, el mensaje de error y el texto asociado
@@ -0,0 +1,29 @@
+package com.javabuilders.demowebscraping.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción personalizada que se lanza cuando no se inicia un scraping porque el circuito de su host está abierto
+ * tras varios fallos seguidos.
+ * Esta excepción es una subclase de {@link RuntimeException}, lo que la convierte en una excepción no verificada.
+ */
+public class HostUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructor de la excepción {@link HostUnavailableException}.
+     *
+     * @param host       El host del sitio.
+     * @param retryAfter El tiempo que falta para que se vuelva a intentar con el host.
+     */
+    public HostUnavailableException(String host, Duration retryAfter) {
+        super("El sitio " + host + " no está disponible tras varios fallos seguidos; se volverá a intentar en "
+                + Math.max(1, retryAfter.toSeconds()) + " s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,21 @@
+package com.javabuilders.demowebscraping.exception;
+
+import com.javabuilders.demowebscraping.model.RunStatus;
+
+/**
+ * Excepción personalizada que se lanza cuando se solicitan los productos de una ejecución de scraping
+ * que todavía no ha terminado correctamente.
+ * Esta excepción es una subclase de {@link RuntimeException}, lo que la convierte en una excepción no verificada.
+ */
+public class JobNotFinishedException extends RuntimeException {
+
+    /**
+     * Constructor de la excepción {@link JobNotFinishedException}.
+     *
+     * @param jobId  El identificador de la ejecución.
+     * @param status El estado actual de la ejecución.
+     */
+    public JobNotFinishedException(String jobId, RunStatus status) {
+        super("La ejecución de scraping " + jobId + " no tiene resultados disponibles (estado: " + status + ")");
+    }
+}
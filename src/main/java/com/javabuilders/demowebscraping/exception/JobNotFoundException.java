@@ -0,0 +1,17 @@
+package com.javabuilders.demowebscraping.exception;
+
+/**
+ * Excepción personalizada que se lanza cuando se solicita una tarea de scraping que no existe.
+ * Esta excepción es una subclase de {@link RuntimeException}, lo que la convierte en una excepción no verificada.
+ */
+public class JobNotFoundException extends RuntimeException {
+
+    /**
+     * Constructor de la excepción {@link JobNotFoundException}.
+     *
+     * @param jobId El identificador de la tarea que no se encontró.
+     */
+    public JobNotFoundException(String jobId) {
+        super("No existe la tarea de scraping: " + jobId);
+    }
+}
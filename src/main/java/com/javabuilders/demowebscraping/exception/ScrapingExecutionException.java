@@ -17,4 +17,13 @@ public class ScrapingExecutionException extends RuntimeException{
     public ScrapingExecutionException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Constructor de la excepción {@link ScrapingExecutionException} sin una causa subyacente.
+     *
+     * @param message El mensaje detallado sobre el error que describe la razón por la cual la ejecución del scraping falló.
+     */
+    public ScrapingExecutionException(String message) {
+        super(message);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.javabuilders.demowebscraping.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción personalizada que se lanza cuando se rechaza una solicitud de scraping porque ya hay demasiadas
+ * en curso o esperando.
+ * Esta excepción es una subclase de {@link RuntimeException}, lo que la convierte en una excepción no verificada.
+ */
+public class ScrapingOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructor de la excepción {@link ScrapingOverloadedException}.
+     *
+     * @param inFlight   Las solicitudes admitidas en este momento.
+     * @param retryAfter El tiempo estimado tras el cual conviene volver a intentarlo.
+     */
+    public ScrapingOverloadedException(int inFlight, Duration retryAfter) {
+        super("Hay demasiadas solicitudes de scraping en curso (" + inFlight + "); inténtelo de nuevo en "
+                + Math.max(1, retryAfter.toSeconds()) + " s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
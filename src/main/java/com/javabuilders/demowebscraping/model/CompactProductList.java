@@ -0,0 +1,237 @@
+package com.javabuilders.demowebscraping.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Lista inmutable de productos almacenada por columnas para ocupar poca memoria con resultados grandes.
+ * <p>
+ * En lugar de un objeto {@link Product} con sus textos y su {@link Date} por elemento, guarda arreglos primitivos:
+ * el identificador numérico del producto, el precio en centavos (mínimo y máximo) y referencias a diccionarios
+ * para los textos que se repiten (nombres, textos de precio, monedas y prefijos de enlaces). La fecha se guarda
+ * una vez por lote, ya que todos los productos de una misma página comparten la misma.
+ * </p>
+ * <p>
+ * {@link #get(int)} reconstruye el {@link Product} bajo demanda, por lo que la serialización JSON no cambia.
+ * Cuando se conoce el identificador del producto, el enlace se guarda como prefijo, identificador y resto
+ * (normalmente los parámetros), y se reconstruye tal cual. Un producto sin fecha se reconstruye sin fecha.
+ * </p>
+ */
+public final class CompactProductList extends AbstractList<Product> implements RandomAccess {
+
+    // Valor de los centavos cuando el precio no pudo interpretarse
+    public static final long NO_PRICE = -1;
+
+    // Valor de la fecha cuando el producto no la tenía
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final int size;
+    private final long[] itemIds;
+    private final long[] minCents;
+    private final long[] maxCents;
+    private final int[] currencyIds;
+    private final int[] nameIds;
+    private final int[] priceTextIds;
+    private final int[] linkIds;
+    private final int[] linkSuffixIds;
+    private final int[] batchIds;
+    private final long[] batchTimestamps;
+    private final String[] dictionary;
+
+    private CompactProductList(Builder builder) {
+        this.size = builder.size;
+        this.itemIds = Arrays.copyOf(builder.itemIds, size);
+        this.minCents = Arrays.copyOf(builder.minCents, size);
+        this.maxCents = Arrays.copyOf(builder.maxCents, size);
+        this.currencyIds = Arrays.copyOf(builder.currencyIds, size);
+        this.nameIds = Arrays.copyOf(builder.nameIds, size);
+        this.priceTextIds = Arrays.copyOf(builder.priceTextIds, size);
+        this.linkIds = Arrays.copyOf(builder.linkIds, size);
+        this.linkSuffixIds = Arrays.copyOf(builder.linkSuffixIds, size);
+        this.batchIds = Arrays.copyOf(builder.batchIds, size);
+        this.batchTimestamps = Arrays.copyOf(builder.batchTimestamps, builder.batchCount);
+        this.dictionary = builder.dictionary.toArray(new String[0]);
+    }
+
+    /**
+     * @return Un constructor para añadir productos uno a uno.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Product get(int index) {
+        long timestamp = getTimestamp(index);
+        return new Product(getName(index), getPriceText(index), getLink(index),
+                timestamp == NO_TIMESTAMP ? null : new Date(timestamp));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public long getItemId(int index) {
+        return itemIds[checkIndex(index)];
+    }
+
+    public long getMinCents(int index) {
+        return minCents[checkIndex(index)];
+    }
+
+    public long getMaxCents(int index) {
+        return maxCents[checkIndex(index)];
+    }
+
+    public String getCurrency(int index) {
+        return dictionary[currencyIds[checkIndex(index)]];
+    }
+
+    public String getName(int index) {
+        return dictionary[nameIds[checkIndex(index)]];
+    }
+
+    public String getPriceText(int index) {
+        return dictionary[priceTextIds[checkIndex(index)]];
+    }
+
+    /**
+     * @return El enlace del producto. Si se conoce su identificador, se reconstruye a partir del prefijo
+     *         del enlace, el identificador y el resto del enlace.
+     */
+    public String getLink(int index) {
+        String linkOrPrefix = dictionary[linkIds[checkIndex(index)]];
+        long itemId = itemIds[index];
+        return itemId > 0 ? linkOrPrefix + itemId + dictionary[linkSuffixIds[index]] : linkOrPrefix;
+    }
+
+    /**
+     * @return La fecha de la observación en milisegundos, o {@link #NO_TIMESTAMP} si el producto no tenía fecha.
+     */
+    public long getTimestamp(int index) {
+        return batchTimestamps[batchIds[checkIndex(index)]];
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    /**
+     * Constructor de {@link CompactProductList}. No es seguro para uso concurrente.
+     */
+    public static final class Builder {
+        private int size;
+        private long[] itemIds = new long[16];
+        private long[] minCents = new long[16];
+        private long[] maxCents = new long[16];
+        private int[] currencyIds = new int[16];
+        private int[] nameIds = new int[16];
+        private int[] priceTextIds = new int[16];
+        private int[] linkIds = new int[16];
+        private int[] linkSuffixIds = new int[16];
+        private int[] batchIds = new int[16];
+
+        private long[] batchTimestamps = new long[4];
+        private int batchCount;
+
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryIds = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Añade un producto.
+         *
+         * @param name      El nombre del producto.
+         * @param priceText El precio tal como lo muestra el sitio.
+         * @param price     El precio interpretado, o {@code null} si no pudo interpretarse.
+         * @param itemId    El identificador numérico del producto, o 0 si se desconoce.
+         * @param link      El enlace del producto.
+         * @param timestamp La fecha de la observación, o {@link #NO_TIMESTAMP} si no la tiene.
+         *                  Los productos consecutivos con la misma fecha comparten lote.
+         * @return Este constructor.
+         */
+        public Builder add(String name, String priceText, ParsedPrice price, long itemId, String link, long timestamp) {
+            ensureCapacity(size + 1);
+            if (batchCount == 0 || batchTimestamps[batchCount - 1] != timestamp) {
+                if (batchCount == batchTimestamps.length) {
+                    batchTimestamps = Arrays.copyOf(batchTimestamps, batchCount * 2);
+                }
+                batchTimestamps[batchCount++] = timestamp;
+            }
+
+            int idStart = itemId > 0 ? idStart(link, itemId) : -1;
+            String linkPrefix = idStart >= 0 ? link.substring(0, idStart) : null;
+            long storedItemId = linkPrefix != null ? itemId : 0;
+
+            itemIds[size] = storedItemId;
+            minCents[size] = price == null ? NO_PRICE : price.getMinCents();
+            maxCents[size] = price == null ? NO_PRICE : price.getMaxCents();
+            currencyIds[size] = intern(price == null ? "" : price.getCurrency());
+            nameIds[size] = intern(name);
+            priceTextIds[size] = intern(priceText);
+            linkIds[size] = intern(linkPrefix != null ? linkPrefix : link);
+            linkSuffixIds[size] = intern(linkPrefix != null ? link.substring(idStart + Long.toString(itemId).length()) : "");
+            batchIds[size] = batchCount - 1;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return La lista compacta con los productos añadidos.
+         */
+        public CompactProductList build() {
+            return new CompactProductList(this);
+        }
+
+        /**
+         * Posición del identificador al final de la ruta del enlace, de modo que prefijo + identificador + resto
+         * reconstruya el enlace. Devuelve -1 si el identificador no aparece ahí.
+         */
+        private static int idStart(String link, long itemId) {
+            if (link == null) {
+                return -1;
+            }
+            String id = Long.toString(itemId);
+            int end = link.indexOf('?');
+            String path = end >= 0 ? link.substring(0, end) : link;
+            return path.endsWith(id) ? path.length() - id.length() : -1;
+        }
+
+        private int intern(String value) {
+            String text = value == null ? "" : value;
+            Integer id = dictionaryIds.get(text);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.add(text);
+                dictionaryIds.put(text, id);
+            }
+            return id;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= itemIds.length) {
+                return;
+            }
+            int capacity = Math.max(required, itemIds.length * 2);
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            minCents = Arrays.copyOf(minCents, capacity);
+            maxCents = Arrays.copyOf(maxCents, capacity);
+            currencyIds = Arrays.copyOf(currencyIds, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            priceTextIds = Arrays.copyOf(priceTextIds, capacity);
+            linkIds = Arrays.copyOf(linkIds, capacity);
+            linkSuffixIds = Arrays.copyOf(linkSuffixIds, capacity);
+            batchIds = Arrays.copyOf(batchIds, capacity);
+        }
+    }
+}
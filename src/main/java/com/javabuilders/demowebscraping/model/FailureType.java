@@ -0,0 +1,45 @@
+package com.javabuilders.demowebscraping.model;
+
+/**
+ * Tipo de fallo de una ejecución de scraping. Los fallos transitorios se reintentan; el resto se repetiría igual
+ * en un nuevo intento. Solo los fallos que indican un problema del sitio cuentan para el circuito del host.
+ */
+public enum FailureType {
+    // La página o el navegador no respondieron a tiempo
+    TIMEOUT(true, true),
+    // Error de red al conectar con el sitio
+    NETWORK(true, true),
+    // La sesión de navegador se cerró o dejó de responder
+    DRIVER_CRASH(true, false),
+    // El sitio mostró una página de verificación antibots
+    CHALLENGE(false, true),
+    // La página cargó pero no tenía los productos esperados
+    NO_ELEMENTS(false, false),
+    // La ejecución se interrumpió o se canceló; no dice nada sobre el sitio
+    CANCELLED(false, false),
+    // Cualquier otro error
+    OTHER(false, false);
+
+    private final boolean transientFailure;
+    private final boolean hostFailure;
+
+    FailureType(boolean transientFailure, boolean hostFailure) {
+        this.transientFailure = transientFailure;
+        this.hostFailure = hostFailure;
+    }
+
+    /**
+     * @return {@code true} si es probable que un nuevo intento tenga éxito.
+     */
+    public boolean isTransient() {
+        return transientFailure;
+    }
+
+    /**
+     * @return {@code true} si el fallo indica que el sitio no responde o nos bloquea (tiempo de espera, error de red
+     * o de servidor, página de verificación), y no un problema local o una búsqueda sin resultados.
+     */
+    public boolean isHostFailure() {
+        return hostFailure;
+    }
+}
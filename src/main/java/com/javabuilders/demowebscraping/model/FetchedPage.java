@@ -0,0 +1,24 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Página obtenida mediante una petición HTTP, sin renderizar en un navegador.
+ * Incluye la URL solicitada, el código de estado, el HTML ya descomprimido y el tiempo que tardó la descarga.
+ */
+@Data
+@AllArgsConstructor
+public class FetchedPage {
+    private String url;
+    private int statusCode;
+    private String html;
+    private long elapsedMillis;
+
+    /**
+     * @return {@code true} si el servidor respondió con un código 2xx.
+     */
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
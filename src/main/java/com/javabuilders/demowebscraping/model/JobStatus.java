@@ -0,0 +1,11 @@
+package com.javabuilders.demowebscraping.model;
+
+/**
+ * Estado de una tarea de scraping programada.
+ */
+public enum JobStatus {
+    // La tarea se ejecuta en cada intervalo
+    ACTIVE,
+    // La tarea se conserva pero no se ejecuta hasta que se reanude
+    PAUSED
+}
@@ -0,0 +1,21 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.Value;
+
+/**
+ * Precio de un producto convertido a centavos, con su código de moneda.
+ * Los precios de rango ("$10.00 a $20.00") tienen mínimo y máximo distintos; el resto, iguales.
+ */
+@Value
+public class ParsedPrice {
+    long minCents;
+    long maxCents;
+    String currency;
+
+    /**
+     * @return {@code true} si el precio es un rango de valores.
+     */
+    public boolean isRange() {
+        return minCents != maxCents;
+    }
+}
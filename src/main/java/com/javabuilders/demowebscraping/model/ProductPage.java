@@ -0,0 +1,19 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Una página de los productos obtenidos en una ejecución de scraping.
+ */
+@Data
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> products;
+    private int page;
+    private int size;
+    private long totalProducts;
+    private int totalPages;
+}
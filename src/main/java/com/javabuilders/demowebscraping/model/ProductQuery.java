@@ -0,0 +1,22 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Filtros y paginación de una consulta de productos.
+ * Los precios se expresan en centavos y se comparan con el precio mínimo de cada producto, en su propia moneda;
+ * un valor {@code null} indica que no hay límite.
+ */
+@Data
+@AllArgsConstructor
+public class ProductQuery {
+    // Palabras que deben aparecer todas en el nombre del producto
+    private String keywords;
+    private Long minCents;
+    private Long maxCents;
+    private ProductSort sort;
+    // Cursor devuelto por la página anterior, o null para la primera
+    private String cursor;
+    private int limit;
+}
@@ -0,0 +1,17 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Una página del resultado de una consulta de productos.
+ * {@code nextCursor} se envía en la siguiente consulta para continuar; es {@code null} en la última página.
+ */
+@Data
+@AllArgsConstructor
+public class ProductQueryResult {
+    private List<Product> products;
+    private String nextCursor;
+}
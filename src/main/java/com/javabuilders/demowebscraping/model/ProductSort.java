@@ -0,0 +1,11 @@
+package com.javabuilders.demowebscraping.model;
+
+/**
+ * Orden de los productos en una consulta.
+ */
+public enum ProductSort {
+    // Los productos vistos por primera vez más recientemente primero
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC
+}
@@ -0,0 +1,17 @@
+package com.javabuilders.demowebscraping.model;
+
+/**
+ * Estado de una ejecución de scraping enviada de forma asíncrona.
+ */
+public enum RunStatus {
+    // Aceptada, todavía no ha empezado
+    QUEUED,
+    // En curso (puede estar esperando permisos de navegador o de descarga)
+    RUNNING,
+    // Terminada; sus productos pueden consultarse
+    COMPLETED,
+    // Terminada con error
+    FAILED,
+    // Cancelada por el cliente
+    CANCELLED
+}
@@ -0,0 +1,24 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Tarea de scraping programada para repetirse en intervalos regulares.
+ * Incluye sus parámetros, su estado y un resumen de sus ejecuciones.
+ */
+@Data
+@AllArgsConstructor
+public class ScrapingJob {
+    private String id;
+    private ScrapingParameters parameters;
+    private long intervalMillis;
+    private JobStatus status;
+    private Instant createdAt;
+    private Instant lastRunAt;
+    private int lastProductCount;
+    private long runs;
+    private long failures;
+}
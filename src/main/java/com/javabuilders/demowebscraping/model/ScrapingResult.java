@@ -8,10 +8,16 @@ import java.util.List;
 
 /**
  * Resultado del scraping, que incluye una lista de productos obtenidos.
+ * Si la solicitud programó una tarea periódica, incluye también el identificador de esa tarea.
  */
 @Data
 @AllArgsConstructor
 public class ScrapingResult {
     //Esta lista nos ayudará a tener historial de los productos
     List<Product> products;
+    String jobId;
+
+    public ScrapingResult(List<Product> products) {
+        this(products, null);
+    }
 }
@@ -0,0 +1,44 @@
+package com.javabuilders.demowebscraping.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ejecución de scraping enviada de forma asíncrona: su estado, su avance y, al terminar, sus productos.
+ * Los productos no se incluyen al serializarla; se consultan por páginas.
+ */
+@Data
+@RequiredArgsConstructor
+public class ScrapingRun {
+    private final String id;
+    private final ScrapingParameters parameters;
+    private final Instant submittedAt;
+    private volatile RunStatus status = RunStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int pagesCompleted;
+    private volatile int productsFound;
+    // Duración en milisegundos de cada fase del scraping
+    private final Map<String, Long> phaseMillis = new ConcurrentHashMap<>();
+    private volatile String error;
+    // Tipo de fallo si el scraping terminó sin productos por un fallo
+    private volatile FailureType failure;
+    // Identificador de la tarea programada, si el intervalo no era "once"
+    private volatile String jobId;
+    @JsonIgnore
+    private volatile List<Product> products;
+
+    /**
+     * @return {@code true} si la ejecución ya terminó, con o sin éxito.
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == RunStatus.COMPLETED || status == RunStatus.FAILED || status == RunStatus.CANCELLED;
+    }
+}
@@ -0,0 +1,64 @@
+package com.javabuilders.demowebscraping.model;
+
+import lombok.Value;
+
+/**
+ * Último resultado de scraping junto con su JSON ya generado, en texto plano y comprimido con gzip,
+ * y la ETag fuerte que lo identifica. Se genera una sola vez por actualización, de modo que
+ * {@code GET /latest-scraping} solo tiene que copiar bytes o responder {@code 304 Not Modified}.
+ * Como exige el RFC 9110, la versión comprimida tiene su propia ETag fuerte: la misma con el sufijo {@code -gz}.
+ * <p>
+ * Si no se pudo generar el JSON, {@code json} y {@code gzip} son {@code null} y se serializa {@code result}
+ * en cada respuesta, como antes.
+ * </p>
+ */
+@Value
+public class SerializedResult {
+    ScrapingResult result;
+    byte[] json;
+    byte[] gzip;
+    String etag;
+
+    /**
+     * @return {@code true} si se dispone del JSON ya generado.
+     */
+    public boolean isSerialized() {
+        return json != null;
+    }
+
+    /**
+     * @param gzipped {@code true} para la versión comprimida con gzip.
+     * @return La ETag de la versión indicada, o {@code null} si no se generó el JSON.
+     */
+    public String etagFor(boolean gzipped) {
+        if (etag == null || !gzipped) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Comprueba la cabecera {@code If-None-Match} de una petición frente a la versión que se respondería.
+     * Como indica el RFC 9110, la comparación es débil: se ignora el prefijo {@code W/} de las etiquetas recibidas.
+     *
+     * @param ifNoneMatch El valor de la cabecera, o {@code null} si no se envió.
+     * @param gzipped     {@code true} si se respondería con la versión comprimida.
+     * @return {@code true} si el cliente ya tiene esta versión del resultado.
+     */
+    public boolean matches(String ifNoneMatch, boolean gzipped) {
+        String current = etagFor(gzipped);
+        if (ifNoneMatch == null || current == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,465 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Vigila los procesos del sistema de cada sesión de navegador: el {@code chromedriver} y todos sus descendientes
+ * (Chrome y sus procesos de renderizado), obtenidos con {@link ProcessHandle}.
+ * <p>
+ * Cada {@code scraping.watchdog.interval} mide la memoria residente (de {@code /proc}, solo en Linux) y el uso de CPU
+ * de cada árbol de procesos y:
+ * </p>
+ * <ul>
+ *   <li>marca para reciclar las sesiones que superan {@code max-rss} o que superan {@code max-cpu} durante
+ *       {@code cpu-samples} mediciones seguidas; el pool las cierra en lugar de reutilizarlas
+ *       ({@link #shouldRecycle(WebDriver)});</li>
+ *   <li>mata los procesos que siguen vivos después de cerrar la sesión, y cierra las sesiones cuyo hilo
+ *       terminó sin liberarlas;</li>
+ *   <li>al detener la aplicación, mata los {@code chromedriver} sin registrar y, si se habilita
+ *       {@code kill-stray-drivers}, al arrancar mata los huérfanos que quedaron de ejecuciones anteriores.</li>
+ * </ul>
+ * Cada {@code chromedriver} se inicia con {@code --log-path} dentro de {@code driver-log-directory}
+ * ({@link #driverLogFile()}); solo los procesos con esa marca se consideran de esta aplicación.
+ * <p>
+ * La memoria de cada proceso incluye las páginas compartidas con los demás, por lo que la suma es una cota superior.
+ * </p>
+ */
+@Component
+public class BrowserProcessWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserProcessWatchdog.class);
+
+    private static final String DRIVER_COMMAND = "chromedriver";
+    private static final String LOG_PREFIX = "chromedriver-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final ScrapingProperties.Watchdog config;
+    private final TaskScheduler taskScheduler;
+    private final Path driverLogDirectory;
+    private final Map<WebDriver, TrackedSession> sessions = new ConcurrentHashMap<>();
+    // chromedriver que no se pudieron asociar a su sesión; no se matan, porque pueden estar en uso
+    private final Set<ProcessHandle> unidentifiedDrivers = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<WebDriver> orphanHandler = WebDriverManager::closeDriver;
+    private volatile ScheduledFuture<?> sampling;
+    private volatile long totalRssBytes;
+    private volatile int totalProcesses;
+
+    public BrowserProcessWatchdog(ScrapingProperties properties, TaskScheduler taskScheduler,
+                                  ScrapingMetrics scrapingMetrics) {
+        this.config = properties.getWatchdog();
+        this.taskScheduler = taskScheduler;
+        this.driverLogDirectory = Path.of(config.getDriverLogDirectory()).toAbsolutePath().normalize();
+        scrapingMetrics.gauge("scraping.browser.rss", "Memoria residente de todos los procesos de navegador, en bytes",
+                this, watchdog -> watchdog.totalRssBytes);
+        scrapingMetrics.gauge("scraping.browser.processes", "Procesos de navegador vivos (chromedriver, Chrome y renderizadores)",
+                this, watchdog -> watchdog.totalProcesses);
+    }
+
+    /**
+     * Mata los {@code chromedriver} huérfanos de ejecuciones anteriores y empieza a medir las sesiones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        killStrayDrivers();
+        deleteStaleDriverLogs();
+        sampling = taskScheduler.scheduleWithFixedDelay(this::sample, config.getInterval());
+    }
+
+    /**
+     * Define qué hacer con una sesión cuyo hilo terminó sin liberarla. Por defecto se cierra el navegador;
+     * el pool la retira y recupera su plaza.
+     *
+     * @param orphanHandler Recibe el WebDriver de la sesión abandonada.
+     */
+    public void setOrphanHandler(Consumer<WebDriver> orphanHandler) {
+        this.orphanHandler = orphanHandler;
+    }
+
+    /**
+     * Devuelve el archivo de registro para los {@code chromedriver} de esta JVM. Al pasarlo con {@code --log-path},
+     * la ruta marca el proceso como propio aunque la aplicación termine y quede huérfano.
+     *
+     * @return El archivo de registro, o {@code null} si no se pudo crear su directorio.
+     */
+    public File driverLogFile() {
+        try {
+            Files.createDirectories(driverLogDirectory);
+        } catch (IOException e) {
+            log.warn("No se pudo crear el directorio de registros de chromedriver {}: {}", driverLogDirectory, e.getMessage());
+            return null;
+        }
+        return driverLogDirectory.resolve(LOG_PREFIX + ProcessHandle.current().pid() + LOG_SUFFIX).toFile();
+    }
+
+    /**
+     * Empieza a vigilar una sesión recién creada. El hilo actual queda como su dueño.
+     *
+     * @param driver     La sesión de navegador.
+     * @param driverPort El puerto en el que escucha su {@code chromedriver}, con el que se identifica el proceso.
+     */
+    public void register(WebDriver driver, int driverPort) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        String portArgument = "--port=" + driverPort;
+        Optional<ProcessHandle> driverProcess = ProcessHandle.current().children()
+                .filter(process -> isDriverProcess(process) && hasArgument(process, portArgument))
+                .findFirst();
+        if (driverProcess.isEmpty()) {
+            // Sin saber cuál es su proceso, se protegen todos los chromedriver aún sin sesión, incluido el suyo
+            Set<ProcessHandle> tracked = trackedRoots();
+            ProcessHandle.current().children()
+                    .filter(process -> isDriverProcess(process) && !tracked.contains(process))
+                    .forEach(unidentifiedDrivers::add);
+            log.warn("No se encontró el proceso de chromedriver del puerto {}; la sesión no se vigilará", driverPort);
+            return;
+        }
+        TrackedSession session = new TrackedSession(driverProcess.get());
+        session.owner = Thread.currentThread();
+        sessions.put(driver, session);
+    }
+
+    /**
+     * Indica que el hilo actual empieza a usar la sesión.
+     *
+     * @param driver La sesión de navegador.
+     */
+    public void claim(WebDriver driver) {
+        TrackedSession session = sessions.get(driver);
+        if (session != null) {
+            session.owner = Thread.currentThread();
+        }
+    }
+
+    /**
+     * Indica que la sesión vuelve a estar libre, sin dueño.
+     *
+     * @param driver La sesión de navegador.
+     */
+    public void release(WebDriver driver) {
+        TrackedSession session = sessions.get(driver);
+        if (session != null) {
+            session.owner = null;
+        }
+    }
+
+    /**
+     * @param driver La sesión de navegador.
+     * @return {@code true} si la sesión superó los límites de memoria o de CPU y debe cerrarse en lugar de reutilizarse.
+     */
+    public boolean shouldRecycle(WebDriver driver) {
+        TrackedSession session = sessions.get(driver);
+        return session != null && session.recycle;
+    }
+
+    /**
+     * Mide todas las sesiones vigiladas y limpia los procesos que ya no pertenecen a ninguna sesión activa.
+     */
+    void sample() {
+        long rss = 0;
+        int processes = 0;
+        for (Map.Entry<WebDriver, TrackedSession> entry : sessions.entrySet()) {
+            WebDriver driver = entry.getKey();
+            TrackedSession session = entry.getValue();
+            try {
+                if (!session.root.isAlive() || isQuit(driver)) {
+                    sessions.remove(driver);
+                    killLeftovers(session);
+                    continue;
+                }
+                Thread owner = session.owner;
+                if (owner != null && !owner.isAlive()) {
+                    log.warn("El hilo {} terminó sin liberar su sesión de navegador; se cierra", owner.getName());
+                    sessions.remove(driver);
+                    closeOrphan(driver);
+                    killLeftovers(session);
+                    continue;
+                }
+                session.measure();
+                rss += session.rssBytes;
+                processes += session.processes.size();
+                checkThresholds(session);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo medir una sesión de navegador: {}", e.getMessage());
+            }
+        }
+        totalRssBytes = rss;
+        totalProcesses = processes;
+        killUntrackedDrivers();
+    }
+
+    private void checkThresholds(TrackedSession session) {
+        if (session.recycle) {
+            return;
+        }
+        long maxRss = config.getMaxRss().toBytes();
+        if (maxRss > 0 && session.rssBytes > maxRss) {
+            session.recycle = true;
+            log.warn("La sesión de navegador (pid {}) usa {} MB, se reciclará al liberarse",
+                    session.root.pid(), session.rssBytes / (1024 * 1024));
+            return;
+        }
+        if (config.getMaxCpu() > 0 && session.cpuPercent > config.getMaxCpu()) {
+            if (++session.cpuExceeded >= config.getCpuSamples()) {
+                session.recycle = true;
+                log.warn("La sesión de navegador (pid {}) usa un {}% de CPU de forma sostenida, se reciclará al liberarse",
+                        session.root.pid(), Math.round(session.cpuPercent));
+            }
+        } else {
+            session.cpuExceeded = 0;
+        }
+    }
+
+    private void closeOrphan(WebDriver driver) {
+        try {
+            orphanHandler.accept(driver);
+        } catch (WebDriverException e) {
+            log.warn("No se pudo cerrar la sesión abandonada: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mata los procesos que seguían vivos en la última medición, hijos incluidos, aunque su padre ya haya terminado.
+     */
+    private void killLeftovers(TrackedSession session) {
+        Set<ProcessHandle> leftovers = new HashSet<>(session.processes);
+        leftovers.add(session.root);
+        session.root.descendants().forEach(leftovers::add);
+        int killed = 0;
+        for (ProcessHandle process : leftovers) {
+            if (process.isAlive() && process.destroyForcibly()) {
+                killed++;
+            }
+        }
+        if (killed > 0) {
+            log.warn("Se mataron {} procesos de navegador que siguieron vivos tras cerrar la sesión", killed);
+        }
+    }
+
+    /**
+     * Mata los {@code chromedriver} hijos de esta aplicación que no pertenecen a ninguna sesión vigilada,
+     * por ejemplo porque su sesión ya se cerró. Se respeta un margen para no matar los que se están iniciando,
+     * y no se matan los que no se pudieron identificar al registrar una sesión.
+     */
+    private void killUntrackedDrivers() {
+        Set<ProcessHandle> tracked = trackedRoots();
+        unidentifiedDrivers.removeIf(process -> !process.isAlive());
+        long cutoff = System.currentTimeMillis() - config.getInterval().toMillis();
+        ProcessHandle.current().children()
+                .filter(process -> isDriverProcess(process) && !tracked.contains(process)
+                        && !unidentifiedDrivers.contains(process))
+                .filter(process -> process.info().startInstant().map(start -> start.toEpochMilli() < cutoff).orElse(false))
+                .forEach(process -> killTree(process, "sin sesión registrada"));
+    }
+
+    /**
+     * Mata los {@code chromedriver} del usuario actual que quedaron huérfanos (adoptados por {@code init})
+     * tras terminar de forma abrupta una ejecución anterior de la aplicación. Solo se consideran los que escriben
+     * su registro en {@code driver-log-directory}: los de otras aplicaciones, de un IDE o de las pruebas no se tocan.
+     * <p>
+     * Nunca se matan los procesos de esta aplicación: si la JVM es el proceso 1, como es habitual en un contenedor,
+     * sus propios {@code chromedriver} (por ejemplo, los del precalentamiento del pool) también tienen como padre
+     * el proceso 1. Tampoco se mata un proceso cuyo padre no se conoce.
+     * </p>
+     */
+    private void killStrayDrivers() {
+        if (!config.isKillStrayDrivers()) {
+            return;
+        }
+        Optional<String> user = ProcessHandle.current().info().user();
+        ProcessHandle.allProcesses()
+                .filter(BrowserProcessWatchdog::isDriverProcess)
+                .filter(process -> process.parent().map(parent -> parent.pid() == 1).orElse(false))
+                .filter(process -> !isOwnDescendant(process))
+                .filter(process -> user.isPresent() && user.equals(process.info().user()))
+                .filter(this::isStartedByThisApplication)
+                .forEach(process -> killTree(process, "huérfano de una ejecución anterior"));
+    }
+
+    /**
+     * Borra los registros de las ejecuciones anteriores de la aplicación que ya terminaron.
+     */
+    private void deleteStaleDriverLogs() {
+        if (!Files.isDirectory(driverLogDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(driverLogDirectory)) {
+            files.filter(file -> logOwnerPid(file) > 0 && ProcessHandle.of(logOwnerPid(file)).isEmpty())
+                    .forEach(file -> {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            log.debug("No se pudo borrar el registro {}: {}", file, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("No se pudieron revisar los registros de chromedriver en {}: {}", driverLogDirectory, e.getMessage());
+        }
+    }
+
+    private static long logOwnerPid(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(LOG_PREFIX) || !name.endsWith(LOG_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private boolean isStartedByThisApplication(ProcessHandle process) {
+        String marker = "--log-path=" + driverLogDirectory + File.separator + LOG_PREFIX;
+        ProcessHandle.Info info = process.info();
+        Optional<String[]> arguments = info.arguments();
+        if (arguments.isPresent() && arguments.get().length > 0) {
+            return List.of(arguments.get()).stream().anyMatch(argument -> argument.startsWith(marker));
+        }
+        return info.commandLine().map(commandLine -> commandLine.contains(" " + marker)).orElse(false);
+    }
+
+    private Set<ProcessHandle> trackedRoots() {
+        Set<ProcessHandle> tracked = new HashSet<>();
+        sessions.values().forEach(session -> tracked.add(session.root));
+        return tracked;
+    }
+
+    private static boolean isOwnDescendant(ProcessHandle process) {
+        long self = ProcessHandle.current().pid();
+        Optional<ProcessHandle> ancestor = process.parent();
+        while (ancestor.isPresent()) {
+            if (ancestor.get().pid() == self) {
+                return true;
+            }
+            if (ancestor.get().pid() <= 1) {
+                return false;
+            }
+            ancestor = ancestor.get().parent();
+        }
+        return false;
+    }
+
+    private static boolean hasArgument(ProcessHandle process, String argument) {
+        ProcessHandle.Info info = process.info();
+        Optional<String[]> arguments = info.arguments();
+        if (arguments.isPresent() && arguments.get().length > 0) {
+            return List.of(arguments.get()).contains(argument);
+        }
+        // Algunos sistemas no separan los argumentos; la línea de comandos completa sigue sirviendo para buscarlo
+        return info.commandLine().map(commandLine -> (commandLine + " ").contains(" " + argument + " ")).orElse(false);
+    }
+
+    private static void killTree(ProcessHandle process, String reason) {
+        log.warn("Se mata el proceso {} (pid {}), {}", DRIVER_COMMAND, process.pid(), reason);
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static boolean isDriverProcess(ProcessHandle process) {
+        return process.info().command().map(command -> command.contains(DRIVER_COMMAND)).orElse(false);
+    }
+
+    private static boolean isQuit(WebDriver driver) {
+        return driver instanceof RemoteWebDriver remote && remote.getSessionId() == null;
+    }
+
+    /**
+     * Al detener la aplicación, después de que el pool cierre sus sesiones, mata los procesos que queden.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (sampling != null) {
+            sampling.cancel(false);
+        }
+        sessions.values().forEach(this::killLeftovers);
+        sessions.clear();
+        ProcessHandle.current().children()
+                .filter(BrowserProcessWatchdog::isDriverProcess)
+                .forEach(process -> killTree(process, "al detener la aplicación"));
+    }
+
+    private static long residentBytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // El proceso terminó mientras se leía, o no es Linux
+        }
+        return 0;
+    }
+
+    /**
+     * Árbol de procesos de una sesión y su última medición.
+     */
+    private static final class TrackedSession {
+        private final ProcessHandle root;
+        private volatile Thread owner;
+        private volatile boolean recycle;
+        private Set<ProcessHandle> processes = Set.of();
+        private long rssBytes;
+        private double cpuPercent;
+        private int cpuExceeded;
+        private Duration lastCpu = Duration.ZERO;
+        private long lastSampleNanos = System.nanoTime();
+
+        private TrackedSession(ProcessHandle root) {
+            this.root = root;
+        }
+
+        void measure() {
+            Set<ProcessHandle> current = new HashSet<>();
+            current.add(root);
+            root.descendants().forEach(current::add);
+            long rss = 0;
+            Duration cpu = Duration.ZERO;
+            for (ProcessHandle process : current) {
+                rss += residentBytes(process.pid());
+                cpu = cpu.plus(process.info().totalCpuDuration().orElse(Duration.ZERO));
+            }
+            long now = System.nanoTime();
+            if (processes.isEmpty()) {
+                // Primera medición: la CPU acumulada incluye el arranque y no sirve para calcular el uso
+                lastCpu = cpu;
+            }
+            // Los procesos que terminaron se llevan su CPU, así que la diferencia puede ser negativa
+            long cpuNanos = Math.max(0, cpu.minus(lastCpu).toNanos());
+            cpuPercent = 100.0 * cpuNanos / Math.max(1, now - lastSampleNanos);
+            processes = current;
+            rssBytes = rss;
+            lastCpu = cpu;
+            lastSampleNanos = now;
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementación de {@link IBrowserDriver} que mantiene un pool acotado de sesiones de Chrome ya iniciadas.
+ * <p>
+ * Iniciar el navegador suele costar más que el propio scraping, por lo que las sesiones se reutilizan:
+ * se prestan con {@link #connectDriverToUrl(String)}, se devuelven con {@link #releaseDriver(WebDriver)}
+ * y, antes de volver al pool, se limpian (cookies, almacenamiento y navegación a {@code about:blank}).
+ * Las sesiones que no responden, que alcanzan el número máximo de usos o que {@link BrowserProcessWatchdog} marca
+ * por exceso de memoria o CPU se retiran y se reemplazan. Si el hilo que tomó prestada una sesión termina sin
+ * devolverla, el vigilante la devuelve aquí para retirarla y recuperar su plaza.
+ * </p>
+ * <p>
+ * {@code scraping.pool.max-size} limita las sesiones abiertas, libres o prestadas: el semáforo acota los préstamos
+ * simultáneos y el contador de sesiones abiertas impide que el precalentamiento o un préstamo abran una más.
+ * </p>
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "scraping.pool", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BrowserSessionPool implements IBrowserDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserSessionPool.class);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final WebDriverManager webDriverManager;
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapingMetrics scrapingMetrics;
+    private final HostRateLimiter hostRateLimiter;
+    private final BrowserProcessWatchdog processWatchdog;
+    private final ScrapingProperties.Pool config;
+
+    private final BlockingDeque<PooledSession> idleSessions = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledSession> borrowedSessions = new ConcurrentHashMap<>();
+    private final Semaphore available;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private volatile boolean closed;
+
+    public BrowserSessionPool(WebDriverManager webDriverManager, ResourceBlocker resourceBlocker,
+                              ScrapingMetrics scrapingMetrics, HostRateLimiter hostRateLimiter,
+                              BrowserProcessWatchdog processWatchdog, ScrapingProperties properties) {
+        this.webDriverManager = webDriverManager;
+        this.resourceBlocker = resourceBlocker;
+        this.scrapingMetrics = scrapingMetrics;
+        this.hostRateLimiter = hostRateLimiter;
+        this.processWatchdog = processWatchdog;
+        this.config = properties.getPool();
+        this.available = new Semaphore(config.getMaxSize(), true);
+        scrapingMetrics.gauge("scraping.browser.sessions", "Sesiones de navegador del pool por estado",
+                this, BrowserSessionPool::getActiveSessions, "state", "active");
+        scrapingMetrics.gauge("scraping.browser.sessions", "Sesiones de navegador del pool por estado",
+                this, BrowserSessionPool::getIdleSessions, "state", "idle");
+        processWatchdog.setOrphanHandler(this::reclaimOrphan);
+    }
+
+    /**
+     * Inicia en segundo plano las sesiones configuradas en {@code scraping.pool.prewarm}
+     * para que el primer scraping no pague el arranque del navegador.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        int sessions = Math.min(config.getPrewarm(), config.getMaxSize());
+        if (sessions <= 0) {
+            return;
+        }
+        Thread prewarmThread = new Thread(() -> {
+            for (int i = 0; i < sessions && !closed; i++) {
+                // Se respeta el tamaño máximo aunque ya haya scrapings en curso
+                if (!reserveSession()) {
+                    break;
+                }
+                PooledSession session;
+                try {
+                    session = new PooledSession(webDriverManager.initializeWebDriver());
+                } catch (WebDriverException e) {
+                    openSessions.decrementAndGet();
+                    log.warn("No se pudo precalentar una sesión de navegador: {}", e.getMessage());
+                    return;
+                }
+                processWatchdog.release(session.driver);
+                offerIdle(session);
+            }
+            log.info("Pool de navegadores precalentado con {} sesiones", idleSessions.size());
+        }, "browser-pool-prewarm");
+        prewarmThread.setDaemon(true);
+        prewarmThread.start();
+    }
+
+    /**
+     * Toma prestada una sesión del pool, creando una nueva si no hay ninguna libre y no se ha alcanzado el máximo.
+     *
+     * @return Un {@link WebDriver} listo para usar.
+     * @throws ScrapingExecutionException Si no hay sesiones disponibles dentro del tiempo de espera configurado.
+     */
+    @Override
+    public WebDriver initializeWebDriver() {
+        acquirePermit();
+        try {
+            PooledSession session = takeHealthySession();
+            processWatchdog.claim(session.driver);
+            borrowedSessions.put(session.driver, session);
+            return session.driver;
+        } catch (RuntimeException e) {
+            available.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Toma prestada una sesión del pool, le aplica el bloqueo de recursos del sitio y la conecta a la URL.
+     *
+     * @param url La URL del sitio a scrapear.
+     * @return Un objeto {@link WebDriver} que ha navegado a la URL proporcionada.
+     */
+    @Override
+    public WebDriver connectDriverToUrl(String url) {
+        WebDriver driver = scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.DRIVER_START,
+                this::initializeWebDriver);
+        try {
+            resourceBlocker.apply(driver, url);
+            hostRateLimiter.navigate(driver, url);
+            return driver;
+        } catch (RuntimeException e) {
+            releaseDriver(driver);
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve la sesión al pool después de limpiar su estado.
+     * Si la limpieza falla o la sesión alcanzó el máximo de usos, se cierra el navegador.
+     *
+     * @param driver El WebDriver prestado por este pool.
+     */
+    @Override
+    public void releaseDriver(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.DRIVER_RELEASE, () -> returnToPool(driver));
+    }
+
+    private void returnToPool(WebDriver driver) {
+        PooledSession session = borrowedSessions.remove(driver);
+        if (session == null) {
+            // No pertenece al pool: se cierra como haría WebDriverManager
+            WebDriverManager.closeDriver(driver);
+            return;
+        }
+        try {
+            session.uses++;
+            if (closed || session.uses >= config.getMaxUses() || processWatchdog.shouldRecycle(driver)
+                    || !resetSession(session)) {
+                retire(session);
+            } else {
+                processWatchdog.release(driver);
+                offerIdle(session);
+            }
+        } finally {
+            available.release();
+        }
+    }
+
+    /**
+     * Retira una sesión prestada cuyo hilo terminó sin devolverla y libera su plaza en el pool.
+     *
+     * @param driver El WebDriver abandonado.
+     */
+    private void reclaimOrphan(WebDriver driver) {
+        PooledSession session = borrowedSessions.remove(driver);
+        if (session == null) {
+            WebDriverManager.closeDriver(driver);
+            return;
+        }
+        retire(session);
+        available.release();
+    }
+
+    /**
+     * @return El número de sesiones prestadas en este momento.
+     */
+    public int getActiveSessions() {
+        return borrowedSessions.size();
+    }
+
+    /**
+     * @return El número de sesiones libres en el pool.
+     */
+    public int getIdleSessions() {
+        return idleSessions.size();
+    }
+
+    /**
+     * Cierra las sesiones libres al detener la aplicación. Las sesiones prestadas no se tocan mientras
+     * un scraping las usa: se cierran cuando se devuelven o cuando el vigilante las reclama.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        PooledSession session;
+        while ((session = idleSessions.poll()) != null) {
+            retire(session);
+        }
+        log.info("Pool de navegadores cerrado; {} sesiones prestadas se cerrarán al devolverse.",
+                borrowedSessions.size());
+    }
+
+    private void acquirePermit() {
+        if (closed) {
+            throw new IllegalStateException("El pool de navegadores está cerrado.");
+        }
+        try {
+            if (!available.tryAcquire(config.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ScrapingExecutionException("No hay sesiones de navegador disponibles tras esperar "
+                        + config.getBorrowTimeout(), null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingExecutionException("Interrumpido mientras se esperaba una sesión de navegador", e);
+        }
+    }
+
+    /**
+     * Obtiene una sesión libre que responda correctamente o crea una nueva si hay plaza.
+     * Las sesiones libres que no superan el chequeo de salud se retiran. Si todas las plazas están ocupadas
+     * (por ejemplo, por una sesión que se está precalentando), se espera a que alguna quede libre.
+     */
+    private PooledSession takeHealthySession() {
+        long deadline = System.nanoTime() + config.getBorrowTimeout().toNanos();
+        PooledSession session = idleSessions.poll();
+        while (true) {
+            if (session != null) {
+                if (processWatchdog.shouldRecycle(session.driver)) {
+                    log.info("Sesión de navegador marcada por el vigilante de procesos, se recicla.");
+                    retire(session);
+                } else if (isHealthy(session)) {
+                    return session;
+                } else {
+                    log.warn("Sesión de navegador no responde, se retira del pool.");
+                    retire(session);
+                }
+            } else if (reserveSession()) {
+                try {
+                    return new PooledSession(webDriverManager.initializeWebDriver());
+                } catch (RuntimeException e) {
+                    openSessions.decrementAndGet();
+                    throw e;
+                }
+            }
+            session = pollIdle(deadline);
+        }
+    }
+
+    /**
+     * Espera una sesión libre hasta el plazo indicado. Devuelve {@code null} si no llega ninguna
+     * para que el llamador vuelva a intentar reservar una plaza.
+     */
+    private PooledSession pollIdle(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new ScrapingExecutionException("No hay sesiones de navegador disponibles tras esperar "
+                    + config.getBorrowTimeout(), null);
+        }
+        try {
+            return idleSessions.poll(Math.min(remaining, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingExecutionException("Interrumpido mientras se esperaba una sesión de navegador", e);
+        }
+    }
+
+    /**
+     * Reserva una plaza para abrir una sesión nueva si las abiertas no han llegado a {@code max-size}.
+     */
+    private boolean reserveSession() {
+        int current;
+        do {
+            current = openSessions.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+        } while (!openSessions.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Deja la sesión libre en el pool. Si el pool se cerró mientras tanto, la sesión se retira.
+     */
+    private void offerIdle(PooledSession session) {
+        idleSessions.offerFirst(session);
+        if (closed && idleSessions.remove(session)) {
+            retire(session);
+        }
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        try {
+            return !session.driver.getWindowHandles().isEmpty();
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Limpia el estado de la sesión para que el siguiente scraping empiece desde cero:
+     * cierra pestañas adicionales, borra cookies y almacenamiento local y navega a {@code about:blank}.
+     * La caché HTTP se conserva salvo que se configure lo contrario, para no volver a descargar scripts,
+     * hojas de estilo e imágenes en el siguiente scraping.
+     *
+     * @return {@code true} si la sesión quedó lista para reutilizarse.
+     */
+    private boolean resetSession(PooledSession session) {
+        WebDriver driver = session.driver;
+        try {
+            closeExtraWindows(driver);
+            if (driver instanceof JavascriptExecutor js) {
+                js.executeScript("try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            }
+            if (driver instanceof HasCdp cdp) {
+                cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                if (config.isClearHttpCache()) {
+                    cdp.executeCdpCommand("Network.clearBrowserCache", Map.of());
+                }
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (WebDriverException e) {
+            log.warn("No se pudo limpiar la sesión de navegador: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeExtraWindows(WebDriver driver) {
+        Set<String> handles = driver.getWindowHandles();
+        if (handles.size() <= 1) {
+            return;
+        }
+        String first = handles.iterator().next();
+        for (String handle : handles) {
+            if (!handle.equals(first)) {
+                driver.switchTo().window(handle).close();
+            }
+        }
+        driver.switchTo().window(first);
+    }
+
+    private void retire(PooledSession session) {
+        openSessions.decrementAndGet();
+        try {
+            WebDriverManager.closeDriver(session.driver);
+        } catch (WebDriverException e) {
+            log.warn("Error al cerrar una sesión de navegador retirada: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sesión de navegador gestionada por el pool junto con su número de usos.
+     */
+    private static final class PooledSession {
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledSession(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.javabuilders.demowebscraping.service;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Obtiene el identificador numérico de un producto de eBay a partir de su enlace.
+ * Los enlaces tienen la forma {@code https://www.ebay.com/itm/123456789012?...} o, en algunos casos,
+ * {@code https://www.ebay.com/itm/titulo-del-producto/123456789012}.
+ */
+public final class EbayItemIds {
+
+    private static final Pattern ITEM_PATH = Pattern.compile("/itm/(?:[^/?#]+/)?(\\d{6,19})(?=[/?#]|$)");
+
+    private EbayItemIds() {
+    }
+
+    /**
+     * @param link El enlace del producto.
+     * @return El identificador del producto, o 0 si el enlace no contiene ninguno.
+     */
+    public static long parse(String link) {
+        if (link == null) {
+            return 0;
+        }
+        Matcher matcher = ITEM_PATH.matcher(link);
+        if (!matcher.find()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
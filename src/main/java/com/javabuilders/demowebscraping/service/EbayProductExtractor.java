@@ -1,17 +1,19 @@
 package com.javabuilders.demowebscraping.service;
 import com.javabuilders.demowebscraping.model.Product;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.time.Duration;
+import org.springframework.web.util.UriComponentsBuilder;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Optional;
 
 
 /**
@@ -21,37 +23,118 @@ import java.util.NoSuchElementException;
  * Identifica productos utilizando selectores CSS específicos y extrae atributos como nombre, precio y enlace, asegurándose de que los datos sean válidos antes
  *  * de agregarlos a la lista de productos.
  * <p>
+ * También implementa {@link IHtmlProductExtractor}, ya que las páginas de resultados de eBay se generan en el servidor
+ * y pueden procesarse directamente desde el HTML descargado por {@link HttpFetchEngine}, con los mismos selectores.
+ * </p>
  */
-public class EbayProductExtractor implements IProductExtractor{
+public class EbayProductExtractor implements IProductExtractor, IHtmlProductExtractor {
 
 
     private static final Logger log = LoggerFactory.getLogger(EbayProductExtractor.class);
 
+    private static final String ITEM_SELECTOR = ".s-item__info.clearfix";
+    private static final String TITLE_SELECTOR = ".s-item__title";
+    private static final String PRICE_SELECTOR = ".s-item__price";
+    private static final String LINK_SELECTOR = ".s-item__link";
+    private static final String NEXT_PAGE_SELECTOR = "a.pagination__next";
+    // Textos ocultos para lectores de pantalla que el navegador no muestra con getText()
+    private static final String HIDDEN_TEXT_SELECTOR = ".clipped";
+    // Parámetros de la URL de búsqueda de eBay: número de página y productos por página
+    private static final String PAGE_NUMBER_PARAM = "_pgn";
+    private static final String ITEMS_PER_PAGE_PARAM = "_ipg";
+
+    // Script que lee todos los productos de la página en una sola llamada al navegador.
+    // Devuelve una fila [nombre, precio, enlace] por producto, o null si al producto le falta algún dato.
+    private static final String BULK_EXTRACTION_SCRIPT = """
+            var items = document.querySelectorAll(arguments[0]);
+            var rows = [];
+            for (var i = 0; i < items.length; i++) {
+                var title = items[i].querySelector(arguments[1]);
+                var price = items[i].querySelector(arguments[2]);
+                var link = items[i].querySelector(arguments[3]);
+                rows.push(title && price && link ? [title.innerText, price.innerText, link.href] : null);
+            }
+            return rows;
+            """;
+
     /**
      * Extrae los productos visibles en la página actual de eBay utilizando WebDriver.
-     * Este método espera que los elementos de productos estén presentes en el DOM antes de proceder a extraerlos.
+     * Los productos ya deben estar presentes en el DOM: quien llama a este método espera antes a que aparezcan
+     * los elementos de {@link #readyLocator()} con {@link PageReadiness}.
      *
      * @param webDriver El WebDriver que interactúa con la página de eBay.
      * @return Una lista de objetos {@link Product} con los productos extraídos de la página.
      */
     @Override
     public List<Product> scrapeCurrentPage(WebDriver webDriver) {
-        List<Product> productList = new ArrayList<>();
+        if (webDriver instanceof JavascriptExecutor javascriptExecutor) {
+            return extractWithScript(javascriptExecutor);
+        }
+        return extractElementByElement(webDriver);
+    }
 
-        // Espera explícita para asegurarse de que los productos estén cargados en el DOM
-        WebDriverWait wait = new WebDriverWait(webDriver, Duration.ofSeconds(20));
-        wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.cssSelector(".s-item__info.clearfix")));
+    /**
+     * @return El localizador de los bloques de información de cada producto.
+     */
+    @Override
+    public By readyLocator() {
+        return By.cssSelector(ITEM_SELECTOR);
+    }
+
+    /**
+     * Extrae todos los productos de la página con un único script de JavaScript,
+     * evitando una llamada al navegador por cada nombre, precio y enlace.
+     * Los productos incompletos o con datos inesperados se omiten sin afectar al resto.
+     *
+     * @param javascriptExecutor El WebDriver con capacidad de ejecutar JavaScript.
+     * @return Una lista de objetos {@link Product} con los productos válidos de la página.
+     */
+    private List<Product> extractWithScript(JavascriptExecutor javascriptExecutor) {
+        Object result = javascriptExecutor.executeScript(BULK_EXTRACTION_SCRIPT,
+                ITEM_SELECTOR, TITLE_SELECTOR, PRICE_SELECTOR, LINK_SELECTOR);
+        if (!(result instanceof List<?> rows)) {
+            return new ArrayList<>();
+        }
+
+        List<Product> productList = new ArrayList<>(rows.size());
+        Date timeStamp = new Date();
+        for (Object row : rows) {
+            if (!(row instanceof List<?> values) || values.size() < 3) {
+                // Omitir productos que no se puedan extraer correctamente
+                log.error("Error al procesar un producto: faltan título, precio o enlace");
+                continue;
+            }
+            String name = String.valueOf(values.get(0)).trim();
+            String priceText = String.valueOf(values.get(1)).trim();
+            String link = String.valueOf(values.get(2));
+
+            if (isProductInformationValid(name, priceText, link)) {
+                productList.add(new Product(name, priceText, link, timeStamp));
+            }
+        }
+        return productList;
+    }
+
+    /**
+     * Extrae los productos consultando cada elemento por separado.
+     * Se utiliza solo con drivers que no pueden ejecutar JavaScript.
+     *
+     * @param webDriver El WebDriver que interactúa con la página de eBay.
+     * @return Una lista de objetos {@link Product} con los productos extraídos de la página.
+     */
+    private List<Product> extractElementByElement(WebDriver webDriver) {
+        List<Product> productList = new ArrayList<>();
 
         // Selector CSS para localizar los elementos que representan productos
-        List<WebElement> elements = webDriver.findElements(By.cssSelector(".s-item__info.clearfix"));
+        List<WebElement> elements = webDriver.findElements(By.cssSelector(ITEM_SELECTOR));
+        Date timeStamp = new Date();
 
         for (WebElement element : elements) {
             try {
                 // Extrae el nombre, precio, enlace.
-                String name = element.findElement(By.cssSelector(".s-item__title")).getText().trim();
-                String priceText = element.findElement(By.cssSelector(".s-item__price")).getText().trim();
-                String link = element.findElement(By.cssSelector(".s-item__link")).getAttribute("href");
-                Date timeStamp = new Date();
+                String name = element.findElement(By.cssSelector(TITLE_SELECTOR)).getText().trim();
+                String priceText = element.findElement(By.cssSelector(PRICE_SELECTOR)).getText().trim();
+                String link = element.findElement(By.cssSelector(LINK_SELECTOR)).getAttribute("href");
 
                 if(isProductInformationValid(name, priceText, link)) {
                     productList.add(new Product(name, priceText, link, timeStamp));
@@ -65,6 +148,91 @@ public class EbayProductExtractor implements IProductExtractor{
         return productList;
     }
 
+    /**
+     * Extrae los productos de una página de resultados de eBay a partir de su HTML.
+     * Lee los mismos bloques {@code .s-item__info} que {@link #scrapeCurrentPage(WebDriver)}, omitiendo los
+     * productos incompletos.
+     *
+     * @param document El HTML de la página de resultados analizado con Jsoup.
+     * @return Una lista de objetos {@link Product} con los productos extraídos del HTML.
+     */
+    @Override
+    public List<Product> extractProducts(Document document) {
+        List<Product> productList = new ArrayList<>();
+        document.select(HIDDEN_TEXT_SELECTOR).remove();
+        Date timeStamp = new Date();
+
+        for (Element element : document.select(ITEM_SELECTOR)) {
+            Element title = element.selectFirst(TITLE_SELECTOR);
+            Element price = element.selectFirst(PRICE_SELECTOR);
+            Element link = element.selectFirst(LINK_SELECTOR);
+            if (title == null || price == null || link == null) {
+                log.error("Error al procesar un producto: faltan título, precio o enlace");
+                continue;
+            }
+
+            String name = title.text().trim();
+            String priceText = price.text().trim();
+            String href = link.absUrl("href");
+
+            if (isProductInformationValid(name, priceText, href)) {
+                productList.add(new Product(name, priceText, href, timeStamp));
+            }
+        }
+        return productList;
+    }
+
+    /**
+     * Busca el enlace "Siguiente" de la paginación de eBay en el HTML.
+     *
+     * @param document El HTML de la página actual analizado con Jsoup.
+     * @return La URL de la siguiente página, o {@link Optional#empty()} si no existe.
+     */
+    @Override
+    public Optional<String> findNextPageUrl(Document document) {
+        Element next = document.selectFirst(NEXT_PAGE_SELECTOR);
+        if (next == null || next.hasAttr("aria-disabled")) {
+            return Optional.empty();
+        }
+        String href = next.absUrl("href");
+        return href.isEmpty() ? Optional.empty() : Optional.of(href);
+    }
+
+    /**
+     * El texto de los productos de la página (título, precio, envío...), sin el resto de la página,
+     * que incluye partes que cambian en cada descarga.
+     *
+     * @param document El HTML de la página analizado con Jsoup.
+     * @return El texto de todos los productos de la página.
+     */
+    @Override
+    public String contentSignature(Document document) {
+        return document.select(ITEM_SELECTOR).text();
+    }
+
+    /**
+     * Construye las URL de las páginas de búsqueda de eBay mediante el parámetro {@code _pgn}
+     * y, si se indica, el número de productos por página con {@code _ipg}.
+     *
+     * @param searchUrl    La URL de la búsqueda en eBay.
+     * @param pages        El número de páginas a procesar.
+     * @param itemsPerPage Productos por página, o 0 para mantener el de la URL original.
+     * @return Las URL de las páginas 1 a {@code pages}.
+     */
+    @Override
+    public List<String> buildPageUrls(String searchUrl, int pages, int itemsPerPage) {
+        List<String> pageUrls = new ArrayList<>(pages);
+        for (int page = 1; page <= pages; page++) {
+            UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(searchUrl)
+                    .replaceQueryParam(PAGE_NUMBER_PARAM, page);
+            if (itemsPerPage > 0) {
+                builder.replaceQueryParam(ITEMS_PER_PAGE_PARAM, itemsPerPage);
+            }
+            pageUrls.add(builder.build().toUriString());
+        }
+        return pageUrls;
+    }
+
     /**
      * Verifica si la información del producto es válida. La validez se determina
      * asegurándose de que el nombre, el precio y el enlace no estén vacíos.
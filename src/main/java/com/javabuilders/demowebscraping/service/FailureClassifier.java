@@ -0,0 +1,82 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.exception.ChallengePageException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Clasifica el error de una ejecución de scraping en un {@link FailureType}, recorriendo la cadena de causas:
+ * los errores se suelen recibir envueltos en {@code ScrapingExecutionException} o {@code CompletionException}.
+ */
+public final class FailureClassifier {
+
+    // Mensajes de Selenium cuando el navegador se cerró o dejó de responder
+    private static final List<String> CRASH_MESSAGES = List.of(
+            "chrome not reachable", "session deleted", "disconnected", "tab crashed", "target frame detached");
+
+    private FailureClassifier() {
+    }
+
+    /**
+     * Clasifica un error.
+     *
+     * @param error El error de la ejecución.
+     * @return El tipo de fallo, u {@link FailureType#OTHER} si no se reconoce.
+     */
+    public static FailureType classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            FailureType type = classifySingle(cause);
+            if (type != null) {
+                return type;
+            }
+        }
+        return Thread.currentThread().isInterrupted() ? FailureType.CANCELLED : FailureType.OTHER;
+    }
+
+    private static FailureType classifySingle(Throwable error) {
+        if (error instanceof ChallengePageException) {
+            return FailureType.CHALLENGE;
+        }
+        if (error instanceof InterruptedException || error instanceof CancellationException) {
+            return FailureType.CANCELLED;
+        }
+        if (error instanceof TimeoutException || error instanceof ScriptTimeoutException
+                || error instanceof java.util.concurrent.TimeoutException || error instanceof SocketTimeoutException) {
+            return FailureType.TIMEOUT;
+        }
+        if (error instanceof NoSuchSessionException || error instanceof SessionNotCreatedException
+                || error instanceof UnreachableBrowserException) {
+            return FailureType.DRIVER_CRASH;
+        }
+        if (error instanceof NoSuchElementException) {
+            return FailureType.NO_ELEMENTS;
+        }
+        if (error instanceof WebDriverException && isCrashMessage(error.getMessage())) {
+            return FailureType.DRIVER_CRASH;
+        }
+        if (error instanceof IOException) {
+            return FailureType.NETWORK;
+        }
+        return null;
+    }
+
+    private static boolean isCrashMessage(String message) {
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        return CRASH_MESSAGES.stream().anyMatch(lower::contains);
+    }
+}
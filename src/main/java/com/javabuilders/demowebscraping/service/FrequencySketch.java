@@ -0,0 +1,93 @@
+package com.javabuilders.demowebscraping.service;
+
+/**
+ * Estimación aproximada de cuántas veces se ha pedido cada clave (count-min sketch de contadores de 4 bits),
+ * utilizada por {@link ScrapingResultCache} para decidir qué resultados merecen quedarse en la caché (TinyLFU).
+ * <p>
+ * Cada {@code long} de la tabla guarda 16 contadores; cada clave se cuenta en cuatro de ellos y su frecuencia es
+ * el mínimo. Tras tantas sumas como diez veces el tamaño de la caché, todos los contadores se dividen a la mitad,
+ * para que las búsquedas que dejaron de pedirse pierdan peso. No es seguro para uso concurrente.
+ * </p>
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // Tras desplazar un bit, quita el bit que pasa de un contador al siguiente
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize El número máximo de entradas de la caché.
+     */
+    FrequencySketch(int maximumSize) {
+        this.table = new long[tableSizeFor(Math.max(16, maximumSize))];
+        this.sampleSize = 10 * Math.max(16, maximumSize);
+    }
+
+    /**
+     * Cuenta una petición de la clave.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            if (((table[index] >>> offset) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @return Las peticiones estimadas de la clave, entre 0 y 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int count = (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & MAX_COUNT);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    /**
+     * @return La posición en bits del contador dentro de su {@code long}.
+     */
+    private static int offsetOf(int hash, int i) {
+        return ((hash >>> (i << 3)) & 15) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private static int tableSizeFor(int size) {
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+}
@@ -0,0 +1,243 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.HostUnavailableException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuito por host que evita lanzar ejecuciones contra un sitio que no responde o que nos está bloqueando.
+ * <p>
+ * Tras {@code failureThreshold} ejecuciones fallidas seguidas, o una sola página de verificación, el circuito se abre
+ * y las nuevas ejecuciones contra el host se rechazan con {@link HostUnavailableException} sin abrir el navegador.
+ * Pasado {@code openDuration} se admite una única ejecución de prueba: si tiene éxito el circuito se cierra, y si
+ * falla se vuelve a abrir durante el doble de tiempo, hasta {@code maxOpenDuration}.
+ * </p>
+ */
+@Component
+public class HostCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(HostCircuitBreaker.class);
+
+    /**
+     * Estados del circuito de un host.
+     */
+    public enum State {
+        // Las ejecuciones se lanzan con normalidad
+        CLOSED,
+        // Hay una ejecución de prueba en curso; el resto se rechaza
+        HALF_OPEN,
+        // Se rechazan todas las ejecuciones hasta que pase el tiempo de apertura
+        OPEN
+    }
+
+    private final ScrapingProperties.Resilience config;
+    private final ScrapingMetrics scrapingMetrics;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    // Reloj en nanosegundos; las pruebas lo sustituyen para avanzar el tiempo sin esperar
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public HostCircuitBreaker(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        this(properties, scrapingMetrics, System::nanoTime);
+    }
+
+    HostCircuitBreaker(ScrapingProperties properties, ScrapingMetrics scrapingMetrics, LongSupplier nanoTime) {
+        this.config = properties.getResilience();
+        this.scrapingMetrics = scrapingMetrics;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Comprueba si se puede lanzar una ejecución contra el host de la URL. Quien obtiene permiso debe informar
+     * después del resultado con {@link #onSuccess(String)} o {@link #onFailure(String, FailureType)}.
+     *
+     * @param url La URL del scraping.
+     * @throws HostUnavailableException Si el circuito del host está abierto o ya hay una prueba en curso.
+     */
+    public void acquire(String url) {
+        if (!config.isCircuitBreakerEnabled()) {
+            return;
+        }
+        Circuit circuit = circuitFor(url);
+        long waitNanos = circuit.tryAcquire(nanoTime.getAsLong());
+        if (waitNanos > 0) {
+            throw new HostUnavailableException(circuit.host, Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Indica si el circuito del host está abierto, para no seguir reintentando contra él.
+     *
+     * @param url La URL del scraping.
+     * @return {@code true} si las nuevas ejecuciones contra el host se están rechazando.
+     */
+    public boolean isOpen(String url) {
+        return config.isCircuitBreakerEnabled() && circuitFor(url).state() == State.OPEN;
+    }
+
+    /**
+     * Registra una ejecución correcta: el circuito se cierra y se olvidan los fallos anteriores.
+     *
+     * @param url La URL del scraping.
+     */
+    public void onSuccess(String url) {
+        if (!config.isCircuitBreakerEnabled()) {
+            return;
+        }
+        Circuit circuit = circuitFor(url);
+        if (circuit.close()) {
+            log.info("Se cierra el circuito de {}: la ejecución de prueba tuvo éxito", circuit.host);
+        }
+    }
+
+    /**
+     * Registra una ejecución fallida. Solo cuentan los fallos del sitio ({@link FailureType#isHostFailure()});
+     * el resto, como las cancelaciones o los cierres del navegador, no cuentan, pero liberan la prueba en curso.
+     *
+     * @param url     La URL del scraping.
+     * @param failure El tipo de fallo.
+     */
+    public void onFailure(String url, FailureType failure) {
+        if (!config.isCircuitBreakerEnabled()) {
+            return;
+        }
+        Circuit circuit = circuitFor(url);
+        Duration openFor = circuit.fail(failure, nanoTime.getAsLong());
+        if (openFor != null) {
+            log.warn("Se abre el circuito de {} durante {} s por {}", circuit.host, openFor.toSeconds(), failure);
+        }
+    }
+
+    /**
+     * @param url La URL del scraping.
+     * @return El estado del circuito del host.
+     */
+    public State stateOf(String url) {
+        return circuitFor(url).state();
+    }
+
+    private Circuit circuitFor(String url) {
+        return circuits.computeIfAbsent(hostOf(url), this::createCircuit);
+    }
+
+    private Circuit createCircuit(String host) {
+        Circuit circuit = new Circuit(host);
+        // Solo los hosts etiquetados por su nombre tienen indicador propio, para acotar las series
+        if (scrapingMetrics.isTrackedHost(host)) {
+            scrapingMetrics.gauge("scraping.circuit.state", "Estado del circuito de cada host (0 cerrado, 1 en prueba, 2 abierto)",
+                    circuit, c -> c.state().ordinal(), "host", host);
+        }
+        return circuit;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Estado del circuito de un host.
+     */
+    private final class Circuit {
+        private final String host;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private Duration openDuration = config.getOpenDuration();
+        // Fin de la apertura o, en HALF_OPEN, plazo para que informe la prueba
+        private long deadline;
+
+        private Circuit(String host) {
+            this.host = host;
+        }
+
+        /**
+         * @return 0 si se admite la ejecución, o los nanosegundos que faltan para que se vuelva a admitir.
+         */
+        synchronized long tryAcquire(long now) {
+            switch (state) {
+                case CLOSED:
+                    return 0;
+                case OPEN:
+                    if (now - deadline < 0) {
+                        return deadline - now;
+                    }
+                    break;
+                case HALF_OPEN:
+                    if (now - deadline < 0) {
+                        // Hasta conocer el resultado de la prueba
+                        return config.getOpenDuration().toNanos();
+                    }
+                    break;
+            }
+            state = State.HALF_OPEN;
+            deadline = now + config.getProbeTimeout().toNanos();
+            log.info("Se admite una ejecución de prueba contra {}", host);
+            return 0;
+        }
+
+        /**
+         * @return {@code true} si el circuito no estaba cerrado.
+         */
+        synchronized boolean close() {
+            boolean wasOpen = state != State.CLOSED;
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            openDuration = config.getOpenDuration();
+            return wasOpen;
+        }
+
+        /**
+         * @return El tiempo de apertura si el fallo abrió el circuito, o {@code null}.
+         */
+        synchronized Duration fail(FailureType failure, long now) {
+            if (!failure.isHostFailure()) {
+                if (state == State.HALF_OPEN) {
+                    // Otra ejecución puede hacer la prueba
+                    deadline = now;
+                }
+                return null;
+            }
+            switch (state) {
+                case OPEN:
+                    // Ejecuciones que empezaron antes de abrirse el circuito
+                    return null;
+                case HALF_OPEN:
+                    Duration doubled = openDuration.multipliedBy(2);
+                    openDuration = doubled.compareTo(config.getMaxOpenDuration()) > 0
+                            ? config.getMaxOpenDuration() : doubled;
+                    return open(now);
+                default:
+                    consecutiveFailures++;
+                    if (failure == FailureType.CHALLENGE || consecutiveFailures >= config.getFailureThreshold()) {
+                        return open(now);
+                    }
+                    return null;
+            }
+        }
+
+        synchronized State state() {
+            return state;
+        }
+
+        private Duration open(long now) {
+            state = State.OPEN;
+            deadline = now + openDuration.toNanos();
+            return openDuration;
+        }
+    }
+}
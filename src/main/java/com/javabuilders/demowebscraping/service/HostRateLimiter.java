@@ -0,0 +1,276 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ChallengePageException;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.FetchedPage;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regula el ritmo de peticiones a cada host, compartido por todas las tareas y por los dos motores
+ * ({@link HttpFetchEngine} y el navegador).
+ * <p>
+ * Cada host tiene un cubo de fichas que se rellena al ritmo actual y admite hasta {@code burst} peticiones seguidas.
+ * Quien no encuentra ficha reserva la siguiente y espera su turno, de modo que las peticiones se reparten en orden
+ * de llegada. El ritmo se adapta con AIMD: cada respuesta correcta lo aumenta un poco, hasta el configurado, y un
+ * 429, un 503, una página de verificación o una respuesta lenta lo reducen a la mitad (como mucho una vez por
+ * {@code decreaseInterval}). Así se mantiene un ritmo sostenido por debajo del que provoca bloqueos, en lugar de
+ * ráfagas seguidas de errores.
+ * </p>
+ */
+@Component
+public class HostRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(HostRateLimiter.class);
+
+    private static final Pattern TITLE = Pattern.compile("<title[^>]*>(.*?)</title>",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final ScrapingProperties.RateLimit config;
+    private final ScrapingMetrics scrapingMetrics;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        this.config = properties.getRateLimit();
+        this.scrapingMetrics = scrapingMetrics;
+    }
+
+    /**
+     * Espera hasta que se pueda enviar una petición al host de la URL.
+     *
+     * @param url La URL que se va a solicitar.
+     * @throws ScrapingExecutionException Si el hilo se interrumpe mientras espera.
+     */
+    public void acquire(String url) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long waitNanos = bucketFor(url).reserve(System.nanoTime());
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingExecutionException("Interrumpido mientras se esperaba turno para " + url, e);
+        }
+    }
+
+    /**
+     * Registra la respuesta de una descarga por HTTP para ajustar el ritmo de su host.
+     *
+     * @param page La página descargada.
+     */
+    public void record(FetchedPage page) {
+        int status = page.getStatusCode();
+        if (status == 429 || status == 503) {
+            decrease(page.getUrl(), "código " + status);
+        } else if (isChallenge(page.getUrl(), titleOf(page.getHtml()))) {
+            decrease(page.getUrl(), "página de verificación");
+        } else {
+            recordElapsed(page.getUrl(), page.getElapsedMillis());
+        }
+    }
+
+    /**
+     * Registra una descarga por HTTP que no obtuvo respuesta, por ejemplo por agotar el tiempo de espera.
+     *
+     * @param url La URL solicitada.
+     */
+    public void recordFailure(String url) {
+        decrease(url, "sin respuesta");
+    }
+
+    /**
+     * Registra la carga de una página en el navegador para ajustar el ritmo de su host.
+     *
+     * @param driver        El WebDriver con la página cargada.
+     * @param url           La URL solicitada.
+     * @param elapsedMillis Lo que tardó la navegación.
+     * @return {@code true} si el navegador muestra una página de verificación en lugar de la solicitada.
+     */
+    public boolean record(WebDriver driver, String url, long elapsedMillis) {
+        String currentUrl;
+        String title;
+        try {
+            currentUrl = driver.getCurrentUrl();
+            title = driver.getTitle();
+        } catch (WebDriverException e) {
+            return false;
+        }
+        if (isChallenge(currentUrl, title)) {
+            decrease(url, "página de verificación");
+            return true;
+        }
+        recordElapsed(url, elapsedMillis);
+        return false;
+    }
+
+    /**
+     * Navega a una URL en el navegador cuando le llega el turno a su host, y ajusta el ritmo según el resultado.
+     *
+     * @param driver El WebDriver con el que se navega.
+     * @param url    La URL de destino.
+     * @throws ChallengePageException Si el sitio responde con una página de verificación.
+     */
+    public void navigate(WebDriver driver, String url) {
+        acquire(url);
+        long start = System.nanoTime();
+        try {
+            driver.get(url);
+        } finally {
+            scrapingMetrics.record(ScrapingMetrics.BROWSER, ScrapingMetrics.NAVIGATION, System.nanoTime() - start);
+        }
+        if (record(driver, url, (System.nanoTime() - start) / 1_000_000)) {
+            throw new ChallengePageException(url);
+        }
+    }
+
+    private void recordElapsed(String url, long elapsedMillis) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (elapsedMillis > config.getSlowResponse().toMillis()) {
+            decrease(url, "respuesta lenta (" + elapsedMillis + " ms)");
+        } else {
+            bucketFor(url).increase();
+        }
+    }
+
+    private void decrease(String url, String reason) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Bucket bucket = bucketFor(url);
+        if (bucket.decrease(System.nanoTime())) {
+            log.warn("Se reduce el ritmo de {} a {} peticiones/s por {}", bucket.host,
+                    String.format(Locale.ROOT, "%.2f", bucket.rate()), reason);
+        }
+    }
+
+    private boolean isChallenge(String url, String title) {
+        for (String marker : config.getChallengeMarkers()) {
+            String lowerMarker = marker.toLowerCase(Locale.ROOT);
+            if ((url != null && url.toLowerCase(Locale.ROOT).contains(lowerMarker))
+                    || (title != null && title.toLowerCase(Locale.ROOT).contains(lowerMarker))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String titleOf(String html) {
+        if (html == null) {
+            return null;
+        }
+        Matcher matcher = TITLE.matcher(html);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private Bucket bucketFor(String url) {
+        String host = hostOf(url);
+        return buckets.computeIfAbsent(host, this::createBucket);
+    }
+
+    private Bucket createBucket(String host) {
+        ScrapingProperties.HostRate hostRate = config.getHosts().get(host);
+        double rate = hostRate != null && hostRate.getRate() > 0 ? hostRate.getRate() : config.getRate();
+        int burst = hostRate != null && hostRate.getBurst() > 0 ? hostRate.getBurst() : config.getBurst();
+        Bucket bucket = new Bucket(host, rate, burst);
+        // Solo los hosts etiquetados por su nombre tienen indicador propio, para acotar las series
+        if (scrapingMetrics.isTrackedHost(host)) {
+            scrapingMetrics.gauge("scraping.rate.limit", "Peticiones por segundo permitidas a cada host",
+                    bucket, Bucket::rate, "host", host);
+        }
+        return bucket;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Cubo de fichas de un host. Las fichas pueden quedar en negativo: cada petición que no encuentra ficha
+     * reserva la siguiente y espera el tiempo que tarda en generarse.
+     */
+    private final class Bucket {
+        private final String host;
+        private final double maxRate;
+        private final int burst;
+        private double rate;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private long lastDecrease;
+
+        private Bucket(String host, double maxRate, int burst) {
+            this.host = host;
+            this.maxRate = maxRate;
+            this.burst = burst;
+            this.rate = maxRate;
+            this.tokens = burst;
+            this.lastDecrease = lastRefill - config.getDecreaseInterval().toNanos();
+        }
+
+        /**
+         * Toma una ficha.
+         *
+         * @return Los nanosegundos que se debe esperar antes de enviar la petición.
+         */
+        synchronized long reserve(long now) {
+            refill(now);
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) (-tokens / rate * 1_000_000_000L);
+        }
+
+        /**
+         * Aumento aditivo: con {@code rate} respuestas por segundo, el ritmo sube {@code additiveIncrease} por segundo.
+         */
+        synchronized void increase() {
+            rate = Math.min(maxRate, rate + config.getAdditiveIncrease() / Math.max(1.0, rate));
+        }
+
+        /**
+         * Reducción multiplicativa, como mucho una vez por {@code decreaseInterval}.
+         *
+         * @return {@code true} si se redujo el ritmo.
+         */
+        synchronized boolean decrease(long now) {
+            if (now - lastDecrease < config.getDecreaseInterval().toNanos()) {
+                return false;
+            }
+            refill(now);
+            lastDecrease = now;
+            rate = Math.max(config.getMinRate(), rate * config.getDecreaseFactor());
+            // Sin ráfaga tras una señal de sobrecarga: la siguiente petición espera al nuevo ritmo
+            tokens = Math.min(tokens, 0);
+            return true;
+        }
+
+        synchronized double rate() {
+            return rate;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * rate);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.FetchedPage;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.brotli.dec.BrotliInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Motor de descarga de páginas mediante HTTP, alternativo a {@link WebDriverManager}.
+ * <p>
+ * Utiliza un cliente asíncrono de HttpClient5 con un pool de conexiones persistentes (keep-alive),
+ * negociación de HTTP/2 y compresión gzip, deflate y brotli. Es mucho más ligero que renderizar la página
+ * en Chrome y se utiliza para sitios cuyas páginas de resultados se generan en el servidor.
+ * </p>
+ */
+@Service
+public class HttpFetchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpFetchEngine.class);
+
+    private final ScrapingProperties.Http config;
+    private final CloseableHttpAsyncClient client;
+
+    public HttpFetchEngine(ScrapingProperties properties) {
+        this.config = properties.getHttp();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(config.getConnectTimeout()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .build();
+
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(Timeout.of(config.getResponseTimeout()))
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(config.getResponseTimeout()))
+                        .build())
+                .setUserAgent(config.getUserAgent())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+        this.client.start();
+    }
+
+    /**
+     * Indica si el motor HTTP está habilitado en la configuración.
+     *
+     * @return {@code true} si se deben intentar las descargas HTTP antes que el navegador.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Descarga una página de forma asíncrona.
+     * El futuro se completa con la página descomprimida aunque el servidor responda con un código de error,
+     * y se completa excepcionalmente solo si la petición no pudo realizarse.
+     *
+     * @param url La URL de la página a descargar.
+     * @return Un {@link CompletableFuture} con la página obtenida.
+     */
+    public CompletableFuture<FetchedPage> fetch(String url) {
+        SimpleHttpRequest request = SimpleRequestBuilder.get(url)
+                .addHeader(HttpHeaders.ACCEPT, "text/html,application/xhtml+xml")
+                .addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")
+                .addHeader(HttpHeaders.ACCEPT_LANGUAGE, config.getAcceptLanguage())
+                .build();
+
+        long start = System.nanoTime();
+        CompletableFuture<FetchedPage> result = new CompletableFuture<>();
+        client.execute(SimpleRequestProducer.create(request), SimpleResponseConsumer.create(),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(SimpleHttpResponse response) {
+                        long elapsed = (System.nanoTime() - start) / 1_000_000;
+                        try {
+                            result.complete(new FetchedPage(url, response.getCode(), decodeBody(response), elapsed));
+                        } catch (IOException e) {
+                            result.completeExceptionally(
+                                    new ScrapingExecutionException("No se pudo descomprimir la respuesta de " + url, e));
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        result.completeExceptionally(
+                                new ScrapingExecutionException("Falló la descarga HTTP de " + url, e));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Descomprime el cuerpo de la respuesta según su cabecera {@code Content-Encoding} y lo convierte a texto.
+     */
+    private String decodeBody(SimpleHttpResponse response) throws IOException {
+        byte[] body = response.getBodyBytes();
+        if (body == null) {
+            return "";
+        }
+        Header encodingHeader = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        String encoding = encodingHeader == null ? "identity" : encodingHeader.getValue().trim().toLowerCase();
+
+        byte[] decoded = switch (encoding) {
+            case "gzip", "x-gzip" -> readAll(new GZIPInputStream(new ByteArrayInputStream(body)));
+            case "deflate" -> readAll(new InflaterInputStream(new ByteArrayInputStream(body)));
+            case "br" -> readAll(new BrotliInputStream(new ByteArrayInputStream(body)));
+            default -> body;
+        };
+
+        ContentType contentType = response.getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset()
+                : StandardCharsets.UTF_8;
+        return new String(decoded, charset);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Cierra el cliente HTTP y sus conexiones al detener la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("Cerrando el cliente HTTP.");
+        client.close(CloseMode.GRACEFUL);
+    }
+}
@@ -24,7 +24,28 @@ public interface IBrowserDriver {
      * @param parameters Parámetros del scraper que contienen la URL y otras configuraciones necesarias.
      * @return Una instancia de {@link WebDriver} conectada a la URL especificada.
      */
-    WebDriver connectDriverToUrl(ScrapingParameters parameters);
+    default WebDriver connectDriverToUrl(ScrapingParameters parameters) {
+        return connectDriverToUrl(parameters.getUrl());
+    }
+
+    /**
+     * Conecta el WebDriver a una URL. Si la navegación falla, el WebDriver se libera antes de propagar el error.
+     *
+     * @param url La URL a la que se desea navegar.
+     * @return Una instancia de {@link WebDriver} conectada a la URL especificada.
+     */
+    WebDriver connectDriverToUrl(String url);
+
+    /**
+     * Libera el WebDriver una vez terminado el scraping.
+     * Por defecto cierra el navegador; las implementaciones con sesiones reutilizables
+     * pueden devolverlo a su pool en lugar de cerrarlo.
+     *
+     * @param driver El WebDriver que se desea liberar. Puede ser {@code null}.
+     */
+    default void releaseDriver(WebDriver driver) {
+        WebDriverManager.closeDriver(driver);
+    }
 
 }
 
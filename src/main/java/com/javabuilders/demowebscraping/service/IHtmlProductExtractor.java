@@ -0,0 +1,43 @@
+package com.javabuilders.demowebscraping.service;
+import com.javabuilders.demowebscraping.model.Product;
+import org.jsoup.nodes.Document;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz para extractores capaces de obtener productos directamente del HTML de una página,
+ * sin necesidad de renderizarla en un navegador.
+ * Solo tiene sentido para sitios cuyas páginas de resultados se generan en el servidor.
+ */
+public interface IHtmlProductExtractor {
+
+    /**
+     * Extrae los productos presentes en una página de resultados ya analizada.
+     *
+     * @param document El HTML de la página analizado con Jsoup, con la URL de la página como base
+     *                 para resolver enlaces relativos.
+     * @return Una lista de objetos {@link Product} con los productos encontrados; vacía si no hay ninguno.
+     */
+    List<Product> extractProducts(Document document);
+
+    /**
+     * Busca en el HTML el enlace a la siguiente página de resultados.
+     *
+     * @param document El HTML de la página actual analizado con Jsoup.
+     * @return La URL absoluta de la siguiente página, o {@link Optional#empty()} si es la última.
+     */
+    Optional<String> findNextPageUrl(Document document);
+
+    /**
+     * Devuelve el contenido que identifica los resultados de la página, sin extraer los productos.
+     * En el modo incremental se compara su hash con el de la ejecución anterior para saber si la página cambió,
+     * por lo que no debe incluir partes que cambian en cada descarga (anuncios, fechas, tokens).
+     *
+     * @param document El HTML de la página analizado con Jsoup.
+     * @return El contenido relevante de la página; por defecto, todo su texto.
+     */
+    default String contentSignature(Document document) {
+        return document.text();
+    }
+}
@@ -1,5 +1,6 @@
 package com.javabuilders.demowebscraping.service;
 import com.javabuilders.demowebscraping.model.Product;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import java.util.List;
 
@@ -15,11 +16,35 @@ public interface IProductExtractor {
      * Extrae una lista de productos de la página web actual utilizando el WebDriver proporcionado.
      * La implementación de este método debe identificar los elementos HTML correspondientes a los productos
      * y extraer su información relevante (como nombre, precio, enlace, etc.).
+     * Antes de llamarlo se espera a que la página esté lista según {@link #readyLocator()}.
      *
      * @param webDriver El WebDriver utilizado para interactuar con la página web y extraer los datos.
      * @return Una lista de objetos {@link Product} que representan los productos extraídos de la página.
      */
     List<Product> scrapeCurrentPage(WebDriver webDriver);
 
+    /**
+     * Localizador de los elementos cuya presencia indica que la página está lista para extraer sus productos.
+     * También se utiliza para detectar que la página cambió después de hacer clic en "Siguiente".
+     *
+     * @return El localizador de los productos, o {@code null} si basta con que la página termine de cargar.
+     */
+    default By readyLocator() {
+        return null;
+    }
+
+    /**
+     * Construye directamente las URL de las páginas de resultados, para sitios cuyas páginas tienen dirección propia.
+     * Por defecto devuelve una lista vacía, lo que indica que las páginas solo pueden recorrerse haciendo clic en "Siguiente".
+     *
+     * @param searchUrl    La URL de la búsqueda (primera página).
+     * @param pages        El número de páginas a procesar.
+     * @param itemsPerPage Productos por página a solicitar, o 0 para mantener el valor por defecto del sitio.
+     * @return Las URL de las páginas en orden, o una lista vacía si el sitio no las admite.
+     */
+    default List<String> buildPageUrls(String searchUrl, int pages, int itemsPerPage) {
+        return List.of();
+    }
+
 
 }
\ No newline at end of file
@@ -7,11 +7,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.Collections;
+import java.util.function.Supplier;
 
 /**
  * Servicio para manejar las solicitudes de raspado y programar la ejecución de tareas de scraping.
  * Este servicio coordina la ejecución del scraping, y en caso de que se solicite una ejecución repetida,
  * programa la tarea para ejecutarse en intervalos regulares.
+ * La primera ejecución pasa por {@link ScrapingAdmission}, que limita las solicitudes en curso y agrupa las idénticas.
+ * Si la solicitud no notifica página a página, antes se consulta {@link ScrapingResultCache}.
  */
 @Service
 public class IntervalSchedulerService {
@@ -21,6 +24,8 @@ public class IntervalSchedulerService {
     private final ScrapingService scrapingService;
     private final TaskSchedulerService taskScheduler;
     private final IntervalParser intervalParser;
+    private final ScrapingAdmission scrapingAdmission;
+    private final ScrapingResultCache resultCache;
 
     /**
      * Constructor que inyecta las dependencias necesarias para el funcionamiento del servicio.
@@ -28,14 +33,20 @@ public class IntervalSchedulerService {
      * @param scrapingService Servicio que realiza el scraping de datos.
      * @param taskScheduler Servicio que gestiona la programación de tareas.
      * @param intervalParser Analiza y convierte intervalos de tiempo a milisegundos.
+     * @param scrapingAdmission Limita las solicitudes de scraping en curso y agrupa las idénticas.
+     * @param resultCache Guarda los resultados recientes de cada búsqueda.
      */
     @Autowired
     public IntervalSchedulerService(ScrapingService scrapingService,
                                     TaskSchedulerService taskScheduler,
-                                    IntervalParser intervalParser) {
+                                    IntervalParser intervalParser,
+                                    ScrapingAdmission scrapingAdmission,
+                                    ScrapingResultCache resultCache) {
         this.scrapingService = scrapingService;
         this.taskScheduler = taskScheduler;
         this.intervalParser = intervalParser;
+        this.scrapingAdmission = scrapingAdmission;
+        this.resultCache = resultCache;
 
     }
 
@@ -46,22 +57,41 @@ public class IntervalSchedulerService {
      *
      * @param parameters Parámetros que contienen la URL y el intervalo para el scraping.
      * @return El resultado del scraping, que puede ser una lista vacía si no se encontraron productos.
+     *         Si se programó una tarea periódica, incluye su identificador.
      * @throws InvalidParametersException Si el intervalo proporcionado es inválido.
      */
 
     public ScrapingResult handleScrapingRequest(ScrapingParameters parameters) {
+        return handleScrapingRequest(parameters, ScrapeListener.NONE);
+    }
+
+    /**
+     * Maneja la solicitud del scraping notificando los productos de cada página en cuanto se extraen.
+     *
+     * @param parameters Parámetros que contienen la URL y el intervalo para el scraping.
+     * @param listener   Recibe los productos de cada página de la primera ejecución.
+     * @return El resultado del scraping. Si se programó una tarea periódica, incluye su identificador.
+     * @throws InvalidParametersException Si el intervalo proporcionado es inválido.
+     * @throws com.javabuilders.demowebscraping.exception.ScrapingOverloadedException Si hay demasiadas solicitudes en curso.
+     */
+    public ScrapingResult handleScrapingRequest(ScrapingParameters parameters, ScrapeListener listener) {
 
         try {
 
-            ScrapingResult result = scrapingService.performScraping(parameters)
-                    .orElse(new ScrapingResult(Collections.emptyList()));
+            Supplier<ScrapingResult> scraping = () -> scrapingAdmission.execute(parameters, listener,
+                    () -> scrapingService.performScraping(parameters, ScrapeWatermark.none(), listener)
+                            .orElse(new ScrapingResult(Collections.emptyList())));
+            ScrapingResult result = listener == ScrapeListener.NONE
+                    ? resultCache.get(parameters, scraping)
+                    : scraping.get();
 
 
             if ("once".equalsIgnoreCase(parameters.getInterval().trim())) {
                 return result;
             } else {
                 long interval = intervalParser.parseToMillis(parameters.getInterval());
-                taskScheduler.scheduleScrapingTask(parameters, interval);
+                String jobId = taskScheduler.scheduleScrapingTask(parameters, interval);
+                result.setJobId(jobId);
 
             }
             return result;
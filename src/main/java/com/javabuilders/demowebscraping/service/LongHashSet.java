@@ -0,0 +1,120 @@
+package com.javabuilders.demowebscraping.service;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de valores {@code long} con direccionamiento abierto, sin objetos por elemento.
+ * <p>
+ * Ocupa unos 16 bytes por valor (la tabla se mantiene a menos de la mitad de su capacidad), frente a los más de
+ * 60 de un {@code HashSet<Long>}. No es seguro para uso concurrente.
+ * </p>
+ */
+public final class LongHashSet {
+
+    // 0 marca una posición libre de la tabla; el valor 0 se guarda aparte
+    private static final long FREE = 0;
+
+    private long[] table;
+    private int size;
+    private boolean containsFree;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Número de valores que se espera guardar, para evitar redimensionar la tabla.
+     */
+    public LongHashSet(int expectedSize) {
+        this.table = new long[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * @param value El valor a añadir.
+     * @return {@code true} si el valor no estaba en el conjunto.
+     */
+    public boolean add(long value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        int slot = slotOf(table, value);
+        if (table[slot] == value) {
+            return false;
+        }
+        table[slot] = value;
+        size++;
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @param value El valor a buscar.
+     * @return {@code true} si el valor está en el conjunto.
+     */
+    public boolean contains(long value) {
+        if (value == FREE) {
+            return containsFree;
+        }
+        return table[slotOf(table, value)] == value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Elimina todos los valores conservando la capacidad de la tabla.
+     */
+    public void clear() {
+        Arrays.fill(table, FREE);
+        containsFree = false;
+        size = 0;
+    }
+
+    /**
+     * Posición donde está el valor o, si no está, la primera posición libre donde debería ir.
+     */
+    private static int slotOf(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = (int) mix(value) & mask;
+        while (table[slot] != FREE && table[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        for (long value : table) {
+            if (value != FREE) {
+                resized[slotOf(resized, value)] = value;
+            }
+        }
+        table = resized;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        return Math.max(capacity, 16);
+    }
+
+    /**
+     * Mezcla los bits del valor para repartir bien en la tabla valores consecutivos,
+     * como los identificadores de producto.
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb53fe1a85ec9L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,150 @@
+package com.javabuilders.demowebscraping.service;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de claves {@code long} a valores {@code long} con direccionamiento abierto, sin objetos por elemento.
+ * <p>
+ * Ocupa unos 32 bytes por entrada (la tabla se mantiene a menos de la mitad de su capacidad), frente a los más de
+ * 80 de un {@code HashMap<Long, Long>}. No es seguro para uso concurrente.
+ * </p>
+ */
+public final class LongLongHashMap {
+
+    // 0 marca una posición libre de la tabla; la clave 0 se guarda aparte
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private boolean containsFree;
+    private long freeValue;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Número de entradas que se espera guardar, para evitar redimensionar la tabla.
+     */
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Math.max(Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1, 16);
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+    }
+
+    /**
+     * @param key          La clave a buscar.
+     * @param defaultValue El valor a devolver si la clave no está.
+     * @return El valor asociado a la clave, o {@code defaultValue} si no está.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == FREE) {
+            return containsFree ? freeValue : defaultValue;
+        }
+        int slot = slotOf(keys, key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key La clave a buscar.
+     * @return {@code true} si la clave está en el mapa.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return containsFree;
+        }
+        return keys[slotOf(keys, key)] == key;
+    }
+
+    /**
+     * Asocia un valor a la clave, sustituyendo el anterior si lo había.
+     *
+     * @param key   La clave.
+     * @param value El valor.
+     */
+    public void put(long key, long value) {
+        if (key == FREE) {
+            if (!containsFree) {
+                containsFree = true;
+                size++;
+            }
+            freeValue = value;
+            return;
+        }
+        int slot = slotOf(keys, key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Recorre todas las entradas del mapa, sin un orden definido.
+     *
+     * @param consumer Recibe cada clave con su valor.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (containsFree) {
+            consumer.accept(FREE, freeValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Elimina todas las entradas conservando la capacidad de la tabla.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        containsFree = false;
+        size = 0;
+    }
+
+    /**
+     * Posición donde está la clave o, si no está, la primera posición libre donde debería ir.
+     */
+    private static int slotOf(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) LongHashSet.mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] resizedKeys = new long[capacity];
+        long[] resizedValues = new long[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                int slot = slotOf(resizedKeys, keys[i]);
+                resizedKeys[slot] = keys[i];
+                resizedValues[slot] = values[i];
+            }
+        }
+        keys = resizedKeys;
+        values = resizedValues;
+    }
+
+    /**
+     * Recibe una entrada del mapa en {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
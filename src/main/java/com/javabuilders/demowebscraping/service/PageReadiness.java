@@ -0,0 +1,249 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Componente que decide cuándo una página del navegador está lista para extraer sus productos.
+ * <p>
+ * En lugar de esperas fijas, consulta la página cada {@code scraping.readiness.poll-interval} (por defecto 50 ms)
+ * y aprende cuánto tarda cada sitio: guarda las últimas duraciones por host y tipo de espera, y usa como
+ * tiempo máximo un percentil alto de esas duraciones multiplicado por un margen. Hasta tener suficientes muestras
+ * se usa el tiempo máximo configurado.
+ * </p>
+ * <p>
+ * Una espera que agota su tiempo máximo se guarda como una duración igual a ese tiempo, y mientras siga en la
+ * ventana el tiempo máximo no baja de ella multiplicada por el margen. Así, si el sitio se vuelve más lento, el
+ * tiempo máximo crece tras cada espera agotada (hasta el configurado) en lugar de quedarse en el de la etapa rápida.
+ * </p>
+ * <p>
+ * Al pasar de página con un clic, espera a que el primer producto de la página anterior deje de existir
+ * (se vuelva obsoleto) antes de buscar los nuevos, para no extraer dos veces la misma página.
+ * </p>
+ */
+@Component
+public class PageReadiness {
+
+    /**
+     * Tipos de espera, cada uno con sus propias estadísticas de duración.
+     */
+    public enum Wait {
+        // Desde la navegación hasta que aparecen los productos
+        PAGE_LOAD,
+        // Hasta que aparece el botón de siguiente página
+        NEXT_BUTTON,
+        // Desde el clic en siguiente hasta que la página anterior desaparece
+        NAVIGATION
+    }
+
+    private final ScrapingProperties.Readiness config;
+    private final ScrapingMetrics scrapingMetrics;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    public PageReadiness(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        this.config = properties.getReadiness();
+        this.scrapingMetrics = scrapingMetrics;
+    }
+
+    /**
+     * Espera a que la página actual contenga al menos un elemento del localizador.
+     *
+     * @param driver  La sesión de navegador.
+     * @param locator El localizador de los productos de la página.
+     * @throws TimeoutException Si los elementos no aparecen dentro del tiempo máximo aprendido.
+     */
+    public void awaitElements(WebDriver driver, By locator) {
+        String host = hostOf(driver);
+        long start = System.nanoTime();
+        Duration timeout = timeoutFor(host, Wait.PAGE_LOAD);
+        try {
+            newWait(driver, timeout).until(ExpectedConditions.presenceOfElementLocated(locator));
+            record(host, Wait.PAGE_LOAD, start);
+        } catch (TimeoutException e) {
+            recordTimeout(host, Wait.PAGE_LOAD, timeout);
+            throw e;
+        } finally {
+            scrapingMetrics.record(ScrapingMetrics.BROWSER, ScrapingMetrics.WAIT_READY, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Busca el botón de siguiente página, hace clic y espera a que la página anterior desaparezca.
+     *
+     * @param driver        La sesión de navegador.
+     * @param nextButton    El localizador del botón de siguiente página.
+     * @param itemLocator   El localizador de los productos, para detectar el cambio de página;
+     *                      {@code null} si el sitio no lo indica.
+     * @return {@code true} si se hizo clic y la página cambió; {@code false} si no hay botón de siguiente página.
+     * @throws TimeoutException Si tras el clic la página anterior no desaparece dentro del tiempo máximo aprendido.
+     */
+    public boolean clickAndAwaitNextPage(WebDriver driver, By nextButton, By itemLocator) {
+        return scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.PAGINATION_CLICK,
+                () -> clickAndAwait(driver, nextButton, itemLocator));
+    }
+
+    private boolean clickAndAwait(WebDriver driver, By nextButton, By itemLocator) {
+        String host = hostOf(driver);
+        long start = System.nanoTime();
+        WebElement button;
+        try {
+            button = newWait(driver, timeoutFor(host, Wait.NEXT_BUTTON))
+                    .until(ExpectedConditions.elementToBeClickable(nextButton));
+        } catch (TimeoutException e) {
+            // En la última página no hay botón: no es una espera lenta, así que no se registra
+            return false;
+        }
+        record(host, Wait.NEXT_BUTTON, start);
+        if (!button.isDisplayed() || !button.isEnabled()) {
+            return false;
+        }
+
+        WebElement previousItem = itemLocator == null ? null : firstOrNull(driver, itemLocator);
+        WebElement previousPage = previousItem != null ? previousItem : driver.findElement(By.tagName("html"));
+        start = System.nanoTime();
+        Duration timeout = timeoutFor(host, Wait.NAVIGATION);
+        button.click();
+        awaitStaleness(driver, host, previousPage, timeout);
+        record(host, Wait.NAVIGATION, start);
+        return true;
+    }
+
+    /**
+     * Espera a que una pestaña en la que se inició una navegación sin esperar a que termine deje atrás
+     * el documento anterior, para no confundir los productos de la página anterior con los de la nueva.
+     *
+     * @param driver       La sesión de navegador, ya en la pestaña.
+     * @param previousPage El elemento {@code html} del documento que había antes de navegar.
+     * @throws TimeoutException Si el documento anterior no desaparece dentro del tiempo máximo aprendido.
+     */
+    public void awaitNavigation(WebDriver driver, WebElement previousPage) {
+        String host = hostOf(driver);
+        awaitStaleness(driver, host, previousPage, timeoutFor(host, Wait.NAVIGATION));
+    }
+
+    private void awaitStaleness(WebDriver driver, String host, WebElement previousPage, Duration timeout) {
+        try {
+            newWait(driver, timeout).until(ExpectedConditions.stalenessOf(previousPage));
+        } catch (TimeoutException e) {
+            recordTimeout(host, Wait.NAVIGATION, timeout);
+            throw e;
+        }
+    }
+
+    /**
+     * Calcula el tiempo máximo de una espera: el percentil configurado de las últimas duraciones del host
+     * multiplicado por el margen, dentro de los límites configurados.
+     *
+     * @param host El host de la página.
+     * @param wait El tipo de espera.
+     * @return El tiempo máximo a esperar.
+     */
+    public Duration timeoutFor(String host, Wait wait) {
+        Duration max = wait == Wait.NEXT_BUTTON ? config.getNextButtonMaxTimeout() : config.getMaxTimeout();
+        Duration min = wait == Wait.NEXT_BUTTON ? config.getPollInterval().multipliedBy(2) : config.getMinTimeout();
+        LatencyWindow window = windows.get(key(host, wait));
+        long percentile = window == null ? -1 : window.percentile(config.getPercentile(), config.getMinSamples());
+        if (percentile < 0) {
+            return max;
+        }
+        long millis = (long) (percentile * config.getTimeoutFactor());
+        return Duration.ofMillis(Math.max(min.toMillis(), Math.min(max.toMillis(), millis)));
+    }
+
+    private WebDriverWait newWait(WebDriver driver, Duration timeout) {
+        WebDriverWait wait = new WebDriverWait(driver, timeout, config.getPollInterval());
+        wait.ignoring(StaleElementReferenceException.class);
+        return wait;
+    }
+
+    private void record(String host, Wait wait, long startNanos) {
+        record(host, wait, (System.nanoTime() - startNanos) / 1_000_000, false);
+    }
+
+    /**
+     * Registra una espera que agotó su tiempo máximo. La duración real es al menos ese tiempo.
+     */
+    void recordTimeout(String host, Wait wait, Duration timeout) {
+        record(host, wait, timeout.toMillis(), true);
+    }
+
+    void record(String host, Wait wait, long millis, boolean timedOut) {
+        windows.computeIfAbsent(key(host, wait), key -> new LatencyWindow(config.getWindow())).add(millis, timedOut);
+    }
+
+    private static WebElement firstOrNull(WebDriver driver, By locator) {
+        List<WebElement> elements = driver.findElements(locator);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    private static String key(String host, Wait wait) {
+        return host + "#" + wait;
+    }
+
+    private static String hostOf(WebDriver driver) {
+        try {
+            String host = URI.create(driver.getCurrentUrl()).getHost();
+            return host == null ? "" : host;
+        } catch (IllegalArgumentException | WebDriverException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Últimas duraciones de un tipo de espera en un host, en una ventana circular.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        // Marca las muestras de esperas que agotaron el tiempo máximo
+        private final boolean[] timedOut;
+        private int count;
+        private int next;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[Math.max(size, 1)];
+            this.timedOut = new boolean[samples.length];
+        }
+
+        private synchronized void add(long millis, boolean timeout) {
+            samples[next] = millis;
+            timedOut[next] = timeout;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return El percentil de las muestras, sin bajar de la mayor espera agotada que siga en la ventana,
+         * o -1 si hay menos de {@code minSamples}.
+         */
+        private synchronized long percentile(double percentile, int minSamples) {
+            if (count < Math.max(minSamples, 1)) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            long result = sorted[Math.max(0, Math.min(index, count - 1))];
+            for (int i = 0; i < count; i++) {
+                if (timedOut[i]) {
+                    result = Math.max(result, samples[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,29 +1,348 @@
 package com.javabuilders.demowebscraping.service;
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ChallengePageException;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.FetchedPage;
 import com.javabuilders.demowebscraping.model.Product;
 import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.openqa.selenium.WindowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import java.time.Duration;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * Servicio encargado de manejar la navegación y el scraping de resultados paginados
  * en un sitio web mediante Selenium WebDriver.
+ * <p>
+ * Admite dos modos de paginación: el recorrido secuencial haciendo clic en "Siguiente", válido para cualquier sitio,
+ * y el modo paralelo ({@link ScrapingProperties.PaginationMode#PARALLEL}) para sitios cuyas páginas tienen URL propia,
+ * en el que cada página se procesa en un hilo virtual, con un máximo de páginas simultáneas por scraping.
+ * En el modo {@link ScrapingProperties.PaginationMode#TABS} las descargas por HTTP funcionan igual que en el paralelo,
+ * pero con el navegador las páginas se cargan en varias pestañas de una sola sesión
+ * ({@link #scrapePagesInTabs(WebDriver, List, Supplier, ScrapeListener)}).
+ * </p>
  */
 @Service
 public class PaginationHandler {
 
     private static final Logger log = LoggerFactory.getLogger(PaginationHandler.class);
 
+    private static final By NEXT_PAGE_BUTTON = By.xpath("//a[@aria-label='Ir a la página de búsqueda siguiente']");
+
+    private final ScrapingProperties.Pagination config;
+    private final ResourcePermits resourcePermits;
+    private final PageReadiness pageReadiness;
+    private final ScrapingMetrics scrapingMetrics;
+    private final HostRateLimiter hostRateLimiter;
+    private final ResourceBlocker resourceBlocker;
+    private final ExecutorService pageWorkers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("page-worker-", 0).factory());
+
+    public PaginationHandler(ScrapingProperties properties, ResourcePermits resourcePermits,
+                             PageReadiness pageReadiness, ScrapingMetrics scrapingMetrics,
+                             HostRateLimiter hostRateLimiter, ResourceBlocker resourceBlocker) {
+        this.config = properties.getPagination();
+        this.resourcePermits = resourcePermits;
+        this.pageReadiness = pageReadiness;
+        this.scrapingMetrics = scrapingMetrics;
+        this.hostRateLimiter = hostRateLimiter;
+        this.resourceBlocker = resourceBlocker;
+    }
+
+    /**
+     * Calcula las URL de todas las páginas a procesar cuando el modo paralelo o el de pestañas está habilitado.
+     *
+     * @param parameters       Los parámetros de scraping, con la URL inicial y el número de páginas.
+     * @param productExtractor El extractor del sitio, que sabe construir las URL de sus páginas.
+     * @return Las URL de las páginas en orden, o una lista vacía si se debe usar el recorrido secuencial.
+     */
+    public List<String> resolvePageUrls(ScrapingParameters parameters, IProductExtractor productExtractor) {
+        if (config.getMode() == ScrapingProperties.PaginationMode.SEQUENTIAL || parameters.getPages() <= 1) {
+            return List.of();
+        }
+        return productExtractor.buildPageUrls(parameters.getUrl(), parameters.getPages(), config.getItemsPerPage());
+    }
+
+    /**
+     * Realiza el scraping de varias páginas con URL propia de forma concurrente.
+     * Cada página se procesa en un hilo virtual, con un máximo de {@code scraping.pagination.parallelism} páginas
+     * a la vez, y los resultados se combinan en el orden de las páginas.
+     * Una página que falla se registra y no aporta productos; en cambio, a partir de la primera página
+     * que se descarga correctamente pero está vacía se descartan las siguientes, ya que el sitio no tiene más resultados.
+     * Si fallan todas las páginas se lanza el primer error, para que quien llama sepa por qué no hay productos.
+     * <p>
+     * Con una marca de agua activa, la primera página se descarga sola y las demás solo empiezan si aporta
+     * productos nuevos, porque en una ejecución incremental lo habitual es que no haya novedades. A partir de ahí
+     * la parada es por página: las páginas que ya estaban en curso al encontrar la primera sin novedades (como
+     * mucho {@code scraping.pagination.parallelism}) terminan de descargarse, aunque sus productos se descartan.
+     * </p>
+     *
+     * @param pageUrls    Las URL de las páginas, en orden.
+     * @param pageScraper Función que descarga una página y devuelve sus productos (nuevos, si hay marca de agua).
+     * @param watermark   Lo visto en ejecuciones anteriores, o {@link ScrapeWatermark#none()}.
+     * @param listener    Recibe los productos de cada página a medida que se combinan.
+     * @return Una lista de productos extraídos de todas las páginas, en el orden de las páginas.
+     * @throws ScrapingExecutionException Si no se pudo descargar ninguna página.
+     */
+    public List<Product> scrapeAddressablePages(List<String> pageUrls, Function<String, List<Product>> pageScraper,
+                                                ScrapeWatermark watermark, ScrapeListener listener) {
+        List<CompletableFuture<List<Product>>> pages = new ArrayList<>(pageUrls.size());
+        Semaphore pageSlots = new Semaphore(config.getParallelism());
+        // Primera página vacía encontrada; las páginas posteriores que aún no empezaron ya no se descargan
+        AtomicInteger lastPage = new AtomicInteger(pageUrls.size());
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        for (int i = 0; i < pageUrls.size(); i++) {
+            String pageUrl = pageUrls.get(i);
+            int pageNumber = i + 1;
+            // En modo incremental, las páginas siguientes esperan a saber si la primera tiene novedades
+            CompletableFuture<List<Product>> firstPage = watermark.isActive() && i > 0 ? pages.get(0) : null;
+            pages.add(CompletableFuture.supplyAsync(() -> {
+                if (firstPage != null) {
+                    firstPage.handle((products, e) -> products).join();
+                }
+                pageSlots.acquireUninterruptibly();
+                try {
+                    if (pageNumber > lastPage.get()) {
+                        return List.<Product>of();
+                    }
+                    log.info("Scrapeando en paralelo la página {} de {}", pageNumber, pageUrls.size());
+                    List<Product> products = pageScraper.apply(pageUrl);
+                    if (products.isEmpty()) {
+                        lastPage.accumulateAndGet(pageNumber, Math::min);
+                    }
+                    return products;
+                } finally {
+                    pageSlots.release();
+                }
+            }, pageWorkers).exceptionally(e -> {
+                log.warn("Falló el scraping de la página {}: {}", pageNumber, e.getMessage());
+                firstFailure.compareAndSet(null, e);
+                return null;
+            }));
+        }
+
+        List<Product> allResults = new ArrayList<>();
+        boolean anyPageLoaded = false;
+        for (int i = 0; i < pages.size(); i++) {
+            List<Product> products = pages.get(i).join();
+            if (products == null) {
+                continue;
+            }
+            anyPageLoaded = true;
+            if (products.isEmpty()) {
+                log.info("Paginación finalizada. Todas las páginas disponibles han sido procesadas.");
+                pages.forEach(pending -> pending.cancel(false));
+                break;
+            }
+            allResults.addAll(products);
+            listener.onPage(i + 1, products);
+        }
+        if (!anyPageLoaded && firstFailure.get() != null) {
+            throw new ScrapingExecutionException("Falló el scraping de todas las páginas", firstFailure.get());
+        }
+        return allResults;
+    }
+
+    /**
+     * @return {@code true} si las páginas con URL propia se deben cargar en pestañas de una misma sesión de navegador.
+     */
+    public boolean isTabMode() {
+        return config.getMode() == ScrapingProperties.PaginationMode.TABS;
+    }
+
+    /**
+     * Realiza el scraping de varias páginas con URL propia en pestañas de una sola sesión de navegador.
+     * <p>
+     * Se abren hasta {@code scraping.pagination.tabs} pestañas y en cada una se inicia la navegación con JavaScript,
+     * sin esperar a que termine, de modo que las páginas se descargan a la vez dentro del mismo proceso de Chrome.
+     * Después se recorren las pestañas en orden y se extraen sus productos; un WebDriver solo atiende un comando
+     * a la vez, así que la extracción es secuencial, pero para entonces la mayoría de las páginas ya cargaron.
+     * Las pestañas se reutilizan para las páginas siguientes; antes de extraer se espera a que la pestaña deje
+     * atrás el documento anterior, y el tiempo de carga que se comunica a {@link HostRateLimiter} es el que
+     * indica el navegador para esa página, sin contar lo que se tardó en extraer las otras pestañas.
+     * </p>
+     * <p>
+     * Una pestaña que falla se cierra y se sustituye por otra, y la página no aporta productos, como en
+     * {@link #scrapeAddressablePages(List, Function, ScrapeWatermark, ScrapeListener)}. Una página de verificación
+     * o la caída del navegador detienen todo el scraping, porque afectarían igual al resto de pestañas.
+     * </p>
+     *
+     * @param driver      La sesión de navegador, ya tomada del pool.
+     * @param pageUrls    Las URL de las páginas, en orden.
+     * @param pageScraper Extrae los productos de la pestaña actual una vez cargada.
+     * @param listener    Recibe los productos de cada página en orden.
+     * @return Una lista de productos extraídos de todas las páginas, en el orden de las páginas.
+     * @throws ScrapingExecutionException Si no se pudo cargar ninguna página.
+     */
+    public List<Product> scrapePagesInTabs(WebDriver driver, List<String> pageUrls,
+                                           Supplier<List<Product>> pageScraper, ScrapeListener listener) {
+        List<String> tabs = new ArrayList<>();
+        tabs.add(driver.getWindowHandle());
+        List<Product> allResults = new ArrayList<>();
+        boolean anyPageLoaded = false;
+        RuntimeException firstFailure = null;
+        int tabCount = Math.max(1, config.getTabs());
+
+        for (int batchStart = 0; batchStart < pageUrls.size(); batchStart += tabCount) {
+            int batchEnd = Math.min(pageUrls.size(), batchStart + tabCount);
+            WebElement[] previousPages = new WebElement[batchEnd - batchStart];
+            for (int i = batchStart; i < batchEnd; i++) {
+                int tab = i - batchStart;
+                if (tab == tabs.size()) {
+                    tabs.add(driver.switchTo().newWindow(WindowType.TAB).getWindowHandle());
+                } else {
+                    driver.switchTo().window(tabs.get(tab));
+                }
+                if (batchStart == 0) {
+                    resourceBlocker.applyToNewTab(driver, pageUrls.get(i));
+                }
+                hostRateLimiter.acquire(pageUrls.get(i));
+                previousPages[tab] = driver.findElement(By.tagName("html"));
+                ((JavascriptExecutor) driver).executeScript("window.location.href = arguments[0];", pageUrls.get(i));
+            }
+
+            for (int i = batchStart; i < batchEnd; i++) {
+                int tab = i - batchStart;
+                int pageNumber = i + 1;
+                String pageUrl = pageUrls.get(i);
+                List<Product> products;
+                try {
+                    driver.switchTo().window(tabs.get(tab));
+                    log.info("Scrapeando en la pestaña {} la página {} de {}", tab + 1, pageNumber, pageUrls.size());
+                    long waitStart = System.nanoTime();
+                    // La pestaña puede seguir mostrando la página anterior si la navegación aún no empezó
+                    pageReadiness.awaitNavigation(driver, previousPages[tab]);
+                    products = pageScraper.get();
+                    long loadMillis = pageLoadMillis(driver, (System.nanoTime() - waitStart) / 1_000_000);
+                    scrapingMetrics.record(ScrapingMetrics.BROWSER, ScrapingMetrics.NAVIGATION, loadMillis * 1_000_000);
+                    if (hostRateLimiter.record(driver, pageUrl, loadMillis)) {
+                        throw new ChallengePageException(pageUrl);
+                    }
+                } catch (RuntimeException e) {
+                    FailureType failure = FailureClassifier.classify(e);
+                    if (failure == FailureType.CHALLENGE || failure == FailureType.DRIVER_CRASH
+                            || failure == FailureType.CANCELLED) {
+                        throw e;
+                    }
+                    log.warn("Falló el scraping de la página {} en su pestaña: {}", pageNumber, e.getMessage());
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                    replaceTab(driver, tabs, tab, pageUrl, e);
+                    continue;
+                }
+                anyPageLoaded = true;
+                if (products.isEmpty()) {
+                    log.info("Paginación finalizada. Todas las páginas disponibles han sido procesadas.");
+                    return allResults;
+                }
+                allResults.addAll(products);
+                listener.onPage(pageNumber, products);
+            }
+        }
+        if (!anyPageLoaded && firstFailure != null) {
+            throw new ScrapingExecutionException("Falló el scraping de todas las páginas", firstFailure);
+        }
+        return allResults;
+    }
+
+    /**
+     * Tiempo que tardó en cargar la página de la pestaña actual según el propio navegador (desde el inicio de la
+     * navegación hasta {@code DOMContentLoaded}). Mientras se extraían las pestañas anteriores esta ya estaba cargando,
+     * así que medir desde que se inició el lote sumaría un tiempo que no depende del sitio.
+     *
+     * @param fallbackMillis El tiempo a usar si el navegador no lo indica.
+     */
+    private static long pageLoadMillis(WebDriver driver, long fallbackMillis) {
+        try {
+            Object millis = ((JavascriptExecutor) driver).executeScript(
+                    "var entry = performance.getEntriesByType('navigation')[0];"
+                            + " return entry ? Math.round(entry.domContentLoadedEventEnd) : -1;");
+            if (millis instanceof Number number && number.longValue() > 0) {
+                return number.longValue();
+            }
+        } catch (WebDriverException e) {
+            log.debug("No se pudo leer el tiempo de carga de la pestaña: {}", e.getMessage());
+        }
+        return fallbackMillis;
+    }
+
+    /**
+     * Cierra una pestaña que falló y abre otra en su lugar, por si quedó en un estado inservible.
+     *
+     * @throws RuntimeException El error original de la pestaña si tampoco se puede sustituir, porque entonces
+     *                          el problema es del navegador.
+     */
+    private void replaceTab(WebDriver driver, List<String> tabs, int tab, String url, RuntimeException failure) {
+        if (tabs.size() == 1) {
+            // Sin otra pestaña a la que cambiar, la única se reutiliza en la siguiente navegación
+            return;
+        }
+        try {
+            driver.switchTo().window(tabs.get(tab));
+            driver.close();
+            driver.switchTo().window(tabs.get(tab == 0 ? 1 : 0));
+            tabs.set(tab, driver.switchTo().newWindow(WindowType.TAB).getWindowHandle());
+            resourceBlocker.applyToNewTab(driver, url);
+        } catch (WebDriverException e) {
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    /**
+     * Descarga una página por HTTP y extrae sus productos.
+     *
+     * @param fetchEngine      El motor HTTP con el que se descarga la página.
+     * @param productExtractor El extractor capaz de leer los productos desde el HTML.
+     * @param pageUrl          La URL de la página.
+     * @param watermark        Lo visto en ejecuciones anteriores, o {@link ScrapeWatermark#none()}.
+     * @return Los productos nuevos de la página, o una lista vacía si la página no tiene productos o novedades.
+     * @throws ScrapingExecutionException Si el servidor no respondió con un código 2xx. Así la página cuenta como
+     *                                    fallida y no como vacía, que detendría la paginación. Los errores del
+     *                                    servidor (5xx) y el exceso de peticiones (429) se clasifican como
+     *                                    {@link FailureType#NETWORK}, porque indican un problema del sitio.
+     */
+    public List<Product> scrapeHtmlPage(HttpFetchEngine fetchEngine, IHtmlProductExtractor productExtractor,
+                                        String pageUrl, ScrapeWatermark watermark) {
+        FetchedPage page = fetchWithPermit(fetchEngine, pageUrl);
+        if (!page.isSuccessful()) {
+            String message = "La página " + pageUrl + " respondió con el código " + page.getStatusCode();
+            if (page.getStatusCode() >= 500 || page.getStatusCode() == 429) {
+                throw new ScrapingExecutionException(message, new IOException(message));
+            }
+            throw new ScrapingExecutionException(message);
+        }
+        Document document = Jsoup.parse(page.getHtml(), pageUrl);
+        if (watermark.isPageUnchanged(pageUrl, productExtractor.contentSignature(document))) {
+            log.info("La página {} no cambió desde la ejecución anterior", pageUrl);
+            return List.of();
+        }
+        return watermark.retainUnseen(pageUrl, extractProducts(productExtractor, document));
+    }
+
 /**
  * Realiza el scraping de múltiples páginas según los parámetros especificados.
  * Este método navega a través de múltiples páginas, extrae los datos en cada página
@@ -33,11 +352,14 @@ public class PaginationHandler {
  * @param scraperFunction Una función que realiza el scraping de la página actual y retorna una lista de productos.
  * @param parameters Los parámetros de scraping, incluyendo el número de páginas a procesar.
  * @param productExtractor El extractor de productos que define cómo se extraen los productos de cada página.
+ * @param watermark Lo visto en ejecuciones anteriores; la paginación se detiene en la primera página sin productos nuevos.
+ * @param listener Recibe los productos de cada página en cuanto se extraen.
  * @return Una lista de productos extraídos de todas las páginas procesadas.
  */
 
     public List <Product> scrapePaginatedResults (WebDriver driver, Supplier<List<Product>> scraperFunction,
-                                                 ScrapingParameters parameters, IProductExtractor productExtractor) {
+                                                 ScrapingParameters parameters, IProductExtractor productExtractor,
+                                                 ScrapeWatermark watermark, ScrapeListener listener) {
         List<Product> allResults = new ArrayList<>();
 
         int pagesToScrape = parameters.getPages();
@@ -47,12 +369,18 @@ public class PaginationHandler {
             try {
                 log.info("Scrapeando página {} de {}", i + 1, pagesToScrape);
 
-                allResults.addAll(scraperFunction.get());
+                List<Product> products = watermark.retainUnseen(scraperFunction.get());
+                if (watermark.isActive() && products.isEmpty()) {
+                    log.info("La página {} solo contiene productos ya vistos, se detiene la paginación.", i + 1);
+                    break;
+                }
+                allResults.addAll(products);
+                listener.onPage(i + 1, products);
 
 
                 if (i < pagesToScrape - 1) {
                     log.info("Navegando a la siguiente página...");
-                    if (!clickNextPageButton(driver)) {
+                    if (!clickNextPageButton(driver, productExtractor)) {
                         log.info("Paginación finalizada. Todas las páginas disponibles han sido procesadas.");
                         break;
                     }
@@ -69,18 +397,101 @@ public class PaginationHandler {
 
 
     /**
-     * Navega a la siguiente página en el sitio web haciendo clic en el botón "Siguiente".
+     * Realiza el scraping de múltiples páginas descargándolas por HTTP, sin navegador.
+     * Sigue el enlace "Siguiente" de cada página hasta completar el número de páginas solicitado.
+     * Si una página no devuelve productos (por ejemplo, por una página de verificación del sitio),
+     * la paginación se detiene. En el modo incremental también se detiene en la primera página que no cambió
+     * o que solo contiene productos ya vistos.
      *
-     * @param driver El WebDriver utilizado para interactuar con la página web.
+     * @param fetchEngine      El motor HTTP con el que se descargan las páginas.
+     * @param productExtractor El extractor capaz de leer los productos desde el HTML.
+     * @param parameters       Los parámetros de scraping, incluyendo la URL inicial y el número de páginas.
+     * @param watermark        Lo visto en ejecuciones anteriores, o {@link ScrapeWatermark#none()}.
+     * @param listener         Recibe los productos de cada página en cuanto se extraen.
+     * @return Una lista de productos extraídos de todas las páginas procesadas.
+     */
+    public List<Product> scrapePaginatedHtml(HttpFetchEngine fetchEngine, IHtmlProductExtractor productExtractor,
+                                             ScrapingParameters parameters, ScrapeWatermark watermark,
+                                             ScrapeListener listener) {
+        List<Product> allResults = new ArrayList<>();
+        int pagesToScrape = parameters.getPages();
+        String pageUrl = parameters.getUrl();
+
+        for (int i = 0; i < pagesToScrape && pageUrl != null; i++) {
+            log.info("Descargando por HTTP la página {} de {}", i + 1, pagesToScrape);
+
+            FetchedPage page = fetchWithPermit(fetchEngine, pageUrl);
+            if (!page.isSuccessful()) {
+                log.warn("La página {} respondió con el código {}", pageUrl, page.getStatusCode());
+                break;
+            }
+
+            Document document = Jsoup.parse(page.getHtml(), pageUrl);
+            if (watermark.isPageUnchanged(pageUrl, productExtractor.contentSignature(document))) {
+                log.info("La página {} no cambió desde la ejecución anterior, se detiene la paginación.", pageUrl);
+                break;
+            }
+            List<Product> products = extractProducts(productExtractor, document);
+            if (products.isEmpty()) {
+                log.warn("No se encontraron productos en {}", pageUrl);
+                break;
+            }
+            List<Product> unseen = watermark.retainUnseen(pageUrl, products);
+            if (unseen.isEmpty()) {
+                log.info("La página {} solo contiene productos ya vistos, se detiene la paginación.", pageUrl);
+                break;
+            }
+            allResults.addAll(unseen);
+            listener.onPage(i + 1, unseen);
+
+            Optional<String> nextPage = productExtractor.findNextPageUrl(document);
+            pageUrl = nextPage.orElse(null);
+        }
+        return allResults;
+    }
+
+
+    /**
+     * Descarga una página por HTTP cuando lo permite el ritmo del sitio, ocupando un permiso de descarga
+     * mientras dura la petición, e informa del resultado a {@link HostRateLimiter}.
+     */
+    private FetchedPage fetchWithPermit(HttpFetchEngine fetchEngine, String pageUrl) {
+        hostRateLimiter.acquire(pageUrl);
+        try (ResourcePermits.Permit permit = resourcePermits.acquire(ResourcePermits.Resource.HTTP)) {
+            FetchedPage page;
+            try {
+                page = scrapingMetrics.time(ScrapingMetrics.HTTP, ScrapingMetrics.FETCH,
+                        () -> fetchEngine.fetch(pageUrl).join());
+            } catch (RuntimeException e) {
+                hostRateLimiter.recordFailure(pageUrl);
+                throw e;
+            }
+            hostRateLimiter.record(page);
+            return page;
+        }
+    }
+
+    private List<Product> extractProducts(IHtmlProductExtractor productExtractor, Document document) {
+        return scrapingMetrics.time(ScrapingMetrics.HTTP, ScrapingMetrics.EXTRACTION,
+                () -> productExtractor.extractProducts(document));
+    }
+
+
+    /**
+     * Navega a la siguiente página en el sitio web haciendo clic en el botón "Siguiente"
+     * y espera a que desaparezca la página actual.
+     *
+     * @param driver           El WebDriver utilizado para interactuar con la página web.
+     * @param productExtractor El extractor del sitio, que indica qué elementos cambian con la página.
      * @return {@code true} si la navegación a la siguiente página fue exitosa, {@code false} si no fue posible avanzar.
      */
-    private boolean clickNextPageButton(WebDriver driver) {
+    private boolean clickNextPageButton(WebDriver driver, IProductExtractor productExtractor) {
         try {
-            WebElement nextButton = new WebDriverWait(driver, Duration.ofMillis(1000))
-                    .until(ExpectedConditions.elementToBeClickable(By.xpath("//a[@aria-label='Ir a la página de búsqueda siguiente']")));
-
-            if (nextButton.isDisplayed() && nextButton.isEnabled()) {
-                nextButton.click();
+            String currentUrl = driver.getCurrentUrl();
+            hostRateLimiter.acquire(currentUrl);
+            long start = System.nanoTime();
+            if (pageReadiness.clickAndAwaitNextPage(driver, NEXT_PAGE_BUTTON, productExtractor.readyLocator())) {
+                hostRateLimiter.record(driver, currentUrl, (System.nanoTime() - start) / 1_000_000);
                 return true;
             } else {
                 log.warn("Se terminó el scraping debido a que ya no hay más páginas a scrapear");
@@ -90,4 +501,13 @@ public class PaginationHandler {
         }
         return false;
     }
+
+
+    /**
+     * Detiene los trabajadores de paginación al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pageWorkers.shutdownNow();
+    }
 }
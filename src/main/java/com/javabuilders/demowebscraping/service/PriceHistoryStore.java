@@ -0,0 +1,463 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Almacén local, de solo escritura al final, con el historial de observaciones de productos.
+ * <p>
+ * Cada observación se añade al segmento activo ({@code segment-NNNNNN.log}); cuando este alcanza el tamaño
+ * configurado se cierra y se abre uno nuevo, por lo que los segmentos anteriores nunca cambian.
+ * Las lecturas se hacen sobre los segmentos mapeados en memoria. Un índice por enlace de producto
+ * guarda la posición de cada observación ordenada por fecha, lo que permite consultar rangos de tiempo
+ * sin recorrer los segmentos. El índice se reconstruye leyendo los segmentos al arrancar.
+ * </p>
+ * <p>
+ * Formato de cada registro: {@code [int longitud][long fecha][nombre][precio][enlace]}, donde cada texto se
+ * guarda como {@code [short bytes][UTF-8]}.
+ * </p>
+ */
+@Service
+public class PriceHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // La posición de un registro combina el número de segmento (bits altos) y su desplazamiento (31 bits bajos);
+    // los segmentos se mapean en memoria, así que su desplazamiento nunca pasa de Integer.MAX_VALUE
+    private static final int OFFSET_BITS = 31;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final ScrapingProperties.History config;
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PositionList> index = new HashMap<>();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment activeSegment;
+
+    public PriceHistoryStore(ScrapingProperties properties) {
+        this.config = properties.getHistory();
+        this.directory = Path.of(config.getDirectory());
+        long segmentSize = config.getSegmentSize().toBytes();
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("scraping.history.segment-size debe estar entre 1 byte y "
+                    + Integer.MAX_VALUE + " bytes: " + config.getSegmentSize());
+        }
+        if (config.isEnabled()) {
+            open();
+        }
+    }
+
+    /**
+     * Indica si el historial está habilitado en la configuración.
+     *
+     * @return {@code true} si las observaciones se guardan en disco.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Añade una observación por cada producto al final del historial.
+     *
+     * @param products Los productos obtenidos en un scraping.
+     */
+    public void append(List<Product> products) {
+        if (!config.isEnabled() || products.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                appendRecord(product);
+            }
+        } catch (IOException e) {
+            throw new ScrapingExecutionException("No se pudo escribir el historial de precios", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve las observaciones de un producto dentro de un rango de fechas, ordenadas de la más antigua a la más reciente.
+     * Se ignoran los parámetros de la URL del enlace, ya que pueden cambiar entre ejecuciones para el mismo producto.
+     *
+     * @param link El enlace del producto.
+     * @param from Fecha inicial (incluida), o {@code null} para no limitarla.
+     * @param to   Fecha final (excluida), o {@code null} para no limitarla.
+     * @return Las observaciones encontradas; vacía si el producto no tiene historial.
+     */
+    public List<Product> history(String link, Instant from, Instant to) {
+        if (!config.isEnabled()) {
+            return List.of();
+        }
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+
+        lock.readLock().lock();
+        try {
+            PositionList positions = index.get(indexKey(link));
+            if (positions == null) {
+                return List.of();
+            }
+            List<Product> observations = new ArrayList<>();
+            for (int i = firstAtOrAfter(positions, fromMillis); i < positions.size; i++) {
+                long position = positions.values[i];
+                if (readTimestamp(position) >= toMillis) {
+                    break;
+                }
+                observations.add(readRecord(position));
+            }
+            return observations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fuerza la escritura a disco y cierra los segmentos al detener la aplicación.
+     */
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error al cerrar el historial de precios: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Abre los segmentos existentes, reconstruye el índice y prepara el segmento activo.
+     */
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = new Segment(segmentId(file), file);
+                segments.put(segment.id, segment);
+                rebuildIndex(segment);
+            }
+            if (segments.isEmpty()) {
+                rollSegment();
+            } else {
+                activeSegment = segments.lastEntry().getValue();
+                activeSegment.openForAppend();
+            }
+            log.info("Historial de precios abierto: {} segmentos, {} productos", segments.size(), index.size());
+        } catch (IOException e) {
+            throw new ScrapingExecutionException("No se pudo abrir el historial de precios en " + directory, e);
+        }
+    }
+
+    /**
+     * Recorre un segmento registrando la posición de cada observación en el índice.
+     * Si el último registro quedó incompleto (por ejemplo, tras una caída), se descarta.
+     */
+    private void rebuildIndex(Segment segment) throws IOException {
+        long size = segment.size();
+        MappedByteBuffer buffer = segment.map(size);
+        int offset = 0;
+        while (offset + Integer.BYTES <= size) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + Integer.BYTES + length > size) {
+                break;
+            }
+            long position = position(segment.id, offset);
+            addToIndex(readLink(buffer, offset), position, buffer.getLong(offset + Integer.BYTES));
+            offset += Integer.BYTES + length;
+        }
+        if (offset < size) {
+            log.warn("Se descartan {} bytes incompletos al final de {}", size - offset, segment.file);
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.WRITE)) {
+                channel.truncate(offset);
+            }
+            segment.invalidate();
+        }
+    }
+
+    private void appendRecord(Product product) throws IOException {
+        byte[] name = encode(product.getName());
+        byte[] price = encode(product.getPrice());
+        byte[] link = encode(product.getLink());
+        long timestamp = product.getTimeStamp() == null ? System.currentTimeMillis() : product.getTimeStamp().getTime();
+
+        int length = Long.BYTES + 3 * Short.BYTES + name.length + price.length + link.length;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length)
+                .putInt(length)
+                .putLong(timestamp);
+        putString(record, name);
+        putString(record, price);
+        putString(record, link);
+        record.flip();
+
+        if (activeSegment.size() + record.remaining() > config.getSegmentSize().toBytes()) {
+            rollSegment();
+        }
+        long offset = activeSegment.append(record);
+        addToIndex(product.getLink(), position(activeSegment.id, offset), timestamp);
+    }
+
+    /**
+     * Cierra el segmento activo y abre uno nuevo a continuación.
+     */
+    private void rollSegment() throws IOException {
+        int nextId = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        if (activeSegment != null) {
+            activeSegment.seal();
+        }
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, nextId, SEGMENT_SUFFIX));
+        activeSegment = new Segment(nextId, file);
+        activeSegment.openForAppend();
+        segments.put(nextId, activeSegment);
+    }
+
+    /**
+     * Añade la posición al índice del producto manteniendo el orden por fecha.
+     * Las observaciones casi siempre llegan en orden, por lo que normalmente basta con añadir al final.
+     */
+    private void addToIndex(String link, long position, long timestamp) {
+        PositionList positions = index.computeIfAbsent(indexKey(link), key -> new PositionList());
+        if (timestamp >= positions.lastTimestamp) {
+            positions.insert(positions.size, position);
+            positions.lastTimestamp = timestamp;
+            return;
+        }
+        int insertAt = positions.size;
+        while (insertAt > 0 && readTimestamp(positions.values[insertAt - 1]) > timestamp) {
+            insertAt--;
+        }
+        positions.insert(insertAt, position);
+    }
+
+    /**
+     * Busca con búsqueda binaria la primera observación con fecha igual o posterior a la indicada.
+     */
+    private int firstAtOrAfter(PositionList positions, long fromMillis) {
+        int low = 0;
+        int high = positions.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (readTimestamp(positions.values[mid]) < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long readTimestamp(long position) {
+        Segment segment = segments.get(segmentOf(position));
+        int offset = offsetOf(position);
+        return segment.buffer(offset + Integer.BYTES + Long.BYTES).getLong(offset + Integer.BYTES);
+    }
+
+    private Product readRecord(long position) {
+        Segment segment = segments.get(segmentOf(position));
+        int offset = offsetOf(position);
+        MappedByteBuffer buffer = segment.buffer(offset + Integer.BYTES);
+        int length = buffer.getInt(offset);
+        buffer = segment.buffer(offset + Integer.BYTES + length);
+
+        int cursor = offset + Integer.BYTES;
+        long timestamp = buffer.getLong(cursor);
+        cursor += Long.BYTES;
+        String name = getString(buffer, cursor);
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        String price = getString(buffer, cursor);
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        String link = getString(buffer, cursor);
+        return new Product(name, price, link, new Date(timestamp));
+    }
+
+    private static String readLink(ByteBuffer buffer, int offset) {
+        int cursor = offset + Integer.BYTES + Long.BYTES;
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        cursor += Short.BYTES + Short.toUnsignedInt(buffer.getShort(cursor));
+        return getString(buffer, cursor);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        // Los textos se limitan a 64 KB, más que suficiente para nombres, precios y enlaces
+        return bytes.length > 0xFFFF ? Arrays.copyOf(bytes, 0xFFFF) : bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        buffer.putShort((short) value.length).put(value);
+    }
+
+    private static String getString(ByteBuffer buffer, int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Clave del índice: el enlace sin parámetros ni fragmento, ya que eBay añade parámetros de seguimiento
+     * que cambian entre ejecuciones para el mismo producto.
+     */
+    static String indexKey(String link) {
+        if (link == null) {
+            return "";
+        }
+        int end = link.length();
+        int query = link.indexOf('?');
+        int fragment = link.indexOf('#');
+        if (query >= 0) {
+            end = query;
+        }
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        return link.substring(0, end);
+    }
+
+    private static long position(int segmentId, long offset) {
+        return ((long) segmentId << OFFSET_BITS) | offset;
+    }
+
+    private static int segmentOf(long position) {
+        return (int) (position >>> OFFSET_BITS);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) (position & OFFSET_MASK);
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Lista creciente de posiciones de registros, sin objetos por elemento.
+     */
+    private static final class PositionList {
+        private long[] values = new long[4];
+        private int size;
+        // Fecha de la observación más reciente, para añadir al final sin leer el segmento
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        private void insert(int index, long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Archivo de segmento. Se escribe al final mediante un {@link FileChannel} y se lee a través de una proyección
+     * en memoria, que se renueva cuando el segmento activo crece más allá de la parte ya proyectada.
+     */
+    private static final class Segment {
+        private final int id;
+        private final Path file;
+        private FileChannel appendChannel;
+        private MappedByteBuffer mapped;
+        private long mappedSize;
+
+        private Segment(int id, Path file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        private void openForAppend() throws IOException {
+            appendChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+
+        private long size() throws IOException {
+            return appendChannel != null ? appendChannel.size() : Files.size(file);
+        }
+
+        private long append(ByteBuffer record) throws IOException {
+            long offset = appendChannel.size();
+            while (record.hasRemaining()) {
+                appendChannel.write(record);
+            }
+            return offset;
+        }
+
+        private void seal() throws IOException {
+            if (appendChannel != null) {
+                appendChannel.force(false);
+                appendChannel.close();
+                appendChannel = null;
+            }
+        }
+
+        private void close() throws IOException {
+            seal();
+        }
+
+        private void invalidate() {
+            mapped = null;
+            mappedSize = 0;
+        }
+
+        /**
+         * Devuelve una proyección que cubre al menos hasta {@code requiredSize} bytes.
+         */
+        private synchronized MappedByteBuffer buffer(long requiredSize) {
+            if (mapped == null || mappedSize < requiredSize) {
+                try {
+                    map(size());
+                } catch (IOException e) {
+                    throw new ScrapingExecutionException("No se pudo leer el segmento " + file, e);
+                }
+            }
+            return mapped;
+        }
+
+        private synchronized MappedByteBuffer map(long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mappedSize = size;
+            }
+            return mapped;
+        }
+    }
+}
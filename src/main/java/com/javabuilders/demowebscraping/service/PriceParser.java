@@ -0,0 +1,89 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.ParsedPrice;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte el texto de precio mostrado por el sitio ("US $12.99", "$10.00 a $20.00", "EUR 1.234,50")
+ * en un {@link ParsedPrice} con centavos y código de moneda.
+ */
+public final class PriceParser {
+
+    private static final Pattern AMOUNT = Pattern.compile("\\d[\\d.,]*");
+
+    // Prefijos de moneda que muestra eBay y su código ISO 4217
+    private static final Map<String, String> CURRENCY_LABELS = Map.ofEntries(
+            Map.entry("US $", "USD"),
+            Map.entry("USD", "USD"),
+            Map.entry("$", "USD"),
+            Map.entry("C $", "CAD"),
+            Map.entry("AU $", "AUD"),
+            Map.entry("MXN $", "MXN"),
+            Map.entry("MXN", "MXN"),
+            Map.entry("EUR", "EUR"),
+            Map.entry("€", "EUR"),
+            Map.entry("£", "GBP"),
+            Map.entry("GBP", "GBP"));
+
+    private PriceParser() {
+    }
+
+    /**
+     * Interpreta el texto de un precio.
+     *
+     * @param priceText El precio tal como lo muestra el sitio.
+     * @return El precio interpretado, o {@link Optional#empty()} si el texto no contiene ningún importe.
+     */
+    public static Optional<ParsedPrice> parse(String priceText) {
+        if (priceText == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = AMOUNT.matcher(priceText);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        String label = priceText.substring(0, matcher.start()).trim();
+        long minCents = toCents(matcher.group());
+        long maxCents = matcher.find() ? toCents(matcher.group()) : minCents;
+        if (minCents < 0 || maxCents < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ParsedPrice(minCents, Math.max(minCents, maxCents), currencyCode(label)));
+    }
+
+    private static String currencyCode(String label) {
+        String code = CURRENCY_LABELS.get(label);
+        if (code != null) {
+            return code;
+        }
+        String letters = label.replaceAll("[^A-Za-z]", "").toUpperCase();
+        return letters.length() == 3 ? letters : "USD";
+    }
+
+    /**
+     * Convierte un importe a centavos. El último separador se toma como decimal si le siguen uno o dos dígitos,
+     * para aceptar "1,234.50", "1.234,50" y "12.9"; con tres dígitos ("1.234") es un separador de miles.
+     *
+     * @return Los centavos, o -1 si el importe no es válido.
+     */
+    private static long toCents(String amount) {
+        int lastSeparator = Math.max(amount.lastIndexOf('.'), amount.lastIndexOf(','));
+        int decimals = lastSeparator >= 0 ? amount.length() - lastSeparator - 1 : 0;
+        boolean hasDecimals = decimals == 1 || decimals == 2;
+        String integerPart = hasDecimals ? amount.substring(0, lastSeparator) : amount;
+        String digits = integerPart.replace(".", "").replace(",", "");
+        if (digits.isEmpty() || digits.length() > 15) {
+            return -1;
+        }
+        long cents = Long.parseLong(digits) * 100;
+        if (hasDecimals) {
+            long decimalPart = Long.parseLong(amount.substring(lastSeparator + 1));
+            cents += decimals == 1 ? decimalPart * 10 : decimalPart;
+        }
+        return cents;
+    }
+}
@@ -0,0 +1,39 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.CompactProductList;
+import com.javabuilders.demowebscraping.model.Product;
+
+import java.util.List;
+
+/**
+ * Convierte listas de {@link Product} a su representación compacta {@link CompactProductList},
+ * interpretando el precio con {@link PriceParser} y el identificador del producto con {@link EbayItemIds}.
+ */
+public final class ProductCompactor {
+
+    private ProductCompactor() {
+    }
+
+    /**
+     * @param products Los productos obtenidos en un scraping.
+     * @return Una {@link CompactProductList} con los mismos productos en el mismo orden.
+     */
+    public static CompactProductList compact(List<Product> products) {
+        if (products instanceof CompactProductList compactProducts) {
+            return compactProducts;
+        }
+        CompactProductList.Builder builder = CompactProductList.builder();
+        for (Product product : products) {
+            long timestamp = product.getTimeStamp() == null
+                    ? CompactProductList.NO_TIMESTAMP
+                    : product.getTimeStamp().getTime();
+            builder.add(product.getName(),
+                    product.getPrice(),
+                    PriceParser.parse(product.getPrice()).orElse(null),
+                    EbayItemIds.parse(product.getLink()),
+                    product.getLink(),
+                    timestamp);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,283 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio que elimina productos repetidos usando el identificador numérico de eBay ({@link EbayItemIds}).
+ * <p>
+ * Dentro de un scraping, un producto aparece varias veces cuando es patrocinado o cuando se desplaza de una página
+ * a otra mientras se recorren; {@link #deduplicate(List)} conserva solo la primera aparición.
+ * </p>
+ * <p>
+ * Entre ejecuciones, {@link #filterChanged(List)} descarta las observaciones cuyo precio es el mismo que el último
+ * guardado para ese producto, para que el historial solo reciba cambios (incluido volver a un precio anterior).
+ * El último precio de cada producto se guarda como un hash junto a su clave, en un archivo de pares de valores
+ * {@code long} que se vuelve a cargar al arrancar; si una clave aparece varias veces, vale la última.
+ * El archivo se compacta al arrancar y cuando los precios sustituidos superan a los vigentes.
+ * </p>
+ */
+@Service
+public class ProductDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductDeduplicator.class);
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // Cada entrada del archivo es la clave del producto seguida del hash de su último precio
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+
+    private final ScrapingProperties.Dedup config;
+    private final LongLongHashMap lastPrices = new LongLongHashMap();
+    private Path file;
+    private FileChannel lastPriceFile;
+    // Entradas escritas en el archivo, incluidas las que ya tienen un precio más reciente
+    private long fileEntries;
+
+    public ProductDeduplicator(ScrapingProperties properties) {
+        this.config = properties.getDedup();
+        if (config.isEnabled() && config.isCrossRun()) {
+            open(Path.of(config.getFile()));
+        }
+    }
+
+    /**
+     * Elimina los productos repetidos de un mismo scraping, conservando el orden y la primera aparición.
+     * Los productos sin identificador se comparan por su enlace sin parámetros.
+     *
+     * @param products Los productos obtenidos en todas las páginas.
+     * @return Los productos sin repetidos; la misma lista si no había ninguno.
+     */
+    public List<Product> deduplicate(List<Product> products) {
+        if (!config.isEnabled() || products.size() < 2) {
+            return products;
+        }
+        LongHashSet seen = new LongHashSet(products.size());
+        List<Product> unique = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (seen.add(productKey(product))) {
+                unique.add(product);
+            }
+        }
+        if (unique.size() < products.size()) {
+            log.info("Se descartaron {} productos repetidos", products.size() - unique.size());
+            return unique;
+        }
+        return products;
+    }
+
+    /**
+     * Devuelve los productos que no se han visto en ejecuciones anteriores o cuyo precio es distinto del último
+     * registrado. No registra sus precios: hay que llamar a {@link #recordPrices(List)} cuando se hayan guardado
+     * en el historial, para que un fallo al guardarlos no los descarte en la siguiente ejecución.
+     *
+     * @param products Los productos de un scraping.
+     * @return Los productos nuevos o con precio distinto.
+     */
+    public synchronized List<Product> filterChanged(List<Product> products) {
+        if (!config.isEnabled() || !config.isCrossRun() || products.isEmpty()) {
+            return products;
+        }
+        if (lastPrices.size() + products.size() > config.getMaxItems()) {
+            reset();
+        }
+        List<Product> changed = new ArrayList<>();
+        LongHashSet seen = new LongHashSet(products.size());
+        for (Product product : products) {
+            long key = productKey(product);
+            if (seen.add(key)
+                    && (!lastPrices.containsKey(key) || lastPrices.get(key, 0) != priceHash(product))) {
+                changed.add(product);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Registra el precio actual de los productos devueltos por {@link #filterChanged(List)}, una vez guardados
+     * en el historial. Cuando el archivo acumula más del doble de entradas que productos distintos, se reescribe
+     * solo con el último precio de cada uno.
+     *
+     * @param products Los productos nuevos o con precio distinto.
+     * @throws ScrapingExecutionException Si no se pueden guardar los precios en disco.
+     */
+    public synchronized void recordPrices(List<Product> products) {
+        if (!config.isEnabled() || !config.isCrossRun() || products.isEmpty()) {
+            return;
+        }
+        ByteBuffer added = ByteBuffer.allocate(products.size() * ENTRY_BYTES);
+        for (Product product : products) {
+            long key = productKey(product);
+            long priceHash = priceHash(product);
+            lastPrices.put(key, priceHash);
+            added.putLong(key).putLong(priceHash);
+        }
+        added.flip();
+        try {
+            while (added.hasRemaining()) {
+                lastPriceFile.write(added);
+            }
+            fileEntries += products.size();
+            if (fileEntries > 2L * lastPrices.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new ScrapingExecutionException("No se pudieron guardar los precios de los productos", e);
+        }
+    }
+
+    /**
+     * Cierra el archivo de precios al detener la aplicación.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (lastPriceFile == null) {
+            return;
+        }
+        try {
+            lastPriceFile.close();
+        } catch (IOException e) {
+            log.warn("No se pudo cerrar el archivo de precios: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el archivo de precios y carga los existentes. Un par incompleto al final (escritura interrumpida) se ignora.
+     * Si el archivo tiene precios sustituidos por otros más recientes, se reescribe con los vigentes.
+     */
+    private void open(Path file) {
+        this.file = file;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            lastPriceFile = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long complete = lastPriceFile.size() - lastPriceFile.size() % ENTRY_BYTES;
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long position = 0;
+            while (position < complete) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), complete - position));
+                position += lastPriceFile.read(buffer, position);
+                buffer.flip();
+                while (buffer.remaining() >= ENTRY_BYTES) {
+                    lastPrices.put(buffer.getLong(), buffer.getLong());
+                }
+                position -= buffer.remaining();
+            }
+            lastPriceFile.truncate(complete);
+            lastPriceFile.position(complete);
+            fileEntries = complete / ENTRY_BYTES;
+            log.info("Precios de productos cargados: {}", lastPrices.size());
+            if (fileEntries > lastPrices.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new ScrapingExecutionException("No se pudo abrir el archivo de precios " + file, e);
+        }
+    }
+
+    /**
+     * Vacía los precios cuando superan el máximo configurado de productos. Las observaciones siguientes
+     * se vuelven a guardar una vez, como en la primera ejecución.
+     */
+    private void reset() {
+        log.info("Se alcanzó el máximo de productos ({}), se reinicia el registro de precios", config.getMaxItems());
+        lastPrices.clear();
+        try {
+            lastPriceFile.truncate(0);
+            lastPriceFile.position(0);
+            fileEntries = 0;
+        } catch (IOException e) {
+            throw new ScrapingExecutionException("No se pudo reiniciar el archivo de precios", e);
+        }
+    }
+
+    /**
+     * Reescribe el archivo con el último precio de cada producto. Se escribe en un archivo temporal que luego
+     * sustituye al actual, para que una interrupción no deje el registro a medias.
+     */
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            try {
+                lastPrices.forEach((key, priceHash) -> {
+                    if (buffer.remaining() < ENTRY_BYTES) {
+                        writeFully(out, buffer.flip());
+                        buffer.clear();
+                    }
+                    buffer.putLong(key).putLong(priceHash);
+                });
+                writeFully(out, buffer.flip());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.force(false);
+        }
+        lastPriceFile.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastPriceFile = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lastPriceFile.position(lastPriceFile.size());
+        log.info("Archivo de precios compactado de {} a {} entradas", fileEntries, lastPrices.size());
+        fileEntries = lastPrices.size();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Clave del producto: su identificador de eBay o, si no lo tiene, un hash del enlace sin parámetros.
+     */
+    static long productKey(Product product) {
+        long itemId = EbayItemIds.parse(product.getLink());
+        return itemId > 0 ? itemId : hash(PriceHistoryStore.indexKey(product.getLink()));
+    }
+
+    /**
+     * Hash del precio de una observación, tal como se muestra.
+     */
+    private static long priceHash(Product product) {
+        return LongHashSet.mix(hash(product.getPrice()));
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits, estable entre ejecuciones (a diferencia de {@link String#hashCode()}, tiene
+     * suficientes bits para que las colisiones sean despreciables).
+     */
+    static long hash(String text) {
+        long hash = FNV_OFFSET;
+        if (text == null) {
+            return hash;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,490 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.model.CompactProductList;
+import com.javabuilders.demowebscraping.model.ParsedPrice;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ProductQuery;
+import com.javabuilders.demowebscraping.model.ProductQueryResult;
+import com.javabuilders.demowebscraping.model.ProductSort;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de los productos obtenidos para consultarlos en el servidor, sin enviar a los clientes
+ * el resultado completo.
+ * <p>
+ * Cada producto distinto (por su identificador de eBay o su enlace, como en {@link ProductDeduplicator}) ocupa un
+ * documento con un número creciente. El índice invertido guarda, por cada palabra del nombre, la lista ordenada de
+ * documentos que la contienen, y el índice de precios agrupa los documentos por su precio mínimo en centavos.
+ * Ambos se actualizan con cada resultado: si un producto ya indexado conserva nombre y precio solo se actualizan
+ * sus datos; si cambió, su documento anterior se marca como eliminado y se añade uno nuevo. Cuando los eliminados
+ * superan a los vigentes, o se supera {@code maxProducts}, el índice se reconstruye solo con los productos vigentes
+ * (los vistos más recientemente, si sobran).
+ * </p>
+ * <p>
+ * La paginación usa cursores con la posición del último producto devuelto, de modo que los productos añadidos
+ * entre una página y la siguiente no desplazan los resultados. Una reconstrucción renumera los documentos e invalida
+ * los cursores emitidos antes.
+ * </p>
+ */
+@Service
+public class ProductIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final int INITIAL_CAPACITY = 1024;
+    // Eliminados que se toleran aunque superen a los vigentes, para no reconstruir índices pequeños
+    private static final int MIN_DELETED_FOR_REBUILD = 1024;
+
+    private final ScrapingProperties.Query config;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Datos de cada documento, por número de documento
+    private Product[] products = new Product[INITIAL_CAPACITY];
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private long[] lastSeen = new long[INITIAL_CAPACITY];
+    private final BitSet live = new BitSet();
+    private int documents;
+    private int liveDocuments;
+
+    private final Map<Long, Integer> documentByKey = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final TreeMap<Long, IntList> byPrice = new TreeMap<>();
+    private long updates;
+    // Cambia con cada reconstrucción; forma parte de los cursores
+    private int generation;
+
+    public ProductIndex(ScrapingProperties properties) {
+        this.config = properties.getQuery();
+    }
+
+    /**
+     * Añade al índice los productos de un resultado, o actualiza los que ya estaban.
+     *
+     * @param productList Los productos del resultado.
+     */
+    public void update(List<Product> productList) {
+        if (!config.isEnabled() || productList.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long sequence = ++updates;
+            for (int i = 0; i < productList.size(); i++) {
+                Product product = productList.get(i);
+                long key = ProductDeduplicator.productKey(product);
+                long price = priceOf(productList, i, product);
+
+                Integer existing = documentByKey.get(key);
+                if (existing != null) {
+                    int document = existing;
+                    if (cents[document] == price && Objects.equals(products[document].getName(), product.getName())) {
+                        products[document] = product;
+                        lastSeen[document] = sequence;
+                        continue;
+                    }
+                    delete(document);
+                }
+                add(product, key, price, sequence);
+            }
+            int deleted = documents - liveDocuments;
+            if (liveDocuments > config.getMaxProducts()
+                    || (deleted > liveDocuments && deleted > MIN_DELETED_FOR_REBUILD)) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los productos que cumplen los filtros de la consulta y devuelve una página en el orden pedido.
+     * Si se filtra u ordena por precio, se omiten los productos sin precio reconocible.
+     *
+     * @param query Las palabras clave, el rango de precios, el orden, el cursor y el tamaño de la página.
+     * @return Los productos de la página y el cursor de la siguiente.
+     * @throws InvalidParametersException Si el tamaño, el rango de precios o el cursor no son válidos.
+     */
+    public ProductQueryResult query(ProductQuery query) {
+        int limit = query.getLimit();
+        if (limit <= 0 || limit > config.getMaxLimit()) {
+            throw new InvalidParametersException("Tamaño de página inválido: " + limit
+                    + " (el máximo es " + config.getMaxLimit() + ")");
+        }
+        long minCents = query.getMinCents() == null ? 0 : query.getMinCents();
+        long maxCents = query.getMaxCents() == null ? Long.MAX_VALUE : query.getMaxCents();
+        if (minCents < 0 || minCents > maxCents) {
+            throw new InvalidParametersException("Rango de precios inválido");
+        }
+        ProductSort sort = query.getSort() == null ? ProductSort.NEWEST : query.getSort();
+        boolean priced = sort != ProductSort.NEWEST || query.getMinCents() != null || query.getMaxCents() != null;
+        List<String> tokens = tokens(query.getKeywords());
+
+        lock.readLock().lock();
+        try {
+            Position after = query.getCursor() == null ? null : decodeCursor(query.getCursor());
+            Selection selection = new Selection(sort, after, priced, minCents, maxCents, limit);
+            if (!tokens.isEmpty()) {
+                selectMatching(tokens, selection);
+            } else if (sort == ProductSort.NEWEST) {
+                selectNewest(selection);
+            } else {
+                selectByPrice(selection);
+            }
+            return selection.toResult();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de productos vigentes en el índice.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Consulta con palabras clave: cruza las listas de documentos de cada palabra, empezando por la más corta.
+     */
+    private void selectMatching(List<String> tokens, Selection selection) {
+        List<IntList> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            IntList list = postings.get(token);
+            if (list == null) {
+                return;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntList::size));
+
+        IntList shortest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        List<Integer> matches = new ArrayList<>();
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int document = shortest.get(i);
+            if (!selection.accepts(document)) {
+                continue;
+            }
+            for (int l = 1; l < lists.size(); l++) {
+                cursors[l] = lists.get(l).advanceTo(cursors[l], document);
+                if (cursors[l] == lists.get(l).size()) {
+                    break candidates;
+                }
+                if (lists.get(l).get(cursors[l]) != document) {
+                    continue candidates;
+                }
+            }
+            matches.add(document);
+        }
+
+        Comparator<Integer> order = switch (selection.sort) {
+            case NEWEST -> Comparator.<Integer>reverseOrder();
+            case PRICE_ASC -> Comparator.<Integer>comparingLong(document -> cents[document])
+                    .thenComparing(Comparator.naturalOrder());
+            case PRICE_DESC -> Comparator.<Integer>comparingLong(document -> cents[document])
+                    .thenComparing(Comparator.naturalOrder()).reversed();
+        };
+        matches.sort(order);
+        for (int document : matches) {
+            if (!selection.offer(document)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Consulta sin palabras clave ordenada por antigüedad: recorre los documentos desde el más reciente.
+     */
+    private void selectNewest(Selection selection) {
+        int start = selection.after == null ? documents - 1 : (int) Math.min(selection.after.document - 1L, documents - 1L);
+        for (int document = start; document >= 0; document--) {
+            if (selection.accepts(document) && !selection.offer(document)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Consulta sin palabras clave ordenada por precio: recorre el índice de precios dentro del rango pedido.
+     */
+    private void selectByPrice(Selection selection) {
+        long from = selection.minCents;
+        long to = selection.maxCents;
+        boolean ascending = selection.sort == ProductSort.PRICE_ASC;
+        if (selection.after != null) {
+            if (ascending) {
+                from = Math.max(from, selection.after.cents);
+            } else {
+                to = Math.min(to, selection.after.cents);
+            }
+        }
+        if (from > to) {
+            return;
+        }
+        NavigableMap<Long, IntList> range = byPrice.subMap(from, true, to, true);
+        for (IntList bucket : (ascending ? range : range.descendingMap()).values()) {
+            for (int i = 0; i < bucket.size(); i++) {
+                int document = bucket.get(ascending ? i : bucket.size() - 1 - i);
+                if (selection.accepts(document) && !selection.offer(document)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void add(Product product, long key, long price, long sequence) {
+        if (documents == products.length) {
+            int capacity = documents + (documents >> 1);
+            products = Arrays.copyOf(products, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+        }
+        int document = documents++;
+        products[document] = product;
+        keys[document] = key;
+        cents[document] = price;
+        lastSeen[document] = sequence;
+        live.set(document);
+        liveDocuments++;
+        documentByKey.put(key, document);
+
+        for (String token : tokens(product.getName())) {
+            postings.computeIfAbsent(token, t -> new IntList()).add(document);
+        }
+        if (price != CompactProductList.NO_PRICE) {
+            byPrice.computeIfAbsent(price, p -> new IntList()).add(document);
+        }
+    }
+
+    private void delete(int document) {
+        live.clear(document);
+        liveDocuments--;
+        products[document] = null;
+    }
+
+    /**
+     * Vuelve a crear el índice solo con los documentos vigentes, conservando su orden. Si se supera
+     * {@code maxProducts}, se descartan los productos vistos hace más tiempo.
+     */
+    private void rebuild() {
+        Integer[] retained = live.stream().boxed().toArray(Integer[]::new);
+        if (retained.length > config.getMaxProducts()) {
+            Arrays.sort(retained, Comparator.<Integer>comparingLong(document -> lastSeen[document]).reversed());
+            retained = Arrays.copyOf(retained, config.getMaxProducts());
+            Arrays.sort(retained);
+        }
+
+        Product[] oldProducts = products;
+        long[] oldKeys = keys;
+        long[] oldCents = cents;
+        long[] oldLastSeen = lastSeen;
+        int capacity = Math.max(INITIAL_CAPACITY, retained.length + (retained.length >> 1));
+        products = new Product[capacity];
+        keys = new long[capacity];
+        cents = new long[capacity];
+        lastSeen = new long[capacity];
+        live.clear();
+        documents = 0;
+        liveDocuments = 0;
+        documentByKey.clear();
+        postings.clear();
+        byPrice.clear();
+        generation++;
+
+        for (int document : retained) {
+            add(oldProducts[document], oldKeys[document], oldCents[document], oldLastSeen[document]);
+        }
+    }
+
+    private static long priceOf(List<Product> productList, int index, Product product) {
+        if (productList instanceof CompactProductList compact) {
+            return compact.getMinCents(index);
+        }
+        return PriceParser.parse(product.getPrice()).map(ParsedPrice::getMinCents).orElse(CompactProductList.NO_PRICE);
+    }
+
+    /**
+     * Divide un texto en palabras en minúsculas y sin acentos.
+     */
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD))
+                .replaceAll("");
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    private String encodeCursor(int document) {
+        String position = generation + ":" + cents[document] + ":" + document;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Position decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length == 3 && Integer.parseInt(parts[0]) == generation) {
+                return new Position(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Cursor mal formado: se informa igual que uno caducado
+        }
+        throw new InvalidParametersException("El cursor no es válido o el índice cambió; repita la consulta desde el principio");
+    }
+
+    /**
+     * Posición de un documento en el orden de la consulta: su precio y su número.
+     */
+    private static final class Position {
+        private final long cents;
+        private final int document;
+
+        private Position(long cents, int document) {
+            this.cents = cents;
+            this.document = document;
+        }
+    }
+
+    /**
+     * Filtros de una consulta y página de documentos que se va llenando en orden.
+     */
+    private final class Selection {
+        private final ProductSort sort;
+        private final Position after;
+        private final boolean priced;
+        private final long minCents;
+        private final long maxCents;
+        private final int limit;
+        private final List<Integer> page = new ArrayList<>();
+        private boolean more;
+
+        private Selection(ProductSort sort, Position after, boolean priced, long minCents, long maxCents, int limit) {
+            this.sort = sort;
+            this.after = after;
+            this.priced = priced;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+            this.limit = limit;
+        }
+
+        /**
+         * @return {@code true} si el documento está vigente, cumple el rango de precios y va después del cursor.
+         */
+        boolean accepts(int document) {
+            if (!live.get(document)) {
+                return false;
+            }
+            long price = cents[document];
+            if (priced && (price == CompactProductList.NO_PRICE || price < minCents || price > maxCents)) {
+                return false;
+            }
+            if (after == null) {
+                return true;
+            }
+            return switch (sort) {
+                case NEWEST -> document < after.document;
+                case PRICE_ASC -> price > after.cents || (price == after.cents && document > after.document);
+                case PRICE_DESC -> price < after.cents || (price == after.cents && document < after.document);
+            };
+        }
+
+        /**
+         * Añade un documento a la página.
+         *
+         * @return {@code false} si la página ya estaba completa, es decir, si hay más resultados.
+         */
+        boolean offer(int document) {
+            if (page.size() == limit) {
+                more = true;
+                return false;
+            }
+            page.add(document);
+            return true;
+        }
+
+        ProductQueryResult toResult() {
+            List<Product> result = new ArrayList<>(page.size());
+            for (int document : page) {
+                result.add(products[document]);
+            }
+            String nextCursor = more ? encodeCursor(page.get(page.size() - 1)) : null;
+            return new ProductQueryResult(result, nextCursor);
+        }
+    }
+
+    /**
+     * Lista creciente de enteros sin objetos intermedios, para las listas de documentos del índice.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Avanza desde {@code from} hasta el primer valor mayor o igual que {@code target}, con búsqueda binaria.
+         *
+         * @return La posición encontrada, o {@link #size()} si todos los valores son menores.
+         */
+        int advanceTo(int from, int target) {
+            int low = from;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
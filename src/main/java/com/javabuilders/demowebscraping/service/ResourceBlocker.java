@@ -0,0 +1,238 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Componente que bloquea en el navegador los recursos que no hacen falta para extraer productos
+ * (hojas de estilo, fuentes, multimedia, anuncios, rastreadores...) mediante el comando CDP {@code Network.setBlockedURLs}.
+ * <p>
+ * El perfil de bloqueo se elige según el host de la URL y se aplica al empezar a usar cada sesión, antes de navegar.
+ * Para estimar el ahorro, cada {@code scraping.blocking.baseline-every} páginas de un mismo host se carga una sin bloqueo,
+ * y se compara lo que descargan y tardan las páginas con y sin bloqueo según la API Performance del navegador.
+ * Los recursos de otros orígenes sin {@code Timing-Allow-Origin} no informan su tamaño, por lo que los bytes son aproximados.
+ * </p>
+ */
+@Component
+public class ResourceBlocker {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceBlocker.class);
+
+    private static final String DEFAULT_PROFILE = "default";
+
+    // Amplía el búfer de Resource Timing (250 entradas por defecto) para que cuente todos los recursos de la página
+    private static final String TIMING_BUFFER_SCRIPT = "performance.setResourceTimingBufferSize(2000);";
+
+    private static final String PAGE_COST_SCRIPT = """
+            const nav = performance.getEntriesByType('navigation')[0];
+            let bytes = nav ? nav.transferSize : 0;
+            for (const r of performance.getEntriesByType('resource')) {
+              bytes += r.transferSize || 0;
+            }
+            return [bytes, nav ? Math.round(nav.domContentLoadedEventEnd) : -1];
+            """;
+
+    private final ScrapingProperties.Blocking config;
+    private final Map<String, List<String>> patternsByProfile = new ConcurrentHashMap<>();
+    private final Map<WebDriver, SessionState> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, HostStats> statsByHost = new ConcurrentHashMap<>();
+
+    public ResourceBlocker(ScrapingProperties properties) {
+        this.config = properties.getBlocking();
+    }
+
+    /**
+     * Aplica a la sesión el perfil de bloqueo del sitio al que se va a navegar.
+     * No tiene efecto si el bloqueo está deshabilitado o el navegador no admite CDP.
+     *
+     * @param driver La sesión de navegador.
+     * @param url    La URL a la que se va a navegar.
+     */
+    public void apply(WebDriver driver, String url) {
+        if (!config.isEnabled() || !(driver instanceof HasCdp cdp)) {
+            return;
+        }
+        String host = hostOf(url);
+        String profile = profileFor(host);
+        List<String> patterns = patternsByProfile.computeIfAbsent(profile, this::patternsOf);
+        boolean baseline = !patterns.isEmpty() && statsByHost.computeIfAbsent(host, key -> new HostStats())
+                .nextPageIsBaseline(config.getBaselineEvery());
+
+        SessionState state = sessions.computeIfAbsent(driver, key -> new SessionState());
+        try {
+            if (!state.initialized) {
+                cdp.executeCdpCommand("Network.enable", Map.of());
+                cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", TIMING_BUFFER_SCRIPT));
+                state.initialized = true;
+            }
+            if (!profile.equals(state.profile) || baseline != state.baseline) {
+                cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", baseline ? List.of() : patterns));
+                state.profile = profile;
+                state.baseline = baseline;
+            }
+            state.host = host;
+        } catch (WebDriverException e) {
+            log.warn("No se pudo aplicar el bloqueo de recursos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica el perfil de bloqueo a una pestaña recién abierta de la sesión. Los comandos CDP afectan a la pestaña
+     * actual, por lo que la configuración aplicada a otras pestañas no le sirve.
+     *
+     * @param driver La sesión de navegador, con la nueva pestaña como actual.
+     * @param url    La URL a la que se va a navegar en la pestaña.
+     */
+    public void applyToNewTab(WebDriver driver, String url) {
+        sessions.remove(driver);
+        apply(driver, url);
+    }
+
+    /**
+     * Mide lo que descargó y tardó la página actual y lo añade a las estadísticas de su host.
+     * Debe llamarse después de extraer los productos de cada página.
+     *
+     * @param driver La sesión de navegador, con la página ya cargada.
+     */
+    public void recordPage(WebDriver driver) {
+        SessionState state = sessions.get(driver);
+        if (state == null || state.host == null || !(driver instanceof JavascriptExecutor js)) {
+            return;
+        }
+        try {
+            if (!(js.executeScript(PAGE_COST_SCRIPT) instanceof List<?> cost) || cost.size() < 2) {
+                return;
+            }
+            long bytes = ((Number) cost.get(0)).longValue();
+            long millis = ((Number) cost.get(1)).longValue();
+            HostStats stats = statsByHost.computeIfAbsent(state.host, key -> new HostStats());
+            stats.record(state.baseline, bytes, millis);
+            if (state.baseline) {
+                log.info("Página de referencia sin bloqueo en {}: {} KB, {} ms", state.host, bytes / 1024, millis);
+            } else {
+                log.info("Página con recursos bloqueados en {}: {} KB, {} ms (ahorro estimado: {} KB, {} ms)",
+                        state.host, bytes / 1024, millis, stats.savedBytes() / 1024, stats.savedMillis());
+            }
+        } catch (WebDriverException | ClassCastException e) {
+            log.debug("No se pudo medir la página: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Las estadísticas de carga de páginas por host.
+     */
+    public Map<String, HostStats> getStats() {
+        return Map.copyOf(statsByHost);
+    }
+
+    private String profileFor(String host) {
+        for (Map.Entry<String, ScrapingProperties.BlockingProfile> entry : config.getProfiles().entrySet()) {
+            for (String profileHost : entry.getValue().getHosts()) {
+                if (host.equals(profileHost) || host.endsWith("." + profileHost)) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return DEFAULT_PROFILE;
+    }
+
+    private List<String> patternsOf(String profileName) {
+        ScrapingProperties.BlockingProfile profile = config.getProfiles().get(profileName);
+        if (profile == null) {
+            return List.of();
+        }
+        Set<String> patterns = new LinkedHashSet<>(profile.getUrlPatterns());
+        for (ScrapingProperties.ResourceType type : profile.getResourceTypes()) {
+            patterns.addAll(type.getUrlPatterns());
+        }
+        return List.copyOf(patterns);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host;
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Estado del bloqueo aplicado a una sesión de navegador.
+     */
+    private static final class SessionState {
+        private boolean initialized;
+        private String profile;
+        private boolean baseline;
+        private String host;
+    }
+
+    /**
+     * Promedios de bytes descargados y tiempo hasta {@code DOMContentLoaded} de las páginas de un host,
+     * con bloqueo y sin él (páginas de referencia).
+     */
+    public static final class HostStats {
+        private long pagesSeen;
+        private long blockedPages;
+        private long blockedBytes;
+        private long blockedMillis;
+        private long baselinePages;
+        private long baselineBytes;
+        private long baselineMillis;
+
+        private synchronized boolean nextPageIsBaseline(int baselineEvery) {
+            return baselineEvery > 0 && pagesSeen++ % baselineEvery == 0;
+        }
+
+        private synchronized void record(boolean baseline, long bytes, long millis) {
+            if (baseline) {
+                baselinePages++;
+                baselineBytes += bytes;
+                baselineMillis += millis;
+            } else {
+                blockedPages++;
+                blockedBytes += bytes;
+                blockedMillis += millis;
+            }
+        }
+
+        /**
+         * @return Bytes ahorrados por página: promedio sin bloqueo menos promedio con bloqueo (0 sin datos suficientes).
+         */
+        public synchronized long savedBytes() {
+            return blockedPages == 0 || baselinePages == 0 ? 0
+                    : baselineBytes / baselinePages - blockedBytes / blockedPages;
+        }
+
+        /**
+         * @return Milisegundos ahorrados por página hasta {@code DOMContentLoaded} (0 sin datos suficientes).
+         */
+        public synchronized long savedMillis() {
+            return blockedPages == 0 || baselinePages == 0 ? 0
+                    : baselineMillis / baselinePages - blockedMillis / blockedPages;
+        }
+
+        public synchronized long getBlockedPages() {
+            return blockedPages;
+        }
+
+        public synchronized long getBaselinePages() {
+            return baselinePages;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Componente que limita cuántos recursos costosos se usan a la vez.
+ * <p>
+ * El scraping se ejecuta en hilos virtuales, por lo que el número de hilos ya no limita la concurrencia:
+ * miles de tareas pueden estar esperando sin coste apreciable. Lo que sí está limitado son los recursos reales,
+ * como las sesiones de navegador o las descargas HTTP, y cada tarea debe obtener un permiso antes de usarlos.
+ * </p>
+ */
+@Component
+public class ResourcePermits {
+
+    /**
+     * Tipos de recurso limitados por permisos.
+     */
+    public enum Resource {
+        BROWSER,
+        HTTP
+    }
+
+    private final Map<Resource, Semaphore> semaphores = new EnumMap<>(Resource.class);
+    private final Map<Resource, Integer> capacities = new EnumMap<>(Resource.class);
+
+    public ResourcePermits(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        ScrapingProperties.Permits config = properties.getPermits();
+        capacities.put(Resource.BROWSER, config.getBrowser());
+        capacities.put(Resource.HTTP, config.getHttp());
+        capacities.forEach((resource, permits) -> semaphores.put(resource, new Semaphore(permits, true)));
+        for (Resource resource : Resource.values()) {
+            String tag = resource.name().toLowerCase();
+            scrapingMetrics.gauge("scraping.permits.in.use", "Permisos de recurso en uso",
+                    this, permits -> permits.inUse(resource), "resource", tag);
+            scrapingMetrics.gauge("scraping.permits.waiting", "Tareas esperando un permiso de recurso",
+                    this, permits -> permits.waiting(resource), "resource", tag);
+        }
+    }
+
+    /**
+     * Espera hasta obtener un permiso para el recurso indicado.
+     * El permiso se devuelve al cerrar el {@link Permit}, normalmente con try-with-resources.
+     *
+     * @param resource El tipo de recurso a utilizar.
+     * @return El permiso obtenido.
+     * @throws ScrapingExecutionException Si el hilo se interrumpe mientras espera.
+     */
+    public Permit acquire(Resource resource) {
+        Semaphore semaphore = semaphores.get(resource);
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingExecutionException("Interrumpido mientras se esperaba un permiso de " + resource, e);
+        }
+        return new Permit(semaphore);
+    }
+
+    /**
+     * @param resource El tipo de recurso.
+     * @return El número de permisos en uso.
+     */
+    public int inUse(Resource resource) {
+        return capacities.get(resource) - semaphores.get(resource).availablePermits();
+    }
+
+    /**
+     * @param resource El tipo de recurso.
+     * @return El número aproximado de tareas esperando un permiso.
+     */
+    public int waiting(Resource resource) {
+        return semaphores.get(resource).getQueueLength();
+    }
+
+    /**
+     * Permiso obtenido para un recurso. Cerrarlo más de una vez no tiene efecto.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final Semaphore semaphore;
+        private boolean released;
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                semaphore.release();
+            }
+        }
+    }
+}
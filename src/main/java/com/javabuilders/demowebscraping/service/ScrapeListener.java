@@ -0,0 +1,49 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.Product;
+
+import java.util.List;
+
+/**
+ * Recibe los productos de cada página en cuanto se extraen, sin esperar a que termine el scraping completo.
+ * Las páginas se notifican en orden y solo las que forman parte del resultado.
+ * También puede recibir la duración de cada fase del scraping ({@link #onPhase(String, long)}) y el fallo
+ * con el que terminó ({@link #onFailure(FailureType)}).
+ */
+@FunctionalInterface
+public interface ScrapeListener {
+
+    /**
+     * Listener que no hace nada, utilizado cuando nadie espera los resultados parciales.
+     */
+    ScrapeListener NONE = (pageNumber, products) -> {
+    };
+
+    /**
+     * Se invoca cada vez que una página termina de procesarse.
+     *
+     * @param pageNumber El número de la página, empezando por 1.
+     * @param products   Los productos de la página que se añaden al resultado.
+     */
+    void onPage(int pageNumber, List<Product> products);
+
+    /**
+     * Se invoca al terminar cada fase del scraping: {@code http} (intento de descarga sin navegador),
+     * {@code browser} (scraping con navegador) y {@code result} (eliminación de repetidos y almacenamiento).
+     *
+     * @param phase         El nombre de la fase.
+     * @param elapsedMillis Lo que duró la fase, en milisegundos.
+     */
+    default void onPhase(String phase, long elapsedMillis) {
+    }
+
+    /**
+     * Se invoca una vez si el scraping termina sin productos por un fallo, aunque se devuelva un resultado vacío
+     * en lugar de lanzar el error. Una búsqueda sin resultados no es un fallo y no se notifica.
+     *
+     * @param failure El tipo de fallo.
+     */
+    default void onFailure(FailureType failure) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reintenta las acciones de scraping que fallan por causas transitorias ({@link FailureType#isTransient()}).
+ * <p>
+ * Entre intentos se espera un tiempo que se duplica en cada uno, hasta {@code maxBackoff}: la mitad fija y la
+ * otra mitad al azar, para que las tareas que fallaron a la vez no vuelvan a coincidir. Los fallos que no son
+ * transitorios, o los que llegan con el circuito del host ya abierto, se lanzan sin reintentar.
+ * </p>
+ */
+@Component
+public class ScrapeRetryPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapeRetryPolicy.class);
+
+    private final ScrapingProperties.Resilience config;
+    private final HostCircuitBreaker hostCircuitBreaker;
+
+    public ScrapeRetryPolicy(ScrapingProperties properties, HostCircuitBreaker hostCircuitBreaker) {
+        this.config = properties.getResilience();
+        this.hostCircuitBreaker = hostCircuitBreaker;
+    }
+
+    /**
+     * Ejecuta una acción, reintentándola ante fallos transitorios.
+     *
+     * @param url    La URL que procesa la acción, para los registros y para consultar el circuito de su host.
+     * @param action La acción a ejecutar.
+     * @return El resultado de la acción.
+     * @throws RuntimeException El error del último intento, si ninguno tuvo éxito.
+     */
+    public <T> T execute(String url, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                FailureType failure = FailureClassifier.classify(e);
+                if (!failure.isTransient() || attempt >= config.getMaxAttempts() || hostCircuitBreaker.isOpen(url)) {
+                    throw e;
+                }
+                long backoffMillis = backoffMillis(attempt);
+                log.warn("Fallo transitorio ({}) en {}, intento {} de {}; se reintenta en {} ms: {}",
+                        failure, url, attempt, config.getMaxAttempts(), backoffMillis, e.getMessage());
+                sleep(url, backoffMillis);
+            }
+        }
+    }
+
+    /**
+     * @param attempt El número del intento que acaba de fallar, empezando por 1.
+     * @return La espera antes del siguiente intento, en milisegundos.
+     */
+    long backoffMillis(int attempt) {
+        long initial = config.getInitialBackoff().toMillis();
+        long max = config.getMaxBackoff().toMillis();
+        long ceiling = Math.min(max, initial << Math.min(attempt - 1, 30));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    private static void sleep(String url, long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapingExecutionException("Interrumpido mientras se esperaba para reintentar " + url, e);
+        }
+    }
+}
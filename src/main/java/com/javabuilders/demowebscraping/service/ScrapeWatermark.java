@@ -0,0 +1,200 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.Product;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marca de agua de una tarea programada en modo incremental: lo que la tarea ya vio en ejecuciones anteriores.
+ * <p>
+ * Guarda los identificadores de los productos ya vistos y un hash del contenido de cada página. Con ella,
+ * una ejecución solo devuelve productos nuevos, deja de recorrer páginas en cuanto una página solo contiene
+ * productos conocidos y no extrae los productos de una página cuyo contenido no cambió.
+ * Pensado para búsquedas ordenadas por "recién publicados", donde lo nuevo aparece siempre en las primeras páginas.
+ * </p>
+ * <p>
+ * Durante una ejecución las páginas solo se comparan con lo confirmado en ejecuciones anteriores; lo que se ve
+ * queda pendiente hasta {@link #commitRun(List)}, que recibe los productos que la ejecución devolvió finalmente.
+ * Así, una página descartada al combinar los resultados, un reintento o el paso del HTTP al navegador no hacen
+ * que se den por vistos productos que nunca se devolvieron.
+ * </p>
+ * <p>
+ * {@link #none()} devuelve una marca inactiva que no filtra nada, utilizada en los scrapings completos.
+ * </p>
+ */
+public final class ScrapeWatermark {
+
+    private static final ScrapeWatermark NONE = new ScrapeWatermark(false, 0);
+
+    private final boolean active;
+    private final int maxKnownItems;
+    private final LongHashSet knownItems = new LongHashSet();
+    private final Map<String, Long> pageHashes = new HashMap<>();
+    // Estado de la ejecución en curso: las páginas cuyo hash aún no se confirmó y todos los productos vistos
+    private final Map<String, PendingPage> pendingPages = new HashMap<>();
+    private final List<Product> observedProducts = new ArrayList<>();
+    private volatile boolean caughtUp;
+
+    private ScrapeWatermark(boolean active, int maxKnownItems) {
+        this.active = active;
+        this.maxKnownItems = maxKnownItems;
+    }
+
+    /**
+     * @return Una marca inactiva: todas las páginas se procesan y todos los productos se conservan.
+     */
+    public static ScrapeWatermark none() {
+        return NONE;
+    }
+
+    /**
+     * @param maxKnownItems Productos recordados como máximo; al superarlo se olvidan y la siguiente
+     *                      ejecución vuelve a ser completa.
+     * @return Una marca nueva, sin nada visto todavía.
+     */
+    public static ScrapeWatermark create(int maxKnownItems) {
+        return new ScrapeWatermark(true, maxKnownItems);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Indica el inicio de una nueva ejecución de la tarea y descarta lo pendiente de una ejecución que falló.
+     */
+    public synchronized void beginRun() {
+        caughtUp = false;
+        pendingPages.clear();
+        observedProducts.clear();
+    }
+
+    /**
+     * @return {@code true} si en la ejecución actual se llegó a contenido ya visto. En ese caso, que no haya
+     *         productos nuevos indica que no hay novedades y no un fallo de la descarga.
+     */
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    /**
+     * Compara el contenido de una página con el de las ejecuciones anteriores. Si cambió, el nuevo hash queda
+     * pendiente hasta que se confirmen sus productos.
+     *
+     * @param pageUrl La URL de la página.
+     * @param content El contenido relevante de la página (por ejemplo, el texto de sus productos).
+     * @return {@code true} si la página no cambió desde la ejecución anterior.
+     */
+    public synchronized boolean isPageUnchanged(String pageUrl, String content) {
+        if (!active) {
+            return false;
+        }
+        long hash = ProductDeduplicator.hash(content);
+        Long previous = pageHashes.get(pageUrl);
+        if (previous != null && previous == hash) {
+            caughtUp = true;
+            return true;
+        }
+        pendingPages.put(pageUrl, new PendingPage(hash));
+        return false;
+    }
+
+    /**
+     * Devuelve los productos que no se vieron en ejecuciones anteriores, sin marcarlos todavía como vistos.
+     * Una lista vacía indica que la página solo contenía productos conocidos, por lo que la paginación se detiene.
+     *
+     * @param products Los productos de una página.
+     * @return Los productos nuevos, en el mismo orden.
+     */
+    public List<Product> retainUnseen(List<Product> products) {
+        return retainUnseen(null, products);
+    }
+
+    /**
+     * Como {@link #retainUnseen(List)}, pero asocia los productos a la página cuyo hash se comparó con
+     * {@link #isPageUnchanged(String, String)}; el hash solo se confirma si se confirman todos sus productos.
+     *
+     * @param pageUrl  La URL de la página, o {@code null} si no se comparó su contenido.
+     * @param products Los productos de la página.
+     * @return Los productos nuevos, en el mismo orden.
+     */
+    public synchronized List<Product> retainUnseen(String pageUrl, List<Product> products) {
+        if (!active || products.isEmpty()) {
+            return products;
+        }
+        observedProducts.addAll(products);
+        long[] keys = new long[products.size()];
+        List<Product> unseen = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            keys[i] = ProductDeduplicator.productKey(products.get(i));
+            if (!knownItems.contains(keys[i])) {
+                unseen.add(products.get(i));
+            }
+        }
+        PendingPage page = pageUrl == null ? null : pendingPages.get(pageUrl);
+        if (page != null) {
+            page.keys = keys;
+        }
+        if (unseen.isEmpty()) {
+            caughtUp = true;
+        }
+        return unseen;
+    }
+
+    /**
+     * @return Todos los productos vistos en la ejecución actual, nuevos o no, antes de filtrarlos.
+     */
+    public synchronized List<Product> observedProducts() {
+        return List.copyOf(observedProducts);
+    }
+
+    /**
+     * Termina la ejecución: marca como vistos los productos que devolvió y confirma el hash de las páginas
+     * cuyos productos quedaron todos vistos.
+     *
+     * @param products Los productos nuevos que devolvió la ejecución, ya combinados.
+     */
+    public synchronized void commitRun(List<Product> products) {
+        if (!active) {
+            return;
+        }
+        if (knownItems.size() + products.size() > maxKnownItems) {
+            knownItems.clear();
+            pageHashes.clear();
+        }
+        for (Product product : products) {
+            knownItems.add(ProductDeduplicator.productKey(product));
+        }
+        pendingPages.forEach((pageUrl, page) -> {
+            if (page.keys != null && allKnown(page.keys)) {
+                pageHashes.put(pageUrl, page.hash);
+            }
+        });
+        pendingPages.clear();
+        observedProducts.clear();
+    }
+
+    private boolean allKnown(long[] keys) {
+        for (long key : keys) {
+            if (!knownItems.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash de una página que cambió en la ejecución actual y las claves de sus productos, si se extrajeron.
+     */
+    private static final class PendingPage {
+        private final long hash;
+        private long[] keys;
+
+        private PendingPage(long hash) {
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ScrapingOverloadedException;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión de las solicitudes de scraping, delante de {@link ScrapingService}.
+ * <p>
+ * Como mucho se admiten {@code maxInFlight} scrapings a la vez, entre los que se están ejecutando y los que esperan
+ * un permiso de navegador o de descarga; los que llegan por encima se rechazan de inmediato con
+ * {@link ScrapingOverloadedException} (503 con {@code Retry-After}) en lugar de acumular hilos y memoria.
+ * </p>
+ * <p>
+ * Las solicitudes idénticas que llegan mientras otra está en curso (misma URL normalizada y mismo número de páginas)
+ * no se vuelven a ejecutar: esperan a la primera y reciben su resultado. Solo se agrupan las solicitudes sin
+ * {@link ScrapeListener}, ya que las que notifican página a página necesitan su propia ejecución.
+ * </p>
+ */
+@Component
+public class ScrapingAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapingAdmission.class);
+
+    // Peso de la última duración en la media móvil con la que se estima el Retry-After
+    private static final double DURATION_WEIGHT = 0.2;
+
+    private final ScrapingProperties.Admission config;
+    private final Semaphore slots;
+    private final Map<String, CompletableFuture<ScrapingResult>> inFlight = new ConcurrentHashMap<>();
+    private volatile double averageMillis;
+
+    public ScrapingAdmission(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        this.config = properties.getAdmission();
+        this.slots = new Semaphore(config.getMaxInFlight());
+        this.averageMillis = config.getRetryAfter().toMillis();
+        scrapingMetrics.gauge("scraping.admission.in.flight", "Solicitudes de scraping admitidas en curso o esperando",
+                slots, s -> config.getMaxInFlight() - s.availablePermits());
+        scrapingMetrics.gauge("scraping.admission.coalesced", "Solicitudes distintas en curso que se están agrupando",
+                inFlight, Map::size);
+    }
+
+    /**
+     * Ejecuta un scraping si hay capacidad, o se une a una ejecución idéntica que ya esté en curso.
+     *
+     * @param parameters Los parámetros del scraping.
+     * @param listener   Recibe los productos de cada página; con {@link ScrapeListener#NONE} la solicitud se puede agrupar.
+     * @param scraping   El scraping a ejecutar.
+     * @return El resultado del scraping; cada solicitud recibe su propia copia.
+     * @throws ScrapingOverloadedException Si no quedan plazas para nuevas solicitudes.
+     */
+    public ScrapingResult execute(ScrapingParameters parameters, ScrapeListener listener,
+                                  Supplier<ScrapingResult> scraping) {
+        if (!config.isEnabled()) {
+            return scraping.get();
+        }
+        if (!config.isCoalesce() || listener != ScrapeListener.NONE) {
+            return admit(scraping);
+        }
+
+        String key = keyOf(parameters);
+        CompletableFuture<ScrapingResult> leader = new CompletableFuture<>();
+        CompletableFuture<ScrapingResult> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            log.info("Se agrupa la solicitud de {} con la que ya está en curso", parameters.getUrl());
+            return copyOf(join(existing));
+        }
+        try {
+            ScrapingResult result = admit(scraping);
+            leader.complete(result);
+            return copyOf(result);
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private ScrapingResult admit(Supplier<ScrapingResult> scraping) {
+        if (!slots.tryAcquire()) {
+            int admitted = config.getMaxInFlight() - slots.availablePermits();
+            log.warn("Se rechaza una solicitud de scraping: {} admitidas", admitted);
+            throw new ScrapingOverloadedException(admitted, retryAfter());
+        }
+        long start = System.nanoTime();
+        try {
+            return scraping.get();
+        } finally {
+            slots.release();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            averageMillis += DURATION_WEIGHT * (elapsedMillis - averageMillis);
+        }
+    }
+
+    /**
+     * Estima cuándo habrá plaza: la duración media de un scraping, dentro de los límites configurados.
+     */
+    private Duration retryAfter() {
+        long millis = Math.max(config.getRetryAfter().toMillis(), (long) averageMillis);
+        return Duration.ofMillis(Math.min(millis, config.getMaxRetryAfter().toMillis()));
+    }
+
+    private static ScrapingResult join(CompletableFuture<ScrapingResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cada solicitud recibe su propio resultado, porque después se le puede asignar el identificador de su tarea.
+     */
+    private static ScrapingResult copyOf(ScrapingResult result) {
+        return new ScrapingResult(result.getProducts(), result.getJobId());
+    }
+
+    /**
+     * Clave de agrupación: la URL normalizada y el número de páginas.
+     */
+    static String keyOf(ScrapingParameters parameters) {
+        return normalize(String.valueOf(parameters.getUrl()).trim()) + "#" + parameters.getPages();
+    }
+
+    /**
+     * Normaliza una URL para que las equivalentes coincidan: esquema y host en minúsculas, sin puerto por defecto,
+     * sin fragmento y con los parámetros de la consulta ordenados.
+     *
+     * @param url La URL a normalizar.
+     * @return La URL normalizada, o la original si no es válida.
+     */
+    static String normalize(String url) {
+        try {
+            URI uri = new URI(url);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return url;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            StringBuilder normalized = new StringBuilder(scheme).append("://")
+                    .append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (port != -1) {
+                normalized.append(':').append(port);
+            }
+            normalized.append(path);
+            String query = uri.getRawQuery();
+            if (query != null && !query.isEmpty()) {
+                String[] params = query.split("&");
+                Arrays.sort(params);
+                normalized.append('?').append(String.join("&", params));
+            }
+            return normalized.toString();
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+}
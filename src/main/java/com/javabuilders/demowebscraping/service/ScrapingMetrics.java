@@ -0,0 +1,214 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.FailureType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Componente que registra en Micrometer la duración de cada fase del scraping y el resultado de cada ejecución.
+ * Las métricas se publican a través de Spring Boot Actuator ({@code /actuator/metrics} y {@code /actuator/prometheus}).
+ * <p>
+ * Métricas:
+ * </p>
+ * <ul>
+ *   <li>{@code scraping.phase}: temporizador por fase ({@code phase}) y motor ({@code engine}: browser o http).</li>
+ *   <li>{@code scraping.runs}: contador de ejecuciones por extractor, host y resultado
+ *       ({@code success}, {@code empty} o {@code failure}).</li>
+ *   <li>{@code scraping.failures}: contador de ejecuciones fallidas por host y tipo de fallo.</li>
+ *   <li>{@code scraping.cache}: contador de consultas a la caché de resultados ({@code hit}, {@code stale} o {@code miss}).</li>
+ * </ul>
+ * Los indicadores de sesiones de navegador, permisos y tareas pendientes los registra cada componente
+ * con {@link #gauge(String, String, Object, ToDoubleFunction, String...)}.
+ * <p>
+ * Las URL llegan de los clientes, así que la etiqueta {@code host} solo lleva el nombre de los hosts de
+ * {@code scraping.metrics.hosts}; el resto se agrupa como {@code other}, para que el número de series no crezca sin
+ * límite. Los indicadores por host solo se registran para esos hosts ({@link #isTrackedHost(String)}).
+ * </p>
+ */
+@Component
+public class ScrapingMetrics {
+
+    // Fases del scraping con navegador
+    public static final String DRIVER_START = "driver.start";
+    public static final String NAVIGATION = "navigation";
+    public static final String WAIT_READY = "wait.ready";
+    public static final String EXTRACTION = "extraction";
+    public static final String PAGINATION_CLICK = "pagination.click";
+    public static final String DRIVER_RELEASE = "driver.release";
+    // Fase de descarga por HTTP
+    public static final String FETCH = "fetch";
+
+    public static final String BROWSER = "browser";
+    public static final String HTTP = "http";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_EMPTY = "empty";
+    public static final String OUTCOME_FAILURE = "failure";
+
+    static final String OTHER_HOST = "other";
+    static final String UNKNOWN_HOST = "unknown";
+
+    private final MeterRegistry registry;
+    private final Set<String> trackedHosts;
+
+    public ScrapingMetrics(MeterRegistry registry, ScrapingProperties properties) {
+        this.registry = registry;
+        this.trackedHosts = properties.getMetrics().getHosts().stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Ejecuta una acción y registra su duración, aunque termine con error.
+     *
+     * @param engine El motor que ejecuta la fase ({@link #BROWSER} o {@link #HTTP}).
+     * @param phase  El nombre de la fase.
+     * @param action La acción a medir.
+     * @return El resultado de la acción.
+     */
+    public <T> T time(String engine, String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(engine, phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Ejecuta una acción sin resultado y registra su duración, aunque termine con error.
+     *
+     * @param engine El motor que ejecuta la fase.
+     * @param phase  El nombre de la fase.
+     * @param action La acción a medir.
+     */
+    public void time(String engine, String phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(engine, phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Registra la duración de una fase ya medida.
+     *
+     * @param engine El motor que ejecutó la fase.
+     * @param phase  El nombre de la fase.
+     * @param nanos  La duración en nanosegundos.
+     */
+    public void record(String engine, String phase, long nanos) {
+        Timer.builder("scraping.phase")
+                .description("Duración de cada fase del scraping")
+                .tag("engine", engine)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Cuenta el resultado de una ejecución de scraping.
+     *
+     * @param extractor El nombre del extractor utilizado, o {@code none} si el sitio no es compatible.
+     * @param url       La URL del scraping, de la que se toma el host.
+     * @param outcome   {@code success}, {@code empty} o {@code failure}.
+     */
+    public void countRun(String extractor, String url, String outcome) {
+        Counter.builder("scraping.runs")
+                .description("Ejecuciones de scraping por extractor, host y resultado")
+                .tag("extractor", extractor)
+                .tag("host", hostTag(hostOf(url)))
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Cuenta una ejecución fallida según su tipo de fallo.
+     *
+     * @param url     La URL del scraping, de la que se toma el host.
+     * @param failure El tipo de fallo.
+     */
+    public void countFailure(String url, FailureType failure) {
+        Counter.builder("scraping.failures")
+                .description("Ejecuciones de scraping fallidas por host y tipo de fallo")
+                .tag("host", hostTag(hostOf(url)))
+                .tag("type", failure.name().toLowerCase(Locale.ROOT))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Cuenta una consulta a la caché de resultados.
+     *
+     * @param result {@code hit}, {@code stale} (servido mientras se actualiza) o {@code miss}.
+     */
+    public void countCache(String result) {
+        Counter.builder("scraping.cache")
+                .description("Consultas a la caché de resultados de scraping")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Registra un indicador cuyo valor se lee del objeto indicado cada vez que se consultan las métricas.
+     *
+     * @param name        El nombre del indicador.
+     * @param description La descripción del indicador.
+     * @param source      El objeto del que se lee el valor.
+     * @param value       La función que obtiene el valor.
+     * @param tags        Pares clave-valor de etiquetas.
+     */
+    public <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value, String... tags) {
+        Gauge.Builder<T> builder = Gauge.builder(name, source, value).description(description);
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            builder.tag(tags[i], tags[i + 1]);
+        }
+        builder.register(registry);
+    }
+
+    /**
+     * Indica si un host se etiqueta por su nombre, para registrar indicadores propios solo de esos hosts.
+     *
+     * @param host El host.
+     * @return {@code true} si el host está en {@code scraping.metrics.hosts}.
+     */
+    public boolean isTrackedHost(String host) {
+        return host != null && trackedHosts.contains(host.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param host El host de una URL, o una cadena vacía si no se conoce.
+     * @return El host si se etiqueta por su nombre, {@code unknown} si no se conoce y {@code other} en otro caso.
+     */
+    String hostTag(String host) {
+        if (host == null || host.isEmpty()) {
+            return UNKNOWN_HOST;
+        }
+        return isTrackedHost(host) ? host.toLowerCase(Locale.ROOT) : OTHER_HOST;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché acotada de resultados de scraping, con la misma clave que {@link ScrapingAdmission}: URL normalizada
+ * y número de páginas.
+ * <p>
+ * Un resultado se sirve directamente durante {@code ttl}. Pasado ese tiempo, y durante {@code stale-while-revalidate},
+ * se sigue sirviendo al instante mientras una única actualización se ejecuta en segundo plano; después se descarta.
+ * Solo se guardan resultados con productos, para no alargar un fallo del sitio.
+ * </p>
+ * <p>
+ * Cuando la caché está llena, un resultado nuevo solo entra si su búsqueda se ha pedido más veces que la entrada
+ * menos usada recientemente (admisión TinyLFU con {@link FrequencySketch}). Así una ráfaga de búsquedas únicas
+ * no expulsa a las que se repiten.
+ * </p>
+ */
+@Component
+public class ScrapingResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapingResultCache.class);
+
+    static final String HIT = "hit";
+    static final String STALE = "stale";
+    static final String MISS = "miss";
+
+    private final ScrapingProperties.Cache config;
+    private final ScrapingMetrics scrapingMetrics;
+    // En orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final ExecutorService refreshers = Executors.newVirtualThreadPerTaskExecutor();
+    // Reloj en nanosegundos; las pruebas lo sustituyen para avanzar el tiempo sin esperar
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public ScrapingResultCache(ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
+        this(properties, scrapingMetrics, System::nanoTime);
+    }
+
+    ScrapingResultCache(ScrapingProperties properties, ScrapingMetrics scrapingMetrics, LongSupplier nanoTime) {
+        this.config = properties.getCache();
+        this.scrapingMetrics = scrapingMetrics;
+        this.nanoTime = nanoTime;
+        this.sketch = new FrequencySketch(config.getMaxEntries());
+        scrapingMetrics.gauge("scraping.cache.size", "Resultados de scraping guardados en la caché",
+                this, ScrapingResultCache::size);
+    }
+
+    /**
+     * Devuelve el resultado guardado para los parámetros o, si no hay uno vigente, ejecuta el scraping y lo guarda.
+     *
+     * @param parameters Los parámetros del scraping.
+     * @param scraping   El scraping a ejecutar si no hay resultado guardado, o para actualizarlo en segundo plano.
+     * @return El resultado del scraping; cada llamada recibe su propia copia.
+     */
+    public ScrapingResult get(ScrapingParameters parameters, Supplier<ScrapingResult> scraping) {
+        if (!config.isEnabled()) {
+            return scraping.get();
+        }
+        String key = ScrapingAdmission.keyOf(parameters);
+        long now = nanoTime.getAsLong();
+        Entry entry;
+        boolean stale = false;
+        boolean refresh = false;
+        synchronized (this) {
+            sketch.increment(key);
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry != null && isStale(entry, now)) {
+                stale = true;
+                if (!entry.refreshing) {
+                    entry.refreshing = true;
+                    refresh = true;
+                }
+            }
+        }
+
+        if (entry == null) {
+            scrapingMetrics.countCache(MISS);
+            ScrapingResult result = scraping.get();
+            put(key, result);
+            return copyOf(result);
+        }
+        if (refresh) {
+            refreshInBackground(key, entry, scraping);
+        }
+        scrapingMetrics.countCache(stale ? STALE : HIT);
+        return copyOf(entry.result);
+    }
+
+    /**
+     * @return El número de resultados guardados.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void refreshInBackground(String key, Entry stale, Supplier<ScrapingResult> scraping) {
+        refreshers.execute(() -> {
+            try {
+                put(key, scraping.get());
+            } catch (RuntimeException e) {
+                log.warn("No se pudo actualizar el resultado guardado de {}: {}", key, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    stale.refreshing = false;
+                }
+            }
+        });
+    }
+
+    private void put(String key, ScrapingResult result) {
+        if (result == null || result.getProducts() == null || result.getProducts().isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(copyOf(result), nanoTime.getAsLong());
+        synchronized (this) {
+            if (entries.containsKey(key) || entries.size() < config.getMaxEntries()) {
+                entries.put(key, entry);
+                return;
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (isExpired(victim.getValue(), entry.createdAt)
+                    || sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                eldest.remove();
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private boolean isStale(Entry entry, long now) {
+        return now - entry.createdAt >= config.getTtl().toNanos();
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt >= config.getTtl().plus(config.getStaleWhileRevalidate()).toNanos();
+    }
+
+    /**
+     * Cada llamada recibe su propio resultado, porque después se le puede asignar el identificador de su tarea.
+     */
+    private static ScrapingResult copyOf(ScrapingResult result) {
+        return new ScrapingResult(result.getProducts(), null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshers.shutdownNow();
+    }
+
+    /**
+     * Resultado guardado y el momento en que se obtuvo.
+     */
+    private static final class Entry {
+        private final ScrapingResult result;
+        private final long createdAt;
+        // Hay una actualización en segundo plano en curso; se protege con el monitor de la caché
+        private boolean refreshing;
+
+        private Entry(ScrapingResult result, long createdAt) {
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,21 +1,72 @@
 package com.javabuilders.demowebscraping.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javabuilders.demowebscraping.model.Product;
 import com.javabuilders.demowebscraping.model.ScrapingResult;
+import com.javabuilders.demowebscraping.model.SerializedResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 @Service
 public class ScrapingResultManager {
 
-    // Variable para almacenar el último resultado de scraping
-    private ScrapingResult latestScrapingResult;
+    private static final Logger log = LoggerFactory.getLogger(ScrapingResultManager.class);
+
+    // Bytes del hash SHA-256 del JSON que forman la ETag
+    private static final int ETAG_BYTES = 16;
+
+    private final PriceHistoryStore priceHistoryStore;
+    private final ProductDeduplicator productDeduplicator;
+    private final ProductIndex productIndex;
+    private final ObjectMapper objectMapper;
+
+    // Variable para almacenar el último resultado de scraping, ya serializado
+    private volatile SerializedResult latestScrapingResult;
+
+    public ScrapingResultManager(PriceHistoryStore priceHistoryStore, ProductDeduplicator productDeduplicator,
+                                 ProductIndex productIndex, ObjectMapper objectMapper) {
+        this.priceHistoryStore = priceHistoryStore;
+        this.productDeduplicator = productDeduplicator;
+        this.productIndex = productIndex;
+        this.objectMapper = objectMapper;
+    }
 
     /**
-     * Actualiza los resultados del scraping con los nuevos productos.
+     * Actualiza los resultados del scraping con los nuevos productos
+     * y añade al historial de precios los productos nuevos o cuyo precio cambió desde ejecuciones anteriores.
+     * El resultado se serializa aquí una sola vez para todas las consultas de {@code GET /latest-scraping},
+     * y sus productos se añaden al índice de {@code GET /products}.
      *
      * @param scrapingResult El nuevo resultado del scraping.
      */
     public void updateLatestResult(ScrapingResult scrapingResult) {
-        this.latestScrapingResult = scrapingResult;
+        this.latestScrapingResult = serialize(scrapingResult);
+        try {
+            productIndex.update(scrapingResult.getProducts());
+        } catch (RuntimeException e) {
+            log.error("No se pudo actualizar el índice de productos: {}", e.getMessage(), e);
+        }
+        try {
+            if (priceHistoryStore.isEnabled()) {
+                // Los precios se registran solo si se guardaron en el historial, para reintentarlo en la siguiente ejecución
+                List<Product> changed = productDeduplicator.filterChanged(scrapingResult.getProducts());
+                priceHistoryStore.append(changed);
+                productDeduplicator.recordPrices(changed);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar el resultado en el historial de precios: {}", e.getMessage(), e);
+        }
     }
 
     /**
@@ -24,6 +75,50 @@ public class ScrapingResultManager {
      * @return El último resultado del scraping o null si no hay resultados.
      */
     public ScrapingResult getLatestResult() {
+        SerializedResult latest = latestScrapingResult;
+        return latest == null ? null : latest.getResult();
+    }
+
+    /**
+     * Obtiene el último resultado de scraping con su JSON y su ETag.
+     *
+     * @return El último resultado serializado o null si no hay resultados.
+     */
+    public SerializedResult getLatestSerializedResult() {
         return latestScrapingResult;
     }
-}
\ No newline at end of file
+
+    /**
+     * Genera el JSON del resultado, su versión comprimida y su ETag. Si falla la serialización se guarda
+     * solo el resultado, para que se serialice al responder.
+     */
+    private SerializedResult serialize(ScrapingResult scrapingResult) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(scrapingResult);
+            return new SerializedResult(scrapingResult, json, gzip(json), etagOf(json));
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el último resultado del scraping: {}", e.getMessage(), e);
+            return new SerializedResult(scrapingResult, null, null, null);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            // Un ByteArrayOutputStream no lanza IOException
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, ETAG_BYTES)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.exception.JobNotFinishedException;
+import com.javabuilders.demowebscraping.exception.JobNotFoundException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ProductPage;
+import com.javabuilders.demowebscraping.model.RunStatus;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import com.javabuilders.demowebscraping.model.ScrapingRun;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servicio que ejecuta scrapings de forma asíncrona: la solicitud se acepta de inmediato con un identificador
+ * y el scraping se ejecuta en su propio hilo virtual, sin ocupar el hilo de la petición HTTP.
+ * <p>
+ * Mientras se ejecuta, el avance (páginas, productos y duración de cada fase) puede consultarse por su identificador;
+ * al terminar, sus productos se consultan por páginas. Si el scraping termina sin productos por un fallo
+ * ({@link ScrapeListener#onFailure(FailureType)}), la ejecución queda como {@link RunStatus#FAILED} con el tipo de
+ * fallo, para distinguirla de una búsqueda sin resultados. Las ejecuciones terminadas se conservan durante
+ * {@code scraping.runs.retention}, con un máximo de {@code scraping.runs.max-retained}.
+ * </p>
+ */
+@Service
+public class ScrapingRunService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapingRunService.class);
+
+    private final IntervalSchedulerService schedulerService;
+    private final ScrapingProperties.Runs config;
+    private final ExecutorService runExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("scraping-run-", 0).factory());
+
+    private final Map<String, ScrapingRun> runs = new ConcurrentHashMap<>();
+    private final Map<String, Thread> runningThreads = new ConcurrentHashMap<>();
+
+    public ScrapingRunService(IntervalSchedulerService schedulerService, ScrapingProperties properties,
+                              ScrapingMetrics scrapingMetrics) {
+        this.schedulerService = schedulerService;
+        this.config = properties.getRuns();
+        scrapingMetrics.gauge("scraping.jobs.async", "Ejecuciones asíncronas por estado",
+                this, service -> service.countRuns(RunStatus.QUEUED), "status", "queued");
+        scrapingMetrics.gauge("scraping.jobs.async", "Ejecuciones asíncronas por estado",
+                this, service -> service.countRuns(RunStatus.RUNNING), "status", "running");
+    }
+
+    private long countRuns(RunStatus status) {
+        return runs.values().stream().filter(run -> run.getStatus() == status).count();
+    }
+
+    /**
+     * Acepta una solicitud de scraping y la ejecuta en segundo plano.
+     *
+     * @param parameters Los parámetros de scraping, como en {@code POST /scraping}.
+     * @return La ejecución aceptada, en estado {@link RunStatus#QUEUED}.
+     * @throws InvalidParametersException Si la URL está vacía.
+     */
+    public ScrapingRun submit(ScrapingParameters parameters) {
+        if (parameters.getUrl() == null || parameters.getUrl().isEmpty()) {
+            throw new InvalidParametersException("La URL no puede ser nula o vacía.");
+        }
+        evictFinishedRuns();
+        ScrapingRun run = new ScrapingRun(UUID.randomUUID().toString(), parameters, Instant.now());
+        runs.put(run.getId(), run);
+        runExecutor.execute(() -> execute(run));
+        log.info("Ejecución de scraping {} aceptada", run.getId());
+        return run;
+    }
+
+    /**
+     * @param runId El identificador de la ejecución.
+     * @return La ejecución, con su estado y su avance.
+     * @throws JobNotFoundException Si la ejecución no existe o ya se descartó.
+     */
+    public ScrapingRun getRun(String runId) {
+        ScrapingRun run = runs.get(runId);
+        if (run == null) {
+            throw new JobNotFoundException(runId);
+        }
+        return run;
+    }
+
+    /**
+     * Devuelve una página de los productos de una ejecución terminada.
+     *
+     * @param runId El identificador de la ejecución.
+     * @param page  El número de página, empezando por 0.
+     * @param size  Los productos por página.
+     * @return La página solicitada; vacía si está fuera de rango.
+     * @throws JobNotFinishedException Si la ejecución no terminó correctamente.
+     */
+    public ProductPage getProducts(String runId, int page, int size) {
+        if (page < 0 || size <= 0 || size > config.getMaxPageSize()) {
+            throw new InvalidParametersException("Página o tamaño inválidos: page=" + page + ", size=" + size
+                    + " (el tamaño máximo es " + config.getMaxPageSize() + ")");
+        }
+        ScrapingRun run = getRun(runId);
+        List<Product> products = run.getProducts();
+        if (run.getStatus() != RunStatus.COMPLETED || products == null) {
+            throw new JobNotFinishedException(runId, run.getStatus());
+        }
+        int total = products.size();
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        int totalPages = (total + size - 1) / size;
+        return new ProductPage(products.subList(from, to), page, size, total, totalPages);
+    }
+
+    /**
+     * Cancela una ejecución en curso. Si ya terminó, se descarta.
+     *
+     * @param runId El identificador de la ejecución.
+     */
+    public void cancel(String runId) {
+        ScrapingRun run = getRun(runId);
+        synchronized (run) {
+            if (run.isFinished()) {
+                runs.remove(runId);
+                return;
+            }
+            run.setFinishedAt(Instant.now());
+            run.setStatus(RunStatus.CANCELLED);
+        }
+        Thread thread = runningThreads.get(runId);
+        if (thread != null) {
+            thread.interrupt();
+        }
+        log.info("Ejecución de scraping {} cancelada", runId);
+    }
+
+    /**
+     * Interrumpe las ejecuciones en curso al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    private void execute(ScrapingRun run) {
+        synchronized (run) {
+            if (run.getStatus() != RunStatus.QUEUED) {
+                return;
+            }
+            run.setStatus(RunStatus.RUNNING);
+            run.setStartedAt(Instant.now());
+            runningThreads.put(run.getId(), Thread.currentThread());
+        }
+        try {
+            RunProgress progress = new RunProgress(run);
+            ScrapingResult result = schedulerService.handleScrapingRequest(run.getParameters(), progress);
+            synchronized (run) {
+                if (run.getStatus() == RunStatus.RUNNING && progress.failure != null) {
+                    log.error("La ejecución de scraping {} terminó sin productos por un fallo: {}",
+                            run.getId(), progress.failure);
+                    run.setError("El scraping terminó sin productos por un fallo: " + progress.failure);
+                    run.setFailure(progress.failure);
+                    run.setJobId(result.getJobId());
+                    run.setFinishedAt(Instant.now());
+                    run.setStatus(RunStatus.FAILED);
+                } else if (run.getStatus() == RunStatus.RUNNING) {
+                    run.setProducts(result.getProducts());
+                    run.setProductsFound(result.getProducts().size());
+                    run.setJobId(result.getJobId());
+                    run.setFinishedAt(Instant.now());
+                    run.setStatus(RunStatus.COMPLETED);
+                }
+            }
+        } catch (Exception e) {
+            synchronized (run) {
+                if (run.getStatus() == RunStatus.RUNNING) {
+                    log.error("Error durante la ejecución de scraping {}: {}", run.getId(), e.getMessage());
+                    run.setError(e.getMessage());
+                    run.setFinishedAt(Instant.now());
+                    run.setStatus(RunStatus.FAILED);
+                }
+            }
+        } finally {
+            runningThreads.remove(run.getId());
+        }
+    }
+
+    /**
+     * Descarta las ejecuciones terminadas hace más de {@code retention} y, si aún se supera el máximo,
+     * las terminadas más antiguas.
+     */
+    private void evictFinishedRuns() {
+        Instant expiry = Instant.now().minus(config.getRetention());
+        runs.values().removeIf(run -> run.isFinished() && run.getFinishedAt().isBefore(expiry));
+        int excess = runs.size() - config.getMaxRetained() + 1;
+        if (excess > 0) {
+            runs.values().stream()
+                    .filter(ScrapingRun::isFinished)
+                    .sorted(Comparator.comparing(ScrapingRun::getFinishedAt))
+                    .limit(excess)
+                    .toList()
+                    .forEach(run -> runs.remove(run.getId()));
+        }
+    }
+
+    /**
+     * Actualiza el avance de una ejecución a medida que se procesan sus páginas y sus fases.
+     */
+    private static final class RunProgress implements ScrapeListener {
+        private final ScrapingRun run;
+        private volatile FailureType failure;
+
+        private RunProgress(ScrapingRun run) {
+            this.run = run;
+        }
+
+        @Override
+        public void onPage(int pageNumber, List<Product> products) {
+            synchronized (run) {
+                run.setPagesCompleted(Math.max(run.getPagesCompleted(), pageNumber));
+                run.setProductsFound(run.getProductsFound() + products.size());
+            }
+        }
+
+        @Override
+        public void onPhase(String phase, long elapsedMillis) {
+            run.getPhaseMillis().merge(phase, elapsedMillis, Long::sum);
+        }
+
+        @Override
+        public void onFailure(FailureType type) {
+            failure = type;
+        }
+    }
+}
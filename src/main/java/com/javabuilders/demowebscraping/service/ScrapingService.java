@@ -1,9 +1,11 @@
 package com.javabuilders.demowebscraping.service;
 import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.model.FailureType;
 import com.javabuilders.demowebscraping.model.Product;
 import com.javabuilders.demowebscraping.model.ScrapingParameters;
 import com.javabuilders.demowebscraping.model.ScrapingResult;
 import lombok.RequiredArgsConstructor;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +18,15 @@ import java.util.Optional;
  * Servicio principal para realizar el scraping en sitios web.
  * Se encarga de gestionar la configuración del WebDriver, la extracción de productos y
  * el manejo de resultados paginados.
+ * <p>
+ * Si el extractor del sitio puede leer el HTML directamente ({@link IHtmlProductExtractor}), primero se intenta
+ * con {@link HttpFetchEngine}; el navegador solo se utiliza como alternativa cuando la descarga HTTP no obtiene productos.
+ * Cada uso de una sesión de navegador ocupa un permiso de {@link ResourcePermits} mientras dura.
+ * </p>
+ * <p>
+ * Los fallos transitorios del navegador se reintentan con {@link ScrapeRetryPolicy}, y el resultado de cada ejecución
+ * se comunica a {@link HostCircuitBreaker}, que rechaza las ejecuciones contra un sitio que sigue fallando.
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
@@ -24,6 +35,14 @@ public class ScrapingService implements IScrapingService {
     private final IBrowserDriver browserDriver;
     private final ScrapingResultManager resultManager;
     private final PaginationHandler paginationHandler;
+    private final HttpFetchEngine httpFetchEngine;
+    private final ResourcePermits resourcePermits;
+    private final ProductDeduplicator productDeduplicator;
+    private final ResourceBlocker resourceBlocker;
+    private final PageReadiness pageReadiness;
+    private final ScrapingMetrics scrapingMetrics;
+    private final HostCircuitBreaker hostCircuitBreaker;
+    private final ScrapeRetryPolicy scrapeRetryPolicy;
     private static final Logger logger = LoggerFactory.getLogger(ScrapingService.class);
 
 
@@ -35,23 +54,199 @@ public class ScrapingService implements IScrapingService {
      */
     @Override
     public Optional<ScrapingResult> performScraping(ScrapingParameters parameters) {
+        return performScraping(parameters, ScrapeWatermark.none());
+    }
+
+    /**
+     * Realiza el proceso de scraping en modo incremental: solo se devuelven los productos que no están en la
+     * marca de agua, y la paginación se detiene en la primera página sin novedades.
+     *
+     * @param parameters Parámetros de scraping, como la URL y número de páginas.
+     * @param watermark  Lo visto en ejecuciones anteriores de la tarea, o {@link ScrapeWatermark#none()}
+     *                   para un scraping completo.
+     * @return Un {@link Optional} que contiene el resultado del scraping, o vacío si ocurrió un error.
+     */
+    public Optional<ScrapingResult> performScraping(ScrapingParameters parameters, ScrapeWatermark watermark) {
+        return performScraping(parameters, watermark, ScrapeListener.NONE);
+    }
+
+    /**
+     * Realiza el proceso de scraping notificando los productos de cada página en cuanto se extraen.
+     * Si la descarga por HTTP falla a mitad y se recurre al navegador, o si se reintenta el recorrido con el navegador,
+     * las páginas se vuelven a notificar.
+     *
+     * @param parameters Parámetros de scraping, como la URL y número de páginas.
+     * @param watermark  Lo visto en ejecuciones anteriores de la tarea, o {@link ScrapeWatermark#none()}.
+     * @param listener   Recibe los productos de cada página.
+     * @return Un {@link Optional} que contiene el resultado del scraping, o vacío si ocurrió un error.
+     * @throws com.javabuilders.demowebscraping.exception.HostUnavailableException Si el circuito del host está abierto.
+     */
+    public Optional<ScrapingResult> performScraping(ScrapingParameters parameters, ScrapeWatermark watermark,
+                                                    ScrapeListener listener) {
 
         validateUrl(parameters);
+        watermark.beginRun();
 
-        WebDriver driver = null;
-        List<Product> productList = List.of();
+        IProductExtractor productExtractor;
         try {
-            driver = browserDriver.connectDriverToUrl(parameters);
-            IProductExtractor productExtractor = getProductExtractor(parameters);
-            productList = scrapeProducts(driver, parameters, productExtractor);
+            productExtractor = getProductExtractor(parameters);
+        } catch (IllegalArgumentException e) {
+            logger.error("No se pudo realizar el scraping en el método performScraping: {}", e.getMessage());
+            scrapingMetrics.countRun("none", null, ScrapingMetrics.OUTCOME_FAILURE);
+            listener.onFailure(FailureType.OTHER);
+            return createScrapingResult(List.of());
+        }
 
-        } catch (Exception e) {
-            logger.error("No se pudo realizar el scraping en el método performScraping: {}", e.getMessage(), e);
-        } finally {
-            logger.info("Productos obtenidos: {}", productList.size());
-            WebDriverManager.closeDriver(driver);
+        String extractorName = productExtractor.getClass().getSimpleName();
+        String url = parameters.getUrl();
+        hostCircuitBreaker.acquire(url);
+        boolean outcomeReported = false;
+        try {
+            FailureType failure = null;
+            long phaseStart = System.nanoTime();
+            List<Product> productList = scrapeProductsOverHttp(parameters, productExtractor, watermark, listener);
+            listener.onPhase("http", elapsedMillis(phaseStart));
+
+            if (!productList.isEmpty() || watermark.isCaughtUp()) {
+                logger.info("Productos obtenidos por HTTP: {}", productList.size());
+            } else {
+                phaseStart = System.nanoTime();
+                try {
+                    productList = scrapeProductsInBrowser(parameters, productExtractor, watermark, listener);
+                } catch (RuntimeException e) {
+                    failure = FailureClassifier.classify(e);
+                    if (failure == FailureType.CANCELLED) {
+                        throw e;
+                    }
+                    logger.error("No se pudo realizar el scraping en el método performScraping ({}): {}",
+                            failure, e.getMessage(), e);
+                    productList = List.of();
+                }
+                logger.info("Productos obtenidos: {}", productList.size());
+                listener.onPhase("browser", elapsedMillis(phaseStart));
+            }
+            if (failure == null && productList.isEmpty() && !watermark.isCaughtUp()) {
+                failure = FailureType.NO_ELEMENTS;
+            }
+            reportOutcome(url, failure);
+            outcomeReported = true;
+            if (failure != null && failure != FailureType.NO_ELEMENTS) {
+                listener.onFailure(failure);
+            }
+
+            phaseStart = System.nanoTime();
+            Optional<ScrapingResult> result = createScrapingResult(productList, watermark);
+            listener.onPhase("result", elapsedMillis(phaseStart));
+            scrapingMetrics.countRun(extractorName, url, outcomeOf(productList, failure));
+            return result;
+        } catch (RuntimeException e) {
+            scrapingMetrics.countRun(extractorName, url, ScrapingMetrics.OUTCOME_FAILURE);
+            if (!outcomeReported) {
+                reportOutcome(url, FailureClassifier.classify(e));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Comunica el resultado de la ejecución al circuito del host. Una búsqueda sin resultados cuenta como éxito:
+     * el sitio respondió, solo que no había productos.
+     *
+     * @param url     La URL del scraping.
+     * @param failure El tipo de fallo, o {@code null} si la ejecución tuvo éxito.
+     */
+    private void reportOutcome(String url, FailureType failure) {
+        if (failure == null || failure == FailureType.NO_ELEMENTS) {
+            hostCircuitBreaker.onSuccess(url);
+            return;
+        }
+        if (failure != FailureType.CANCELLED) {
+            scrapingMetrics.countFailure(url, failure);
+        }
+        hostCircuitBreaker.onFailure(url, failure);
+    }
+
+    private static String outcomeOf(List<Product> products, FailureType failure) {
+        if (failure != null && failure != FailureType.NO_ELEMENTS) {
+            return ScrapingMetrics.OUTCOME_FAILURE;
+        }
+        return products.isEmpty() ? ScrapingMetrics.OUTCOME_EMPTY : ScrapingMetrics.OUTCOME_SUCCESS;
+    }
+
+    /**
+     * Realiza el scraping con el navegador: en paralelo si las páginas tienen URL propia y, si no,
+     * recorriéndolas con el botón "Siguiente". En el modo de pestañas, las páginas con URL propia se cargan en
+     * pestañas de una sola sesión. Los fallos transitorios se reintentan por página en el modo paralelo y desde
+     * el principio en los demás.
+     *
+     * @param parameters       Los parámetros de scraping, como la URL y el número de páginas.
+     * @param productExtractor El extractor de productos del sitio.
+     * @param watermark        Lo visto en ejecuciones anteriores de la tarea.
+     * @param listener         Recibe los productos de cada página.
+     * @return Lista de productos extraídos de todas las páginas procesadas.
+     * @throws RuntimeException El error del último intento si no se pudo completar el scraping.
+     */
+    private List<Product> scrapeProductsInBrowser(ScrapingParameters parameters, IProductExtractor productExtractor,
+                                                  ScrapeWatermark watermark, ScrapeListener listener) {
+        List<String> pageUrls = paginationHandler.resolvePageUrls(parameters, productExtractor);
+        if (!pageUrls.isEmpty() && paginationHandler.isTabMode()) {
+            return scrapeRetryPolicy.execute(parameters.getUrl(),
+                    () -> scrapePagesInTabs(pageUrls, productExtractor, watermark, listener));
+        }
+        if (!pageUrls.isEmpty()) {
+            return paginationHandler.scrapeAddressablePages(pageUrls,
+                    pageUrl -> watermark.retainUnseen(scrapeRetryPolicy.execute(pageUrl,
+                            () -> scrapePageInBrowser(pageUrl, productExtractor))),
+                    watermark, listener);
+        }
+        return scrapeRetryPolicy.execute(parameters.getUrl(),
+                () -> scrapeSequentially(parameters, productExtractor, watermark, listener));
+    }
+
+    /**
+     * Carga las páginas en pestañas de una sola sesión de navegador, que ocupa un único permiso y se libera
+     * al terminar aunque ocurra un error.
+     *
+     * @param pageUrls         Las URL de las páginas, en orden.
+     * @param productExtractor El extractor de productos del sitio.
+     * @param watermark        Lo visto en ejecuciones anteriores de la tarea.
+     * @param listener         Recibe los productos de cada página.
+     * @return Lista de productos extraídos de todas las páginas procesadas.
+     */
+    private List<Product> scrapePagesInTabs(List<String> pageUrls, IProductExtractor productExtractor,
+                                            ScrapeWatermark watermark, ScrapeListener listener) {
+        try (ResourcePermits.Permit browserPermit = resourcePermits.acquire(ResourcePermits.Resource.BROWSER)) {
+            WebDriver driver = scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.DRIVER_START,
+                    browserDriver::initializeWebDriver);
+            try {
+                return paginationHandler.scrapePagesInTabs(driver, pageUrls,
+                        () -> watermark.retainUnseen(scrapeLoadedPage(driver, productExtractor)), listener);
+            } finally {
+                browserDriver.releaseDriver(driver);
+            }
+        }
+    }
+
+    /**
+     * Recorre las páginas con el botón "Siguiente" en una sesión de navegador, que se libera al terminar
+     * aunque ocurra un error.
+     *
+     * @param parameters       Los parámetros de scraping, como la URL y el número de páginas.
+     * @param productExtractor El extractor de productos del sitio.
+     * @param watermark        Lo visto en ejecuciones anteriores de la tarea.
+     * @param listener         Recibe los productos de cada página.
+     * @return Lista de productos extraídos de todas las páginas procesadas.
+     */
+    private List<Product> scrapeSequentially(ScrapingParameters parameters, IProductExtractor productExtractor,
+                                             ScrapeWatermark watermark, ScrapeListener listener) {
+        try (ResourcePermits.Permit browserPermit = resourcePermits.acquire(ResourcePermits.Resource.BROWSER)) {
+            WebDriver driver = browserDriver.connectDriverToUrl(parameters);
+            try {
+                return scrapeProducts(driver, parameters, productExtractor, watermark, listener);
+            } finally {
+                browserDriver.releaseDriver(driver);
+            }
         }
-        return createScrapingResult(productList);
     }
 
     /**
@@ -71,28 +266,130 @@ public class ScrapingService implements IScrapingService {
      * @param driver           El WebDriver que interactúa con la página web.
      * @param parameters       Los parámetros de scraping, como el número de páginas.
      * @param productExtractor El extractor de productos.
+     * @param watermark        Lo visto en ejecuciones anteriores de la tarea.
+     * @param listener         Recibe los productos de cada página.
      * @return Lista de productos extraídos de todas las páginas procesadas.
      */
-    private List<Product> scrapeProducts(WebDriver driver, ScrapingParameters parameters, IProductExtractor productExtractor) {
+    private List<Product> scrapeProducts(WebDriver driver, ScrapingParameters parameters, IProductExtractor productExtractor,
+                                         ScrapeWatermark watermark, ScrapeListener listener) {
 
         return paginationHandler.scrapePaginatedResults(driver,
-                () -> productExtractor.scrapeCurrentPage(driver),
+                () -> scrapeLoadedPage(driver, productExtractor),
                 parameters,
-                productExtractor);
+                productExtractor,
+                watermark,
+                listener);
     }
 
     /**
-     * Crea el resultado del scraping y lo almacena utilizando el administrador de resultados.
+     * Realiza el scraping de una sola página con una sesión de navegador propia,
+     * que se libera al terminar aunque ocurra un error.
+     *
+     * @param pageUrl          La URL de la página.
+     * @param productExtractor El extractor de productos.
+     * @return Los productos extraídos de la página.
+     */
+    private List<Product> scrapePageInBrowser(String pageUrl, IProductExtractor productExtractor) {
+        try (ResourcePermits.Permit permit = resourcePermits.acquire(ResourcePermits.Resource.BROWSER)) {
+            WebDriver driver = browserDriver.connectDriverToUrl(pageUrl);
+            try {
+                return scrapeLoadedPage(driver, productExtractor);
+            } finally {
+                browserDriver.releaseDriver(driver);
+            }
+        }
+    }
+
+    /**
+     * Espera a que la página actual del navegador esté lista, extrae sus productos
+     * y registra lo que costó cargarla.
+     *
+     * @param driver           El WebDriver con la página ya abierta.
+     * @param productExtractor El extractor de productos.
+     * @return Los productos extraídos de la página.
+     */
+    private List<Product> scrapeLoadedPage(WebDriver driver, IProductExtractor productExtractor) {
+        By readyLocator = productExtractor.readyLocator();
+        if (readyLocator != null) {
+            pageReadiness.awaitElements(driver, readyLocator);
+        }
+        List<Product> products = scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.EXTRACTION,
+                () -> productExtractor.scrapeCurrentPage(driver));
+        resourceBlocker.recordPage(driver);
+        return products;
+    }
+
+    /**
+     * Intenta realizar el scraping descargando las páginas por HTTP, sin navegador.
+     * Solo se intenta si el motor HTTP está habilitado y el extractor sabe leer el HTML del sitio.
+     *
+     * @param parameters       Los parámetros de scraping, como la URL y el número de páginas.
+     * @param productExtractor El extractor de productos del sitio.
+     * @param watermark        Lo visto en ejecuciones anteriores de la tarea.
+     * @param listener         Recibe los productos de cada página.
+     * @return Lista de productos extraídos, o una lista vacía si se debe recurrir al navegador
+     *         (salvo que la marca de agua indique que simplemente no hay novedades).
+     */
+    private List<Product> scrapeProductsOverHttp(ScrapingParameters parameters, IProductExtractor productExtractor,
+                                                 ScrapeWatermark watermark, ScrapeListener listener) {
+        if (!httpFetchEngine.isEnabled() || !(productExtractor instanceof IHtmlProductExtractor htmlExtractor)) {
+            return List.of();
+        }
+        try {
+            List<String> pageUrls = paginationHandler.resolvePageUrls(parameters, productExtractor);
+            if (!pageUrls.isEmpty()) {
+                return paginationHandler.scrapeAddressablePages(pageUrls,
+                        pageUrl -> paginationHandler.scrapeHtmlPage(httpFetchEngine, htmlExtractor, pageUrl, watermark),
+                        watermark, listener);
+            }
+            return paginationHandler.scrapePaginatedHtml(httpFetchEngine, htmlExtractor, parameters, watermark,
+                    listener);
+        } catch (Exception e) {
+            logger.warn("Falló el scraping por HTTP, se utilizará el navegador: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Crea el resultado del scraping, sin productos repetidos y en formato compacto, y lo almacena utilizando
+     * el administrador de resultados.
      *
      * @param products Lista de productos extraídos.
      * @return Un {@link Optional} con el resultado del scraping.
      */
     private Optional <ScrapingResult> createScrapingResult(List<Product> products) {
-        ScrapingResult scrapingResult = new ScrapingResult(products);
+        ScrapingResult scrapingResult = new ScrapingResult(ProductCompactor.compact(productDeduplicator.deduplicate(products)));
         resultManager.updateLatestResult(scrapingResult);
         return Optional.of(scrapingResult);
     }
 
+    /**
+     * Crea el resultado de una ejecución incremental. El último resultado, el índice y el historial de precios
+     * reciben todos los productos vistos en la ejecución, nuevos o no, para que sigan reflejando los precios actuales;
+     * solo el resultado devuelto se limita a los productos nuevos, que entonces se confirman en la marca de agua.
+     * Si la ejecución no vio ningún producto porque nada cambió, se conserva el último resultado.
+     *
+     * @param products  Los productos nuevos de la ejecución.
+     * @param watermark Lo visto en ejecuciones anteriores de la tarea, o {@link ScrapeWatermark#none()}.
+     * @return Un {@link Optional} con los productos nuevos.
+     */
+    private Optional<ScrapingResult> createScrapingResult(List<Product> products, ScrapeWatermark watermark) {
+        if (!watermark.isActive()) {
+            return createScrapingResult(products);
+        }
+        List<Product> observed = watermark.observedProducts();
+        if (!observed.isEmpty()) {
+            createScrapingResult(observed);
+        }
+        List<Product> unseen = productDeduplicator.deduplicate(products);
+        watermark.commitRun(unseen);
+        return Optional.of(new ScrapingResult(ProductCompactor.compact(unseen)));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
     /**
      * Válida que la URL proporcionada en los parámetros sea válida.
      *
@@ -0,0 +1,212 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Servicio que ejecuta un scraping enviando al cliente los productos de cada página en cuanto se extraen,
+ * en lugar de esperar al resultado completo.
+ * <p>
+ * Se envían cuatro tipos de evento: {@code page} con los productos de una página, {@code progress} con el avance,
+ * {@code complete} al terminar y {@code error} si el scraping falla, aunque el fallo llegue como un resultado vacío
+ * ({@link ScrapeListener#onFailure(FailureType)}); en ese caso el evento incluye el tipo de fallo ({@code failure}).
+ * Cada evento se envía como Server-Sent Event
+ * ({@link SseEmitter}) o como una línea JSON (NDJSON). Si el cliente cierra la conexión, el scraping se interrumpe.
+ * </p>
+ */
+@Service
+public class ScrapingStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapingStreamService.class);
+
+    private final IntervalSchedulerService schedulerService;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final ExecutorService streamWorkers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("scraping-stream-", 0).factory());
+
+    public ScrapingStreamService(IntervalSchedulerService schedulerService, ObjectMapper objectMapper,
+                                 ScrapingProperties properties) {
+        this.schedulerService = schedulerService;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = properties.getStream().getTimeout().toMillis();
+    }
+
+    /**
+     * Inicia el scraping y envía sus eventos como Server-Sent Events.
+     *
+     * @param parameters Los parámetros de scraping.
+     * @return El emisor por el que se envían los eventos.
+     * @throws InvalidParametersException Si la URL está vacía.
+     */
+    public SseEmitter streamEvents(ScrapingParameters parameters) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        start(parameters, emitter);
+        return emitter;
+    }
+
+    /**
+     * Inicia el scraping y envía sus eventos como líneas JSON (NDJSON).
+     *
+     * @param parameters Los parámetros de scraping.
+     * @return El emisor por el que se envían los eventos.
+     * @throws InvalidParametersException Si la URL está vacía.
+     */
+    public ResponseBodyEmitter streamLines(ScrapingParameters parameters) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        start(parameters, emitter);
+        return emitter;
+    }
+
+    /**
+     * Detiene los scrapings en curso al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        streamWorkers.shutdownNow();
+    }
+
+    private void start(ScrapingParameters parameters, ResponseBodyEmitter emitter) {
+        if (parameters.getUrl() == null || parameters.getUrl().isEmpty()) {
+            throw new InvalidParametersException("La URL no puede ser nula o vacía.");
+        }
+        StreamSession session = new StreamSession(emitter, parameters.getPages());
+        Future<?> task = streamWorkers.submit(() -> session.run(parameters));
+        session.task = task;
+        emitter.onTimeout(() -> task.cancel(true));
+        emitter.onError(e -> task.cancel(true));
+    }
+
+    /**
+     * Estado de un scraping en curso: envía los eventos y descarta los productos ya enviados, que pueden repetirse
+     * si la descarga por HTTP falla a mitad y se recurre al navegador.
+     */
+    private final class StreamSession implements ScrapeListener {
+        private final ResponseBodyEmitter emitter;
+        private final int pagesRequested;
+        private final LongHashSet sentProducts = new LongHashSet();
+        private final long startNanos = System.nanoTime();
+        private volatile Future<?> task;
+        private volatile FailureType failure;
+        private int pagesCompleted;
+        private int productsSent;
+        private volatile boolean disconnected;
+
+        private StreamSession(ResponseBodyEmitter emitter, int pagesRequested) {
+            this.emitter = emitter;
+            this.pagesRequested = pagesRequested;
+        }
+
+        private void run(ScrapingParameters parameters) {
+            try {
+                ScrapingResult result = schedulerService.handleScrapingRequest(parameters, this);
+                FailureType reported = failure;
+                if (reported != null) {
+                    Map<String, Object> error = new LinkedHashMap<>();
+                    error.put("message", "El scraping terminó sin productos por un fallo: " + reported);
+                    error.put("failure", reported);
+                    error.put("elapsedMillis", elapsedMillis());
+                    error.put("jobId", result.getJobId());
+                    send("error", error);
+                    emitter.complete();
+                    return;
+                }
+                Map<String, Object> complete = new LinkedHashMap<>();
+                complete.put("products", result.getProducts().size());
+                complete.put("elapsedMillis", elapsedMillis());
+                complete.put("jobId", result.getJobId());
+                send("complete", complete);
+                emitter.complete();
+            } catch (Exception e) {
+                if (disconnected) {
+                    return;
+                }
+                log.error("Error durante el scraping en streaming: {}", e.getMessage());
+                send("error", Map.of("message", String.valueOf(e.getMessage())));
+                emitter.complete();
+            }
+        }
+
+        @Override
+        public void onFailure(FailureType type) {
+            failure = type;
+        }
+
+        @Override
+        public synchronized void onPage(int pageNumber, List<Product> products) {
+            List<Product> newProducts = new ArrayList<>(products.size());
+            for (Product product : products) {
+                if (sentProducts.add(ProductDeduplicator.productKey(product))) {
+                    newProducts.add(product);
+                }
+            }
+            pagesCompleted = Math.max(pagesCompleted, pageNumber);
+            productsSent += newProducts.size();
+
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("page", pageNumber);
+            page.put("products", newProducts);
+            send("page", page);
+
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("pagesCompleted", pagesCompleted);
+            progress.put("pagesRequested", pagesRequested);
+            progress.put("products", productsSent);
+            progress.put("elapsedMillis", elapsedMillis());
+            send("progress", progress);
+        }
+
+        private void send(String event, Map<String, Object> data) {
+            if (disconnected) {
+                return;
+            }
+            try {
+                if (emitter instanceof SseEmitter sseEmitter) {
+                    sseEmitter.send(SseEmitter.event().name(event)
+                            .data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON));
+                } else {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("event", event);
+                    line.putAll(data);
+                    emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.APPLICATION_NDJSON);
+                }
+            } catch (JsonProcessingException e) {
+                log.error("No se pudo serializar el evento {}: {}", event, e.getMessage());
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión: se interrumpe el scraping
+                log.info("El cliente cerró la conexión del scraping en streaming");
+                disconnected = true;
+                Future<?> running = task;
+                if (running != null) {
+                    running.cancel(true);
+                }
+            }
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
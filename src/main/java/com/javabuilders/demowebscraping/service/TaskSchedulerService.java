@@ -1,16 +1,50 @@
 package com.javabuilders.demowebscraping.service;
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.JobNotFoundException;
+import com.javabuilders.demowebscraping.exception.HostUnavailableException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.JobStatus;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ScrapingJob;
 import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Servicio encargado de programar y gestionar tareas periódicas utilizando un TaskScheduler.
- * Permite programar tareas con un intervalo específico y cancelar tareas previamente programadas.
+ * <p>
+ * Mantiene un registro de tareas identificadas por id, cada una con su propio intervalo y parámetros,
+ * que pueden listarse, pausarse, reanudarse y cancelarse. El {@link TaskScheduler} solo despacha las ejecuciones;
+ * cada ejecución corre en su propio hilo virtual, y son los permisos de {@link ResourcePermits} los que limitan
+ * cuántos navegadores o descargas HTTP hay en curso a la vez. Como con {@code scheduleWithFixedDelay}, el intervalo
+ * se cuenta desde que termina cada ejecución, de modo que una tarea lenta no encadena ejecuciones una tras otra.
+ * </p>
+ * <p>
+ * Una ejecución cuenta como fallida si lanza un error o si termina sin productos por un fallo
+ * ({@link ScrapeListener#onFailure(FailureType)}), aunque el scraping devuelva un resultado vacío.
+ * </p>
+ * <p>
+ * Con {@code scraping.jobs.incremental} habilitado, cada tarea conserva una {@link ScrapeWatermark} con lo que vio
+ * en sus ejecuciones anteriores, de modo que cada ejecución solo procesa las páginas con novedades.
+ * </p>
  */
 
 @Service
@@ -19,14 +53,28 @@ public class TaskSchedulerService {
     private final static Logger log = LoggerFactory.getLogger(TaskSchedulerService.class);
     private final TaskScheduler taskScheduler;
     private final ScrapingService scrapingService;
-    private ScheduledFuture<?> scheduledTask;
+    private final ExecutorService jobExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("scraping-job-", 0).factory());
+    private final AtomicInteger pendingRuns = new AtomicInteger();
+    private final int maxPendingRuns;
 
+    private final Map<String, ScrapingJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, Thread> runningThreads = new ConcurrentHashMap<>();
+    private final Map<String, ScrapeWatermark> watermarks = new ConcurrentHashMap<>();
+    private final ScrapingProperties.Jobs config;
+    private volatile boolean stopped;
 
 
-    public TaskSchedulerService(TaskScheduler taskScheduler, ScrapingService scrapingService) {
+    public TaskSchedulerService(TaskScheduler taskScheduler, ScrapingService scrapingService,
+                                ScrapingProperties properties, ScrapingMetrics scrapingMetrics) {
         this.taskScheduler = taskScheduler;
         this.scrapingService = scrapingService;
-
+        this.config = properties.getJobs();
+        this.maxPendingRuns = config.getMaxPendingRuns();
+        scrapingMetrics.gauge("scraping.jobs.pending", "Ejecuciones de tareas programadas en curso o en espera",
+                this, TaskSchedulerService::getPendingRuns);
     }
 
     /**
@@ -34,35 +82,224 @@ public class TaskSchedulerService {
      *
      * @param parameters     Los parámetros de scraping.
      * @param intervalMillis Intervalo en milisegundos entre cada ejecución de la tarea.
+     * @return El identificador de la tarea programada.
+     */
+    public String scheduleScrapingTask(ScrapingParameters parameters, long intervalMillis) {
+        String jobId = UUID.randomUUID().toString();
+        ScrapingJob job = new ScrapingJob(jobId, parameters, intervalMillis, JobStatus.ACTIVE,
+                Instant.now(), null, 0, 0, 0);
+        jobs.put(jobId, job);
+        watermarks.put(jobId, config.isIncremental()
+                ? ScrapeWatermark.create(config.getIncrementalMaxItems())
+                : ScrapeWatermark.none());
+        scheduleFirstRun(job);
+        log.info("Nueva tarea {} programada con un intervalo de {} ms", jobId, intervalMillis);
+        return jobId;
+    }
+
+    /**
+     * @return Todas las tareas registradas, ordenadas por fecha de creación.
+     */
+    public List<ScrapingJob> listJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ScrapingJob::getCreatedAt))
+                .toList();
+    }
+
+    /**
+     * @param jobId El identificador de la tarea.
+     * @return La tarea solicitada.
+     * @throws JobNotFoundException Si la tarea no existe.
+     */
+    public ScrapingJob getJob(String jobId) {
+        ScrapingJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Pausa una tarea: deja de ejecutarse pero se conserva en el registro.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return La tarea pausada.
      */
-    public void scheduleScrapingTask(ScrapingParameters parameters, long intervalMillis) {
-        cancelScheduledTask();
-
-        Runnable task = () -> {
-            try {
-                scrapingService.performScraping(parameters);
-            } catch (Exception e) {
-                log.error("Error durante la ejecución del scraping: {}", e.getMessage());
+    public ScrapingJob pauseJob(String jobId) {
+        ScrapingJob job = getJob(jobId);
+        synchronized (job) {
+            if (job.getStatus() == JobStatus.ACTIVE) {
+                cancelFuture(jobId);
+                job.setStatus(JobStatus.PAUSED);
+                log.info("Tarea {} pausada.", jobId);
             }
-        };
+        }
+        return job;
+    }
 
-        Instant initialDelay = Instant.now().plusMillis(intervalMillis);
-        scheduledTask = taskScheduler.scheduleWithFixedDelay(task, initialDelay, Duration.ofMillis(intervalMillis));
-        log.info("Nueva tarea programada con un intervalo de {} ms", intervalMillis);
+    /**
+     * Reanuda una tarea pausada. La primera ejecución ocurre tras un intervalo completo.
+     *
+     * @param jobId El identificador de la tarea.
+     * @return La tarea reanudada.
+     */
+    public ScrapingJob resumeJob(String jobId) {
+        ScrapingJob job = getJob(jobId);
+        synchronized (job) {
+            if (job.getStatus() == JobStatus.PAUSED) {
+                job.setStatus(JobStatus.ACTIVE);
+                scheduleNextRun(job, job.getIntervalMillis());
+                log.info("Tarea {} reanudada.", jobId);
+            }
+        }
+        return job;
     }
 
+    /**
+     * Cancela una tarea y la elimina del registro.
+     * Si está ejecutándose, se interrumpe.
+     *
+     * @param jobId El identificador de la tarea.
+     */
+    public void cancelJob(String jobId) {
+        ScrapingJob job = jobs.remove(jobId);
+        if (job == null) {
+            throw new JobNotFoundException(jobId);
+        }
+        cancelFuture(jobId);
+        watermarks.remove(jobId);
+        Thread runningThread = runningThreads.get(jobId);
+        if (runningThread != null) {
+            runningThread.interrupt();
+        }
+        log.info("Tarea programada {} cancelada.", jobId);
+    }
 
     /**
-     * Cancela cualquier tarea de scraping previamente programada.
-     * Se asegura de que cualquier tarea pendiente que no haya sido ejecutada o que aún esté en ejecución,
-     * sea cancelada antes de iniciar una nueva tarea.
+     * @return El número de ejecuciones en curso o esperando permisos de recursos.
      */
-    public void cancelScheduledTask() {
+    public int getPendingRuns() {
+        return pendingRuns.get();
+    }
 
-        if(scheduledTask != null && !scheduledTask.isCancelled()) {
-            scheduledTask.cancel(true);
-            log.info("Tarea programada cancelada.");
+    /**
+     * Cancela todas las tareas programadas e interrumpe las ejecuciones en curso al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        scheduledTasks.keySet().forEach(this::cancelFuture);
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Programa la primera ejecución de la tarea. Se añade un pequeño desfase aleatorio para que muchas tareas
+     * con el mismo intervalo no arranquen todas a la vez.
+     */
+    private void scheduleFirstRun(ScrapingJob job) {
+        long intervalMillis = job.getIntervalMillis();
+        long jitter = ThreadLocalRandom.current().nextLong(Math.max(1, intervalMillis / 10));
+        scheduleNextRun(job, intervalMillis + jitter);
+    }
+
+    /**
+     * Programa el siguiente despacho de la tarea si sigue activa. Solo hay un despacho programado por tarea:
+     * si ya había otro, se cancela.
+     */
+    private void scheduleNextRun(ScrapingJob job, long delayMillis) {
+        synchronized (job) {
+            if (stopped || job.getStatus() != JobStatus.ACTIVE || jobs.get(job.getId()) != job) {
+                return;
+            }
+            ScheduledFuture<?> future = taskScheduler.schedule(() -> dispatch(job.getId()),
+                    Instant.now().plus(Duration.ofMillis(delayMillis)));
+            ScheduledFuture<?> previous = scheduledTasks.put(job.getId(), future);
+            if (previous != null && previous != future) {
+                previous.cancel(false);
+            }
         }
+    }
 
+    /**
+     * Lanza una ejecución de la tarea en un hilo virtual, salvo que la anterior siga en curso
+     * o que ya haya demasiadas ejecuciones pendientes. Al terminar, la ejecución programa la siguiente.
+     */
+    private void dispatch(String jobId) {
+        ScrapingJob job = jobs.get(jobId);
+        if (job == null || job.getStatus() != JobStatus.ACTIVE) {
+            return;
+        }
+        if (!runningJobs.add(jobId)) {
+            // La ejecución en curso programará la siguiente al terminar
+            log.warn("La tarea {} sigue en ejecución, se omite este intervalo.", jobId);
+            return;
+        }
+        if (pendingRuns.incrementAndGet() > maxPendingRuns) {
+            pendingRuns.decrementAndGet();
+            runningJobs.remove(jobId);
+            log.warn("Demasiadas ejecuciones pendientes, se omite la ejecución de la tarea {}.", jobId);
+            scheduleNextRun(job, job.getIntervalMillis());
+            return;
+        }
+        jobExecutor.execute(() -> run(job));
+    }
+
+    private void run(ScrapingJob job) {
+        if (jobs.get(job.getId()) != job) {
+            // La tarea se canceló antes de empezar
+            pendingRuns.decrementAndGet();
+            runningJobs.remove(job.getId());
+            return;
+        }
+        runningThreads.put(job.getId(), Thread.currentThread());
+        try {
+            ScrapeWatermark watermark = watermarks.getOrDefault(job.getId(), ScrapeWatermark.none());
+            AtomicReference<FailureType> failure = new AtomicReference<>();
+            ScrapeListener listener = new ScrapeListener() {
+                @Override
+                public void onPage(int pageNumber, List<Product> products) {
+                }
+
+                @Override
+                public void onFailure(FailureType type) {
+                    failure.set(type);
+                }
+            };
+            ScrapingResult result = scrapingService.performScraping(job.getParameters(), watermark, listener)
+                    .orElse(new ScrapingResult(List.of()));
+            synchronized (job) {
+                job.setLastProductCount(result.getProducts().size());
+                if (failure.get() != null) {
+                    job.setFailures(job.getFailures() + 1);
+                }
+            }
+            if (failure.get() != null) {
+                log.warn("La ejecución de la tarea {} terminó sin productos por un fallo: {}", job.getId(), failure.get());
+            }
+        } catch (HostUnavailableException e) {
+            // El sitio sigue fallando: la ejecución se omite sin abrir el navegador
+            log.warn("Se omite la ejecución de la tarea {}: {}", job.getId(), e.getMessage());
+        } catch (Exception e) {
+            synchronized (job) {
+                job.setFailures(job.getFailures() + 1);
+            }
+            log.error("Error durante la ejecución del scraping de la tarea {}: {}", job.getId(), e.getMessage());
+        } finally {
+            synchronized (job) {
+                job.setRuns(job.getRuns() + 1);
+                job.setLastRunAt(Instant.now());
+            }
+            runningThreads.remove(job.getId());
+            runningJobs.remove(job.getId());
+            pendingRuns.decrementAndGet();
+            scheduleNextRun(job, job.getIntervalMillis());
+        }
+    }
+
+    private void cancelFuture(String jobId) {
+        ScheduledFuture<?> future = scheduledTasks.remove(jobId);
+        if (future != null && !future.isCancelled()) {
+            future.cancel(true);
+        }
     }
 }
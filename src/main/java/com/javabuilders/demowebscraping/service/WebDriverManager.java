@@ -1,17 +1,43 @@
 package com.javabuilders.demowebscraping.service;
-import com.javabuilders.demowebscraping.model.ScrapingParameters;
+
 import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumDriverLogLevel;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+
 /**
  * Servicio para gestionar la configuración y el ciclo de vida de instancias de WebDriver.
  */
 @Service
 public class WebDriverManager implements IBrowserDriver{
 
+    private final ResourceBlocker resourceBlocker;
+    private final ScrapingMetrics scrapingMetrics;
+    private final HostRateLimiter hostRateLimiter;
+    private final BrowserProcessWatchdog processWatchdog;
+
+    /**
+     * Constructor que inyecta el componente que bloquea los recursos innecesarios de cada página,
+     * el de métricas, el que regula el ritmo de peticiones a cada sitio y el que vigila los procesos del navegador.
+     *
+     * @param resourceBlocker El componente de bloqueo de recursos.
+     * @param scrapingMetrics El componente que registra la duración de cada fase.
+     * @param hostRateLimiter El componente que decide cuándo se puede navegar a cada sitio.
+     * @param processWatchdog El componente que mide y limpia los procesos de cada sesión.
+     */
+    public WebDriverManager(ResourceBlocker resourceBlocker, ScrapingMetrics scrapingMetrics,
+                            HostRateLimiter hostRateLimiter, BrowserProcessWatchdog processWatchdog) {
+        this.resourceBlocker = resourceBlocker;
+        this.scrapingMetrics = scrapingMetrics;
+        this.hostRateLimiter = hostRateLimiter;
+        this.processWatchdog = processWatchdog;
+    }
+
     /**
      * Inicializa y configura una nueva instancia de WebDriver con las opciones especificadas.
      *
@@ -51,24 +77,54 @@ public class WebDriverManager implements IBrowserDriver{
         //1. Modo headless: el navegador no se abre visualmente (ideal para pruebas automáticas)
         //options.addArguments("--headless");
 
-        return new ChromeDriver(options);
+        // El servicio se crea aquí para conocer su puerto y localizar su proceso; la ruta de su registro
+        // marca el proceso como de esta aplicación
+        ChromeDriverService.Builder serviceBuilder = new ChromeDriverService.Builder()
+                .withLogLevel(ChromiumDriverLogLevel.WARNING)
+                .withAppendLog(true);
+        File logFile = processWatchdog.driverLogFile();
+        if (logFile != null) {
+            serviceBuilder.withLogFile(logFile);
+        }
+        ChromeDriverService service = serviceBuilder.build();
+        ChromeDriver driver = new ChromeDriver(service, options);
+        processWatchdog.register(driver, service.getUrl().getPort());
+        return driver;
     }
 
     /**
-     * Conecta el WebDriver a la URL especificada en los parámetros de scraping.
+     * Inicia un WebDriver, le aplica el bloqueo de recursos del sitio y lo conecta a la URL especificada.
      *
-     * @param parameters Los parámetros que incluyen la URL del sitio a scrapear.
+     * @param url La URL del sitio a scrapear.
      * @return Un objeto {@link WebDriver} que ha navegado a la URL proporcionada.
      */
     @Override
-    public WebDriver connectDriverToUrl(ScrapingParameters parameters) {
-        WebDriver driver = initializeWebDriver(); // Inicializar el driver
-        driver.get(parameters.getUrl()); // Navegar a la URL especificada
-        return driver;
+    public WebDriver connectDriverToUrl(String url) {
+        WebDriver driver = scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.DRIVER_START,
+                this::initializeWebDriver); // Inicializar el driver
+        try {
+            resourceBlocker.apply(driver, url);
+            // Navegar a la URL especificada cuando lo permita el ritmo del sitio
+            hostRateLimiter.navigate(driver, url);
+            return driver;
+        } catch (RuntimeException e) {
+            closeDriver(driver);
+            throw e;
+        }
     }
 
 
 
+    /**
+     * Cierra el navegador al terminar el scraping.
+     *
+     * @param driver El WebDriver que se desea liberar. Puede ser {@code null}.
+     */
+    @Override
+    public void releaseDriver(WebDriver driver) {
+        scrapingMetrics.time(ScrapingMetrics.BROWSER, ScrapingMetrics.DRIVER_RELEASE, () -> closeDriver(driver));
+    }
+
     /**
      * Cierra el WebDriver para liberar recursos.
      *
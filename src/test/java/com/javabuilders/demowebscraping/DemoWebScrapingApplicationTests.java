@@ -1,11 +1,27 @@
 package com.javabuilders.demowebscraping;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class DemoWebScrapingApplicationTests {
 
+    // Los archivos que la aplicación crea al arrancar van a un directorio temporal, no al de trabajo
+    @TempDir
+    static Path dataDirectory;
+
+    @DynamicPropertySource
+    static void dataProperties(DynamicPropertyRegistry registry) {
+        registry.add("scraping.history.directory", () -> dataDirectory.resolve("history").toString());
+        registry.add("scraping.dedup.file", () -> dataDirectory.resolve("history/last-prices.bin").toString());
+        registry.add("scraping.watchdog.driver-log-directory", () -> dataDirectory.resolve("chromedriver").toString());
+    }
+
     @Test
     void contextLoads() {
     }
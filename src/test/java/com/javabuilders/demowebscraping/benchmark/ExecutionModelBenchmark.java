@@ -0,0 +1,116 @@
+package com.javabuilders.demowebscraping.benchmark;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.service.ResourcePermits;
+import com.javabuilders.demowebscraping.service.ScrapingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el modelo de ejecución anterior (un pool fijo de hilos de plataforma, donde cada tarea ocupa un hilo
+ * mientras espera E/S) con el actual (un hilo virtual por tarea), ambos con la misma concurrencia total.
+ * <p>
+ * En los dos modelos las tareas piden los mismos permisos de {@link ResourcePermits}, con {@code concurrency}
+ * permisos en total, y el pool de plataforma tiene tantos hilos como permisos. Así la diferencia medida se debe
+ * al modelo de hilos y no a que uno de ellos admita más tareas a la vez. En el pool de plataforma, una tarea que
+ * espera un permiso de navegador sigue ocupando un hilo que podría atender una descarga HTTP.
+ * </p>
+ * <p>
+ * Las tareas simulan scrapings con esperas bloqueantes: la mayoría son descargas HTTP cortas y una de cada
+ * {@value #BROWSER_EVERY} utiliza el navegador durante más tiempo. Cada invocación ejecuta un lote de
+ * {@code jobs} tareas y mide lo que tarda en completarse.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModelBenchmark {
+
+    // Una de cada BROWSER_EVERY tareas usa el navegador; el resto se descarga por HTTP
+    private static final int BROWSER_EVERY = 10;
+    private static final long HTTP_MILLIS = 10;
+    private static final long BROWSER_MILLIS = 30;
+
+    /**
+     * Modelos de ejecución comparados.
+     */
+    public enum Model {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private Model model;
+
+    // Permisos en total; una cuarta parte (al menos uno) son de navegador
+    @Param({"8", "64"})
+    private int concurrency;
+
+    @Param({"1000"})
+    private int jobs;
+
+    private ResourcePermits permits;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void createExecutor() {
+        ScrapingProperties properties = new ScrapingProperties();
+        int browserPermits = Math.max(1, concurrency / 4);
+        properties.getPermits().setBrowser(browserPermits);
+        properties.getPermits().setHttp(concurrency - browserPermits);
+        permits = new ResourcePermits(properties, new ScrapingMetrics(new SimpleMeterRegistry(), properties));
+        executor = model == Model.PLATFORM
+                ? Executors.newFixedThreadPool(concurrency)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void runJobs() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(jobs);
+        for (int i = 0; i < jobs; i++) {
+            boolean usesBrowser = i % BROWSER_EVERY == 0;
+            executor.execute(() -> {
+                try {
+                    simulateJob(usesBrowser);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void simulateJob(boolean usesBrowser) {
+        ResourcePermits.Resource resource = usesBrowser ? ResourcePermits.Resource.BROWSER : ResourcePermits.Resource.HTTP;
+        try (ResourcePermits.Permit permit = permits.acquire(resource)) {
+            Thread.sleep(usesBrowser ? BROWSER_MILLIS : HTTP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
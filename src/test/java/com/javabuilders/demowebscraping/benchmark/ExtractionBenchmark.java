@@ -0,0 +1,100 @@
+package com.javabuilders.demowebscraping.benchmark;
+
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.service.EbayProductExtractor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la extracción de productos de eBay a partir del HTML, como la realiza el motor HTTP,
+ * sobre páginas de resultados guardadas en {@code src/test/resources/fixtures}.
+ * <p>
+ * Se ejecuta con el perfil {@code benchmark}:
+ * </p>
+ * <pre>
+ * mvn -P benchmark verify -Djmh.include=ExtractionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ExtractionBenchmark {
+
+    private static final String BASE_URI = "https://www.ebay.com/sch/i.html?_nkw=laptop";
+
+    // Páginas de 60 productos (la cantidad por defecto de eBay) y de 240 (_ipg=240)
+    @Param({"ebay-search-60.html", "ebay-search-240.html"})
+    private String fixture;
+
+    private final EbayProductExtractor extractor = new EbayProductExtractor();
+    private String html;
+    private Document document;
+
+    @Setup
+    public void loadFixture() {
+        html = readFixture(fixture);
+        document = Jsoup.parse(html, BASE_URI);
+    }
+
+    /**
+     * Solo el análisis del HTML con Jsoup, para separar su coste del de la extracción.
+     */
+    @Benchmark
+    public Document parse() {
+        return Jsoup.parse(html, BASE_URI);
+    }
+
+    /**
+     * El recorrido completo de una página descargada: análisis del HTML y extracción de sus productos.
+     */
+    @Benchmark
+    public List<Product> parseAndExtract() {
+        return extractor.extractProducts(Jsoup.parse(html, BASE_URI));
+    }
+
+    /**
+     * La firma de contenido que calcula el modo incremental para saber si la página cambió.
+     */
+    @Benchmark
+    public String contentSignature() {
+        return extractor.contentSignature(document);
+    }
+
+    @Benchmark
+    public Optional<String> findNextPageUrl() {
+        return extractor.findNextPageUrl(document);
+    }
+
+    static String readFixture(String name) {
+        try (InputStream input = ExtractionBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+            if (input == null) {
+                throw new IllegalStateException("No se encontró el fixture " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.javabuilders.demowebscraping.benchmark;
+
+import com.javabuilders.demowebscraping.model.ParsedPrice;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.service.ExtractorFactory;
+import com.javabuilders.demowebscraping.service.IProductExtractor;
+import com.javabuilders.demowebscraping.service.IntervalParser;
+import com.javabuilders.demowebscraping.service.PriceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las operaciones cortas que se repiten en cada solicitud o en cada producto: la elección del extractor,
+ * la conversión del intervalo de las tareas programadas y la interpretación del texto de los precios.
+ * <p>
+ * Cada benchmark recorre en orden un conjunto fijo de entradas, de modo que el resultado no depende
+ * de un único valor que el JIT pueda especializar.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParsingBenchmark {
+
+    private static final ScrapingParameters[] PARAMETERS = {
+            new ScrapingParameters("https://www.ebay.com/sch/i.html?_nkw=laptop&_sacat=0", null, 1),
+            new ScrapingParameters("https://WWW.EBAY.COM/sch/i.html?_nkw=Monitor+27&_pgn=3", "5min", 3),
+            new ScrapingParameters("https://www.ebay.com/sch/i.html?_nkw=rtx+4070&_ipg=240&LH_BIN=1", "1h", 10)
+    };
+
+    private static final String[] INTERVALS = {"1min", "5min", " 10MIN ", "30min", "1h"};
+
+    // Formatos de precio que muestra eBay, incluidos rangos y separadores de miles
+    private static final String[] PRICES = {
+            "$12.99", "$1,299.00", "US $349.95", "$129.99 to $189.99", "C $74.50",
+            "EUR 1.234,50", "£18.00", "MXN $2,499.00", "$0.99", "AU $1,049.00 to AU $1,299.00"
+    };
+
+    private final IntervalParser intervalParser = new IntervalParser();
+    private int next;
+
+    @Benchmark
+    public IProductExtractor extractorLookup() {
+        return ExtractorFactory.getProductExtractor(PARAMETERS[next++ % PARAMETERS.length]);
+    }
+
+    @Benchmark
+    public long parseInterval() {
+        return intervalParser.parseToMillis(INTERVALS[next++ % INTERVALS.length]);
+    }
+
+    @Benchmark
+    public Optional<ParsedPrice> parsePrice() {
+        return PriceParser.parse(PRICES[next++ % PRICES.length]);
+    }
+}
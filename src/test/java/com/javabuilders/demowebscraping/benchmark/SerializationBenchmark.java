@@ -0,0 +1,85 @@
+package com.javabuilders.demowebscraping.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import com.javabuilders.demowebscraping.service.ProductCompactor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serialización a JSON de resultados de scraping grandes, como la realiza Spring al responder
+ * {@code POST /scraping} o {@code GET /latest-scraping}.
+ * <p>
+ * Los productos se generan con una semilla fija para que cada ejecución serialice exactamente los mismos datos.
+ * Se compara la lista de productos tal como la devuelve el extractor con la lista compacta que se almacena.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000"})
+    private int products;
+
+    // Configurado como el ObjectMapper que crea Spring Boot
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ScrapingResult plainResult;
+    private ScrapingResult compactResult;
+
+    @Setup
+    public void createResults() {
+        List<Product> productList = generateProducts(products);
+        plainResult = new ScrapingResult(productList);
+        compactResult = new ScrapingResult(ProductCompactor.compact(productList));
+    }
+
+    @Benchmark
+    public byte[] serializePlain() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(plainResult);
+    }
+
+    @Benchmark
+    public byte[] serializeCompact() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compactResult);
+    }
+
+    private static List<Product> generateProducts(int count) {
+        Random random = new Random(SEED);
+        Date timeStamp = new Date(1_700_000_000_000L);
+        List<Product> productList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long itemId = 100_000_000_000L + random.nextInt(Integer.MAX_VALUE);
+            String name = "Lenovo ThinkPad T" + (400 + random.nextInt(100)) + " i5 " + (8 << random.nextInt(3))
+                    + "GB RAM " + (128 << random.nextInt(4)) + "GB SSD Windows 11 Pro #" + i;
+            String price = "$" + (50 + random.nextInt(2000)) + "." + (10 + random.nextInt(90));
+            String link = "https://www.ebay.com/itm/" + itemId + "?hash=item" + Long.toHexString(itemId)
+                    + "&_trkparms=5373%3A0%7C5374%3A" + i;
+            productList.add(new Product(name, price, link, timeStamp));
+        }
+        return productList;
+    }
+}
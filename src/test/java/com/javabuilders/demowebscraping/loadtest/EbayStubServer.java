@@ -0,0 +1,189 @@
+package com.javabuilders.demowebscraping.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Servidor HTTP local que sustituye a eBay en las pruebas de carga, para no depender de la red
+ * ni provocar límites de peticiones en el sitio real.
+ * <p>
+ * Sirve las páginas de resultados guardadas en {@code src/test/resources/fixtures}, con el mismo marcado
+ * {@code .s-item__*}, bajo la ruta {@code /www.ebay.com/sch/i.html}, de modo que {@code ExtractorFactory}
+ * elige {@code EbayProductExtractor} para sus URL. El parámetro {@code _pgn} selecciona la página: los enlaces
+ * de paginación apuntan al propio servidor, los identificadores de producto cambian en cada página y a partir
+ * de la última página solo se devuelven resultados vacíos. Con {@code _ipg=240} se sirve la página de 240 productos.
+ * </p>
+ * <p>
+ * Cada respuesta se retrasa {@code latency} más un valor aleatorio de hasta {@code jitter}, y una fracción
+ * {@code errorRate} de las peticiones responde con {@code errorStatus} (por ejemplo 503 o 429).
+ * </p>
+ */
+public class EbayStubServer implements AutoCloseable {
+
+    public static final String SEARCH_PATH = "/www.ebay.com/sch/i.html";
+
+    private static final String ORIGINAL_BASE = "https://www.ebay.com/";
+    private static final Pattern PAGINATION = Pattern.compile("<nav class=\"pagination\".*?</nav>", Pattern.DOTALL);
+    private static final Pattern RESULTS = Pattern.compile("(<ul class=\"srp-results[^>]*>).*?(</ul>)", Pattern.DOTALL);
+    private static final Pattern QUERY_PARAM = Pattern.compile("(?:^|&)(_pgn|_ipg)=(\\d+)");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int pages;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final int errorStatus;
+    private final String smallPage;
+    private final String largePage;
+    private final String emptyPage;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Crea el servidor en un puerto libre de la interfaz local; se arranca con {@link #start()}.
+     *
+     * @param pages       Número de páginas con productos de cada búsqueda.
+     * @param latency     Retraso fijo de cada respuesta.
+     * @param jitter      Retraso aleatorio adicional máximo.
+     * @param errorRate   Fracción de peticiones que responden con error, entre 0 y 1.
+     * @param errorStatus Código HTTP de las respuestas con error.
+     */
+    public EbayStubServer(int pages, Duration latency, Duration jitter, double errorRate, int errorStatus)
+            throws IOException {
+        this.pages = pages;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext(SEARCH_PATH, this::handleSearch);
+
+        String base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/www.ebay.com/";
+        this.smallPage = readFixture("ebay-search-60.html").replace(ORIGINAL_BASE, base);
+        this.largePage = readFixture("ebay-search-240.html").replace(ORIGINAL_BASE, base);
+        this.emptyPage = RESULTS.matcher(smallPage).replaceFirst("$1$2");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @param query Parámetros de la búsqueda, por ejemplo {@code _nkw=laptop}.
+     * @return La URL de la búsqueda en este servidor.
+     */
+    public String searchUrl(String query) {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + SEARCH_PATH + "?" + query;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delayMillis = latency.toMillis() + (jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1));
+            Thread.sleep(delayMillis);
+
+            if (random.nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(errorStatus, -1);
+                return;
+            }
+
+            String query = exchange.getRequestURI().getRawQuery();
+            int page = Math.max(1, queryParam(query, "_pgn", 1));
+            int itemsPerPage = queryParam(query, "_ipg", 60);
+            byte[] body = renderPage(query, page, itemsPerPage).getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String renderPage(String query, int page, int itemsPerPage) {
+        if (page > pages) {
+            return PAGINATION.matcher(emptyPage).replaceFirst("");
+        }
+        String html = itemsPerPage >= 240 ? largePage : smallPage;
+        // Identificadores distintos en cada página para que los productos no se consideren repetidos
+        html = html.replace("/itm/", "/itm/" + page);
+        return PAGINATION.matcher(html).replaceFirst(Matcher.quoteReplacement(pagination(query, page)));
+    }
+
+    private String pagination(String query, int page) {
+        String previous = pageUrl(query, Math.max(1, page - 1));
+        String next = pageUrl(query, page + 1);
+        return "<nav class=\"pagination\" role=\"navigation\">"
+                + "<a class=\"pagination__previous icon-link\"" + (page == 1 ? " aria-disabled=\"true\"" : "")
+                + " href=\"" + previous + "\" aria-label=\"Ir a la página de búsqueda anterior\">Previous</a>"
+                + "<a class=\"pagination__next icon-link\"" + (page >= pages ? " aria-disabled=\"true\"" : "")
+                + " href=\"" + next + "\" aria-label=\"Ir a la página de búsqueda siguiente\">Next</a></nav>";
+    }
+
+    private String pageUrl(String query, int page) {
+        String withoutPage = query == null ? "" : query.replaceAll("(?:^|&)_pgn=\\d+", "").replaceFirst("^&", "");
+        String separator = withoutPage.isEmpty() ? "" : "&amp;";
+        return SEARCH_PATH + "?" + withoutPage.replace("&", "&amp;") + separator + "_pgn=" + page;
+    }
+
+    private static int queryParam(String query, String name, int defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+        Matcher matcher = QUERY_PARAM.matcher(query);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(name)) {
+                return Integer.parseInt(matcher.group(2));
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String readFixture(String name) {
+        try (InputStream input = EbayStubServer.class.getResourceAsStream("/fixtures/" + name)) {
+            if (input == null) {
+                throw new IllegalStateException("No se encontró el fixture " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
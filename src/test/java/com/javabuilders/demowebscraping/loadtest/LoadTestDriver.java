@@ -0,0 +1,220 @@
+package com.javabuilders.demowebscraping.loadtest;
+
+import com.javabuilders.demowebscraping.DemoWebScrapingApplication;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.service.IntervalSchedulerService;
+import com.javabuilders.demowebscraping.service.ScrapeListener;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Prueba de carga sin conexión: levanta {@link EbayStubServer} y la aplicación sin servidor web, y lanza
+ * {@code jobs} tareas simultáneas que repiten {@code iterations} scrapings a través de
+ * {@link IntervalSchedulerService}, como lo haría {@code POST /scraping} con {@code interval=once}.
+ * <p>
+ * Al terminar informa páginas y productos por segundo, percentiles 50 y 99 de la duración de cada scraping,
+ * errores inyectados por el servidor y, si se usó el navegador, la memoria residente máxima por proceso de Chrome
+ * (leída de {@code /proc}, solo en Linux). Se ejecuta con:
+ * </p>
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.javabuilders.demowebscraping.loadtest.LoadTestDriver \
+ *     jobs=50 iterations=20 pages=5 latency=80 jitter=40 error-rate=0.02 engine=http
+ * </pre>
+ * Con {@code engine=browser} se desactiva el motor HTTP y todas las páginas se procesan con Chrome. Sin
+ * {@code rate=} no se limita el ritmo de peticiones al servidor local; con él se prueba {@code HostRateLimiter}.
+ * Con {@code mode=tabs} las páginas de cada scraping se cargan en pestañas de un solo Chrome, para comparar la
+ * memoria con {@code mode=parallel} (un proceso por página).
+ */
+public class LoadTestDriver {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int jobs = Integer.parseInt(options.getOrDefault("jobs", "50"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "10"));
+        int pages = Integer.parseInt(options.getOrDefault("pages", "5"));
+        Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("latency", "80")));
+        Duration jitter = Duration.ofMillis(Long.parseLong(options.getOrDefault("jitter", "40")));
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+        int errorStatus = Integer.parseInt(options.getOrDefault("error-status", "503"));
+        boolean browser = "browser".equalsIgnoreCase(options.getOrDefault("engine", "http"));
+        // Peticiones por segundo permitidas al servidor local; sin indicar, el ritmo no se limita
+        String rate = options.get("rate");
+        String mode = options.getOrDefault("mode", "parallel").toUpperCase(Locale.ROOT);
+
+        try (EbayStubServer server = new EbayStubServer(pages, latency, jitter, errorRate, errorStatus)) {
+            server.start();
+            try (ConfigurableApplicationContext context = startApplication(browser, rate, mode)) {
+                IntervalSchedulerService schedulerService = context.getBean(IntervalSchedulerService.class);
+                String url = server.searchUrl("_nkw=laptop&_sacat=0");
+
+                // Calentamiento: una ejecución para cargar clases y abrir conexiones
+                schedulerService.handleScrapingRequest(new ScrapingParameters(url, "once", pages));
+
+                run(schedulerService, url, jobs, iterations, pages, server);
+            }
+        }
+    }
+
+    private static void run(IntervalSchedulerService schedulerService, String url, int jobs, int iterations,
+                            int pages, EbayStubServer server) throws InterruptedException {
+        AtomicLong pageCount = new AtomicLong();
+        AtomicLong productCount = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        ScrapeListener listener = (pageNumber, products) -> {
+            pageCount.incrementAndGet();
+            productCount.addAndGet(products.size());
+        };
+
+        BrowserMemorySampler sampler = new BrowserMemorySampler();
+        ScheduledExecutorService samplerExecutor = Executors.newSingleThreadScheduledExecutor();
+        samplerExecutor.scheduleAtFixedRate(sampler::sample, 0, 250, TimeUnit.MILLISECONDS);
+        long requestsBefore = server.getRequests();
+        long errorsBefore = server.getErrors();
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int job = 0; job < jobs; job++) {
+                workers.execute(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        long jobStart = System.nanoTime();
+                        try {
+                            List<Product> products = schedulerService
+                                    .handleScrapingRequest(new ScrapingParameters(url, "once", pages), listener)
+                                    .getProducts();
+                            if (products.isEmpty()) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - jobStart);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        samplerExecutor.shutdownNow();
+        samplerExecutor.awaitTermination(1, TimeUnit.SECONDS);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("Tareas simultáneas: %d, scrapings: %d (%d sin productos), duración: %.1f s%n",
+                jobs, sorted.length, failures.get(), seconds);
+        System.out.printf("Páginas/s: %.1f, productos/s: %.1f%n", pageCount.get() / seconds, productCount.get() / seconds);
+        System.out.printf("Duración de cada scraping: p50 %d ms, p99 %d ms, máx %d ms%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        System.out.printf("Peticiones al servidor: %d, errores inyectados: %d%n",
+                server.getRequests() - requestsBefore, server.getErrors() - errorsBefore);
+        sampler.report();
+    }
+
+    private static ConfigurableApplicationContext startApplication(boolean browser, String rate, String mode) {
+        return new SpringApplicationBuilder(DemoWebScrapingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.com.javabuilders=WARN",
+                        "scraping.http.enabled=" + !browser,
+                        "scraping.pool.prewarm=0",
+                        "scraping.pagination.mode=" + mode,
+                        rate == null ? "scraping.rate-limit.enabled=false" : "scraping.rate-limit.rate=" + rate,
+                        // Todas las tareas simultáneas deben ejecutarse: se mide el rendimiento, no el rechazo
+                        "scraping.admission.enabled=false",
+                        "scraping.cache.enabled=false",
+                        // Sin escrituras en disco para no medir el historial ni contaminar el de producción
+                        "scraping.history.enabled=false",
+                        "scraping.dedup.cross-run=false")
+                .run();
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))] / 1_000_000;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator).trim().toLowerCase(), arg.substring(separator + 1).trim());
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Mide la memoria residente de los procesos de Chrome que descienden de esta JVM.
+     * Un navegador es el proceso principal de Chrome (sin {@code --type=}); sus procesos de renderizado,
+     * GPU y red se suman a su memoria.
+     */
+    private static class BrowserMemorySampler {
+
+        private final LongAccumulator peakRssKb = new LongAccumulator(Math::max, 0);
+        private final LongAccumulator peakBrowsers = new LongAccumulator(Math::max, 0);
+
+        void sample() {
+            long rssKb = 0;
+            int browsers = 0;
+            for (ProcessHandle process : ProcessHandle.current().descendants().toList()) {
+                ProcessHandle.Info info = process.info();
+                String command = info.command().orElse("");
+                if (!command.contains("chrome") || command.contains("chromedriver")) {
+                    continue;
+                }
+                rssKb += residentKb(process.pid());
+                String[] arguments = info.arguments().orElse(new String[0]);
+                if (Arrays.stream(arguments).noneMatch(argument -> argument.startsWith("--type="))) {
+                    browsers++;
+                }
+            }
+            peakRssKb.accumulate(rssKb);
+            peakBrowsers.accumulate(browsers);
+        }
+
+        void report() {
+            long browsers = peakBrowsers.get();
+            if (browsers == 0) {
+                System.out.println("Memoria por navegador: no se utilizó Chrome");
+                return;
+            }
+            System.out.printf("Memoria de Chrome: máx %d MB con %d navegadores, %d MB por navegador%n",
+                    peakRssKb.get() / 1024, browsers, peakRssKb.get() / 1024 / browsers);
+        }
+
+        private static long residentKb(long pid) {
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                    if (line.startsWith("VmRSS:")) {
+                        return Long.parseLong(line.replaceAll("\\D", ""));
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // El proceso terminó mientras se leía
+            }
+            return 0;
+        }
+    }
+}
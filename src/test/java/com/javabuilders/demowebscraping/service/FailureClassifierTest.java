@@ -0,0 +1,61 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.exception.ChallengePageException;
+import com.javabuilders.demowebscraping.exception.ScrapingExecutionException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FailureClassifierTest {
+
+    @Test
+    void classifiesKnownErrors() {
+        assertThat(FailureClassifier.classify(new ChallengePageException("https://www.ebay.com")))
+                .isEqualTo(FailureType.CHALLENGE);
+        assertThat(FailureClassifier.classify(new TimeoutException("lento"))).isEqualTo(FailureType.TIMEOUT);
+        assertThat(FailureClassifier.classify(new SocketTimeoutException())).isEqualTo(FailureType.TIMEOUT);
+        assertThat(FailureClassifier.classify(new NoSuchSessionException("cerrada")))
+                .isEqualTo(FailureType.DRIVER_CRASH);
+        assertThat(FailureClassifier.classify(new NoSuchElementException("sin productos")))
+                .isEqualTo(FailureType.NO_ELEMENTS);
+        assertThat(FailureClassifier.classify(new CancellationException())).isEqualTo(FailureType.CANCELLED);
+        assertThat(FailureClassifier.classify(new IOException("conexión rechazada"))).isEqualTo(FailureType.NETWORK);
+        assertThat(FailureClassifier.classify(new IllegalStateException())).isEqualTo(FailureType.OTHER);
+    }
+
+    @Test
+    void recognizesABrowserCrashByItsMessage() {
+        assertThat(FailureClassifier.classify(new WebDriverException("unknown error: Chrome not reachable")))
+                .isEqualTo(FailureType.DRIVER_CRASH);
+        assertThat(FailureClassifier.classify(new WebDriverException("unknown error: element click intercepted")))
+                .isEqualTo(FailureType.OTHER);
+    }
+
+    @Test
+    void serverErrorsFromAnHtmlPageAreNetworkFailures() {
+        String message = "La página https://www.ebay.com respondió con el código 503";
+
+        assertThat(FailureClassifier.classify(new ScrapingExecutionException(message, new IOException(message))))
+                .isEqualTo(FailureType.NETWORK);
+        assertThat(FailureClassifier.classify(new ScrapingExecutionException(message)))
+                .isEqualTo(FailureType.OTHER);
+    }
+
+    @Test
+    void looksThroughWrappedCauses() {
+        Throwable wrapped = new CompletionException(
+                new ScrapingExecutionException("Error al scrapear", new TimeoutException("lento")));
+
+        assertThat(FailureClassifier.classify(wrapped)).isEqualTo(FailureType.TIMEOUT);
+    }
+}
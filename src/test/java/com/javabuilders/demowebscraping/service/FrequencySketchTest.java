@@ -0,0 +1,50 @@
+package com.javabuilders.demowebscraping.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsRequestsPerKey() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("frecuente");
+        }
+        sketch.increment("unica");
+
+        assertThat(sketch.frequency("frecuente")).isEqualTo(5);
+        assertThat(sketch.frequency("unica")).isEqualTo(1);
+        assertThat(sketch.frequency("nunca")).isZero();
+    }
+
+    @Test
+    void countersSaturateAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 40; i++) {
+            sketch.increment("frecuente");
+        }
+
+        assertThat(sketch.frequency("frecuente")).isEqualTo(15);
+    }
+
+    @Test
+    void halvesAllCountersAfterTheSamplePeriod() {
+        // Con 16 entradas, los contadores se dividen a la mitad tras 160 sumas
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("frecuente");
+        }
+        for (int i = 0; i < 151; i++) {
+            sketch.increment("clave-" + i);
+        }
+        // Las colisiones pueden sobrestimar la frecuencia, nunca subestimarla
+        int before = sketch.frequency("frecuente");
+        assertThat(before).isGreaterThanOrEqualTo(8);
+
+        sketch.increment("clave-151");
+
+        assertThat(sketch.frequency("frecuente")).isBetween(before / 2 - 1, (before + 1) / 2);
+    }
+}
@@ -0,0 +1,140 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.HostUnavailableException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HostCircuitBreakerTest {
+
+    private static final String URL = "https://www.ebay.com/sch/i.html?_nkw=camara";
+    private static final String OTHER_HOST = "https://example.com/productos";
+
+    private ScrapingProperties properties;
+    private HostCircuitBreaker circuitBreaker;
+    // Reloj simulado en nanosegundos, que solo avanza con advance()
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        properties.getResilience().setFailureThreshold(2);
+        properties.getResilience().setOpenDuration(Duration.ofMillis(50));
+        properties.getResilience().setMaxOpenDuration(Duration.ofMillis(150));
+        circuitBreaker = new HostCircuitBreaker(properties, new ScrapingMetrics(new SimpleMeterRegistry(), properties),
+                now::get);
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresOnlyForThatHost() {
+        circuitBreaker.onFailure(URL, FailureType.TIMEOUT);
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.CLOSED);
+
+        circuitBreaker.onFailure(URL, FailureType.TIMEOUT);
+
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquire(URL)).isInstanceOf(HostUnavailableException.class);
+        circuitBreaker.acquire(OTHER_HOST);
+    }
+
+    @Test
+    void aSuccessResetsTheFailureCount() {
+        circuitBreaker.onFailure(URL, FailureType.TIMEOUT);
+        circuitBreaker.onSuccess(URL);
+        circuitBreaker.onFailure(URL, FailureType.TIMEOUT);
+
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aChallengePageOpensTheCircuitAtOnce() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+
+        assertThat(circuitBreaker.isOpen(URL)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = FailureType.class, names = {"CANCELLED", "NO_ELEMENTS", "DRIVER_CRASH", "OTHER"})
+    void failuresThatDoNotComeFromTheSiteDoNotCount(FailureType failure) {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onFailure(URL, failure);
+        }
+
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void staysOpenUntilTheOpenDurationElapses() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+
+        advance(Duration.ofMillis(49));
+        assertThatThrownBy(() -> circuitBreaker.acquire(URL)).isInstanceOf(HostUnavailableException.class);
+        advance(Duration.ofMillis(1));
+        circuitBreaker.acquire(URL);
+    }
+
+    @Test
+    void admitsASingleProbeAndClosesWhenItSucceeds() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+        advance(Duration.ofMillis(50));
+
+        circuitBreaker.acquire(URL);
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> circuitBreaker.acquire(URL)).isInstanceOf(HostUnavailableException.class);
+
+        circuitBreaker.onSuccess(URL);
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.CLOSED);
+        circuitBreaker.acquire(URL);
+    }
+
+    @Test
+    void aFailedProbeReopensForTwiceAsLong() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+        advance(Duration.ofMillis(50));
+        circuitBreaker.acquire(URL);
+
+        circuitBreaker.onFailure(URL, FailureType.TIMEOUT);
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.OPEN);
+
+        // Con 50 ms de apertura ya se admitiría otra prueba; con el doble, todavía no
+        advance(Duration.ofMillis(99));
+        assertThatThrownBy(() -> circuitBreaker.acquire(URL)).isInstanceOf(HostUnavailableException.class);
+        advance(Duration.ofMillis(1));
+        circuitBreaker.acquire(URL);
+    }
+
+    @Test
+    void aCancelledProbeLetsAnotherRunProbe() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+        advance(Duration.ofMillis(50));
+        circuitBreaker.acquire(URL);
+
+        circuitBreaker.onFailure(URL, FailureType.CANCELLED);
+
+        circuitBreaker.acquire(URL);
+        assertThat(circuitBreaker.stateOf(URL)).isEqualTo(HostCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        properties.getResilience().setCircuitBreakerEnabled(false);
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+
+        assertThat(circuitBreaker.isOpen(URL)).isFalse();
+        circuitBreaker.acquire(URL);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
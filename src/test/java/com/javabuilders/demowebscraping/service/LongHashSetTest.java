@@ -0,0 +1,59 @@
+package com.javabuilders.demowebscraping.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void addReportsWhetherTheValueWasNew() {
+        LongHashSet set = new LongHashSet();
+
+        assertThat(set.add(42)).isTrue();
+        assertThat(set.add(42)).isFalse();
+        assertThat(set.contains(42)).isTrue();
+        assertThat(set.contains(43)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void zeroIsAValidValue() {
+        // El 0 marca las casillas vacías de la tabla, así que se guarda aparte
+        LongHashSet set = new LongHashSet();
+
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEveryValueAfterGrowing() {
+        LongHashSet set = new LongHashSet(4);
+        for (long value = -5_000; value < 5_000; value++) {
+            set.add(value * 31);
+        }
+
+        assertThat(set.size()).isEqualTo(10_000);
+        for (long value = -5_000; value < 5_000; value++) {
+            assertThat(set.contains(value * 31)).isTrue();
+        }
+        assertThat(set.contains(1)).isFalse();
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongHashSet set = new LongHashSet();
+        set.add(0);
+        set.add(7);
+
+        set.clear();
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(7)).isFalse();
+        assertThat(set.add(7)).isTrue();
+    }
+}
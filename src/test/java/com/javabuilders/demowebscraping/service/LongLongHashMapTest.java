@@ -0,0 +1,79 @@
+package com.javabuilders.demowebscraping.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putReplacesThePreviousValue() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(42, 1);
+        map.put(42, 2);
+
+        assertThat(map.get(42, -1)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void getReturnsTheDefaultForMissingKeys() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThat(map.get(42, -1)).isEqualTo(-1);
+        assertThat(map.containsKey(42)).isFalse();
+    }
+
+    @Test
+    void zeroIsAValidKey() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0, 5);
+
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(0, -1)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsEveryEntryAfterGrowing() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = -5_000; key < 5_000; key++) {
+            map.put(key * 31, key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = -5_000; key < 5_000; key++) {
+            assertThat(map.get(key * 31, Long.MIN_VALUE)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0, 1);
+        map.put(7, 2);
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.get(7, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void forEachVisitsEveryEntryIncludingKeyZero() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0, 1);
+        map.put(7, 2);
+        map.put(-3, 3);
+        Map<Long, Long> visited = new HashMap<>();
+
+        map.forEach(visited::put);
+
+        assertThat(visited).containsOnly(entry(0L, 1L), entry(7L, 2L), entry(-3L, 3L));
+    }
+}
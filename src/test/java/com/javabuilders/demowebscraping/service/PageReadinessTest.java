@@ -0,0 +1,104 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageReadinessTest {
+
+    private static final String HOST = "www.ebay.com";
+
+    private PageReadiness readiness;
+
+    @BeforeEach
+    void setUp() {
+        ScrapingProperties properties = new ScrapingProperties();
+        properties.getReadiness().setPollInterval(Duration.ofMillis(10));
+        properties.getReadiness().setMinTimeout(Duration.ofMillis(50));
+        properties.getReadiness().setMaxTimeout(Duration.ofSeconds(5));
+        properties.getReadiness().setMinSamples(10);
+        properties.getReadiness().setWindow(100);
+        readiness = new PageReadiness(properties, new ScrapingMetrics(new SimpleMeterRegistry(), properties));
+    }
+
+    @Test
+    void usesTheMaximumUntilThereAreEnoughSamples() {
+        recordFastLoads(9);
+
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void learnsTheTimeoutFromTheObservedDurations() {
+        recordFastLoads(100);
+
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void theTimeoutGrowsBackAfterTheSiteSlowsDown() {
+        recordFastLoads(100);
+
+        readiness.recordTimeout(HOST, PageReadiness.Wait.PAGE_LOAD, Duration.ofMillis(300));
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofMillis(900));
+
+        readiness.recordTimeout(HOST, PageReadiness.Wait.PAGE_LOAD, Duration.ofMillis(900));
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofMillis(2_700));
+
+        readiness.recordTimeout(HOST, PageReadiness.Wait.PAGE_LOAD, Duration.ofMillis(2_700));
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void theTimeoutShrinksAgainOnceTheTimeoutsLeaveTheWindow() {
+        recordFastLoads(100);
+        readiness.recordTimeout(HOST, PageReadiness.Wait.PAGE_LOAD, Duration.ofMillis(300));
+
+        recordFastLoads(100);
+
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void aTimedOutWaitIsRecorded() {
+        recordFastLoads(100);
+        WebDriver driver = pageWithoutProducts();
+
+        assertThatThrownBy(() -> readiness.awaitElements(driver, By.cssSelector(".s-item")))
+                .isInstanceOf(TimeoutException.class);
+
+        assertThat(readiness.timeoutFor(HOST, PageReadiness.Wait.PAGE_LOAD)).isEqualTo(Duration.ofMillis(900));
+    }
+
+    private void recordFastLoads(int loads) {
+        for (int i = 0; i < loads; i++) {
+            readiness.record(HOST, PageReadiness.Wait.PAGE_LOAD, 100, false);
+        }
+    }
+
+    /**
+     * Navegador falso en una página de eBay en la que nunca aparecen los productos.
+     */
+    private static WebDriver pageWithoutProducts() {
+        return (WebDriver) Proxy.newProxyInstance(PageReadinessTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getCurrentUrl" -> "https://" + HOST + "/sch/i.html?_nkw=camara";
+                    case "findElement" -> throw new NoSuchElementException("sin productos");
+                    case "toString" -> "navegador de prueba";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
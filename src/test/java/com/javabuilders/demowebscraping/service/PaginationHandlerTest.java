@@ -0,0 +1,77 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PaginationHandlerTest {
+
+    private static final List<String> PAGE_URLS = List.of("pagina-1", "pagina-2", "pagina-3", "pagina-4");
+
+    private PaginationHandler paginationHandler;
+    private final Set<String> fetchedPages = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        paginationHandler = new PaginationHandler(new ScrapingProperties(), mock(ResourcePermits.class),
+                mock(PageReadiness.class), mock(ScrapingMetrics.class), mock(HostRateLimiter.class),
+                mock(ResourceBlocker.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        paginationHandler.shutdown();
+    }
+
+    @Test
+    void anIncrementalRunWithoutNewsOnlyFetchesTheFirstPage() {
+        List<Product> products = paginationHandler.scrapeAddressablePages(PAGE_URLS, pages(List.of()),
+                ScrapeWatermark.create(1_000), ScrapeListener.NONE);
+
+        assertThat(products).isEmpty();
+        assertThat(fetchedPages).containsExactly("pagina-1");
+    }
+
+    @Test
+    void anIncrementalRunFetchesTheRestOnceTheFirstPageHasNews() {
+        List<Product> products = paginationHandler.scrapeAddressablePages(PAGE_URLS, pages(List.of(product())),
+                ScrapeWatermark.create(1_000), ScrapeListener.NONE);
+
+        assertThat(products).hasSize(PAGE_URLS.size());
+        assertThat(fetchedPages).containsExactlyInAnyOrderElementsOf(PAGE_URLS);
+    }
+
+    @Test
+    void aFullRunFetchesAllPagesInParallel() {
+        List<Product> products = paginationHandler.scrapeAddressablePages(PAGE_URLS, pages(List.of(product())),
+                ScrapeWatermark.none(), ScrapeListener.NONE);
+
+        assertThat(products).hasSize(PAGE_URLS.size());
+        assertThat(fetchedPages).containsExactlyInAnyOrderElementsOf(PAGE_URLS);
+    }
+
+    /**
+     * Páginas que devuelven siempre los mismos productos y registran cuáles se descargaron.
+     */
+    private Function<String, List<Product>> pages(List<Product> products) {
+        return pageUrl -> {
+            fetchedPages.add(pageUrl);
+            return products;
+        };
+    }
+
+    private static Product product() {
+        return new Product("Producto", "$10.00", "https://www.ebay.com/itm/111111", new Date(0));
+    }
+}
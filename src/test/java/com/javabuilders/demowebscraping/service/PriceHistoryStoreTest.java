@@ -0,0 +1,121 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceHistoryStoreTest {
+
+    private static final String LINK = "https://www.ebay.com/itm/111111";
+
+    @TempDir
+    Path directory;
+
+    private ScrapingProperties properties;
+    private PriceHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        properties.getHistory().setDirectory(directory.toString());
+        store = new PriceHistoryStore(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void historyReturnsObservationsInTimeOrderIgnoringLinkParameters() {
+        store.append(List.of(observation("$12.00", 2_000), observation("$10.00", 1_000)));
+        store.append(List.of(new Product("Producto", "$11.00", LINK + "?_trkparms=x", new Date(3_000))));
+
+        assertThat(store.history(LINK, null, null))
+                .extracting(Product::getPrice)
+                .containsExactly("$10.00", "$12.00", "$11.00");
+    }
+
+    @Test
+    void historyIncludesTheStartAndExcludesTheEnd() {
+        store.append(List.of(observation("$10.00", 1_000), observation("$11.00", 2_000), observation("$12.00", 3_000)));
+
+        assertThat(store.history(LINK, Instant.ofEpochMilli(2_000), Instant.ofEpochMilli(3_000)))
+                .extracting(Product::getPrice)
+                .containsExactly("$11.00");
+    }
+
+    @Test
+    void historyIsEmptyForUnknownProducts() {
+        assertThat(store.history("https://www.ebay.com/itm/999999", null, null)).isEmpty();
+    }
+
+    @Test
+    void rollsSegmentsAndRebuildsTheIndexOnRestart() throws IOException {
+        properties.getHistory().setSegmentSize(DataSize.ofBytes(128));
+        store.close();
+        store = new PriceHistoryStore(properties);
+        for (int i = 0; i < 10; i++) {
+            store.append(List.of(observation("$" + i + ".00", 1_000 + i)));
+        }
+        store.close();
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        store = new PriceHistoryStore(properties);
+        assertThat(store.history(LINK, null, null)).hasSize(10);
+    }
+
+    @Test
+    void discardsATruncatedLastRecord() throws IOException {
+        store.append(List.of(observation("$10.00", 1_000)));
+        store.close();
+        // Simula una caída a mitad de escribir el siguiente registro
+        Files.write(segmentFiles().get(0), new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+
+        store = new PriceHistoryStore(properties);
+        store.append(List.of(observation("$11.00", 2_000)));
+
+        assertThat(store.history(LINK, null, null))
+                .extracting(Product::getPrice)
+                .containsExactly("$10.00", "$11.00");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1L << 31, 1L << 40})
+    void rejectsSegmentsThatCannotBeMapped(long segmentSize) {
+        properties.getHistory().setSegmentSize(DataSize.ofBytes(segmentSize));
+
+        assertThatThrownBy(() -> new PriceHistoryStore(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("segment-size");
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    private static Product observation(String price, long timestamp) {
+        return new Product("Producto", price, LINK, new Date(timestamp));
+    }
+}
@@ -0,0 +1,41 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.ParsedPrice;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceParserTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "$12.99             | 1299   | 1299   | USD",
+            "US $349.95         | 34995  | 34995  | USD",
+            "$1,299.00          | 129900 | 129900 | USD",
+            "EUR 1.234,50       | 123450 | 123450 | EUR",
+            "C $74.50           | 7450   | 7450   | CAD",
+            "£18.00             | 1800   | 1800   | GBP",
+            "$12.9              | 1290   | 1290   | USD",
+            "EUR 7,5            | 750    | 750    | EUR",
+            "$1.234             | 123400 | 123400 | USD",
+            "$1,234             | 123400 | 123400 | USD",
+            "$25                | 2500   | 2500   | USD",
+            "$129.99 to $189.99 | 12999  | 18999  | USD",
+            "$10.00 a $20.00    | 1000   | 2000   | USD",
+            "AU $1,049.00 to AU $1,299.00 | 104900 | 129900 | AUD",
+            "JPY 5000           | 500000 | 500000 | JPY"
+    })
+    void parsesAmountsRangesAndCurrencies(String text, long minCents, long maxCents, String currency) {
+        assertThat(PriceParser.parse(text)).contains(new ParsedPrice(minCents, maxCents, currency));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"Precio no disponible", "$", "$1234567890123456.00"})
+    void rejectsTextsWithoutAValidAmount(String text) {
+        assertThat(PriceParser.parse(text)).isEmpty();
+    }
+}
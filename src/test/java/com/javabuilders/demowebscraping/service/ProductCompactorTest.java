@@ -0,0 +1,50 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.CompactProductList;
+import com.javabuilders.demowebscraping.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCompactorTest {
+
+    @Test
+    void compactListReturnsTheSameProducts() {
+        Date batch = new Date(1_700_000_000_000L);
+        List<Product> products = List.of(
+                new Product("Laptop", "$999.99", "https://www.ebay.com/itm/123456789012?hash=item1c&_trkparms=abc", batch),
+                new Product("Laptop", "$12.9", "https://www.ebay.com/itm/laptop-usada/223456789012", batch),
+                new Product("Monitor", "$10.00 to $20.00", "https://example.com/producto?id=7", new Date(0)),
+                new Product("Sin fecha", "Consultar", "https://www.ebay.com/itm/323456789012", null));
+
+        CompactProductList compact = ProductCompactor.compact(products);
+
+        assertThat(compact).containsExactlyElementsOf(products);
+        assertThat(compact.get(3).getTimeStamp()).isNull();
+    }
+
+    @Test
+    void compactListKeepsParsedPricesAndItemIds() {
+        CompactProductList compact = ProductCompactor.compact(List.of(
+                new Product("A", "$10.00 to $20.00", "https://www.ebay.com/itm/123456789012?x=1", new Date(0)),
+                new Product("B", "Consultar", "https://example.com/producto", new Date(0))));
+
+        assertThat(compact.getItemId(0)).isEqualTo(123456789012L);
+        assertThat(compact.getMinCents(0)).isEqualTo(1000);
+        assertThat(compact.getMaxCents(0)).isEqualTo(2000);
+        assertThat(compact.getCurrency(0)).isEqualTo("USD");
+        assertThat(compact.getItemId(1)).isZero();
+        assertThat(compact.getMinCents(1)).isEqualTo(CompactProductList.NO_PRICE);
+    }
+
+    @Test
+    void compactingACompactListReturnsItUnchanged() {
+        CompactProductList compact = ProductCompactor.compact(List.of(
+                new Product("A", "$1.00", "https://www.ebay.com/itm/123456789012", new Date(0))));
+
+        assertThat(ProductCompactor.compact(compact)).isSameAs(compact);
+    }
+}
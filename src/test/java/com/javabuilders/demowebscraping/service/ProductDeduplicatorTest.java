@@ -0,0 +1,139 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDeduplicatorTest {
+
+    @TempDir
+    Path directory;
+
+    private ScrapingProperties properties;
+    private ProductDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        properties.getDedup().setFile(directory.resolve("last-prices.bin").toString());
+        deduplicator = new ProductDeduplicator(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deduplicator.close();
+    }
+
+    @Test
+    void deduplicateKeepsTheFirstOccurrenceInOrder() {
+        Product first = product(111111, "$10.00");
+        Product other = product(222222, "$20.00");
+        Product repeated = new Product("Patrocinado", "$10.00", "https://www.ebay.com/itm/111111?_trkparms=x", new Date(0));
+
+        assertThat(deduplicator.deduplicate(List.of(first, other, repeated))).containsExactly(first, other);
+    }
+
+    @Test
+    void deduplicateComparesProductsWithoutIdByLinkWithoutParameters() {
+        Product first = new Product("A", "$1.00", "https://example.com/producto?ref=1", new Date(0));
+        Product second = new Product("A", "$1.00", "https://example.com/producto?ref=2", new Date(0));
+
+        assertThat(deduplicator.deduplicate(List.of(first, second))).containsExactly(first);
+    }
+
+    @Test
+    void filterChangedKeepsOnlyNewProductsAndPriceChanges() {
+        assertThat(observe(product(111111, "$10.00"), product(222222, "$20.00"))).hasSize(2);
+
+        assertThat(observe(product(111111, "$10.00"), product(222222, "$25.00")))
+                .containsExactly(product(222222, "$25.00"));
+    }
+
+    @Test
+    void filterChangedRecordsAReturnToAnEarlierPrice() {
+        observe(product(111111, "$10.00"));
+        observe(product(111111, "$12.00"));
+
+        assertThat(observe(product(111111, "$10.00"))).containsExactly(product(111111, "$10.00"));
+        assertThat(observe(product(111111, "$10.00"))).isEmpty();
+    }
+
+    @Test
+    void pricesAreOnlyRememberedOnceRecorded() {
+        List<Product> products = List.of(product(111111, "$10.00"));
+
+        deduplicator.filterChanged(products);
+
+        assertThat(deduplicator.filterChanged(products)).hasSize(1);
+        deduplicator.recordPrices(products);
+        assertThat(deduplicator.filterChanged(products)).isEmpty();
+    }
+
+    @Test
+    void lastPricesSurviveARestart() {
+        observe(product(111111, "$10.00"));
+        observe(product(111111, "$12.00"));
+        deduplicator.close();
+
+        deduplicator = new ProductDeduplicator(properties);
+
+        assertThat(observe(product(111111, "$12.00"))).isEmpty();
+        assertThat(observe(product(111111, "$10.00"))).hasSize(1);
+    }
+
+    @Test
+    void replacedPricesAreCompactedAtStartup() throws IOException {
+        observe(product(111111, "$10.00"), product(222222, "$20.00"));
+        observe(product(111111, "$11.00"));
+        deduplicator.close();
+        assertThat(Files.size(lastPriceFile())).isEqualTo(3 * 16);
+
+        deduplicator = new ProductDeduplicator(properties);
+
+        assertThat(Files.size(lastPriceFile())).isEqualTo(2 * 16);
+        assertThat(observe(product(111111, "$11.00"), product(222222, "$20.00"))).isEmpty();
+    }
+
+    @Test
+    void theFileIsCompactedWhenReplacedPricesOutnumberCurrentOnes() throws IOException {
+        for (int cents = 0; cents < 100; cents++) {
+            observe(product(111111, "$10." + cents));
+        }
+
+        assertThat(Files.size(lastPriceFile())).isLessThanOrEqualTo(2 * 16);
+        assertThat(observe(product(111111, "$10.99"))).isEmpty();
+    }
+
+    @Test
+    void filterChangedStartsOverWhenTheLimitIsExceeded() {
+        properties.getDedup().setMaxItems(2);
+        observe(product(111111, "$10.00"), product(222222, "$20.00"));
+
+        assertThat(observe(product(111111, "$10.00"))).hasSize(1);
+    }
+
+    private List<Product> observe(Product... products) {
+        List<Product> changed = deduplicator.filterChanged(List.of(products));
+        deduplicator.recordPrices(changed);
+        return changed;
+    }
+
+    private Path lastPriceFile() {
+        return directory.resolve("last-prices.bin");
+    }
+
+    private static Product product(long itemId, String price) {
+        return new Product("Producto " + itemId, price, "https://www.ebay.com/itm/" + itemId, new Date(0));
+    }
+}
@@ -0,0 +1,129 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.InvalidParametersException;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ProductQuery;
+import com.javabuilders.demowebscraping.model.ProductQueryResult;
+import com.javabuilders.demowebscraping.model.ProductSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductIndexTest {
+
+    private ScrapingProperties properties;
+    private ProductIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        index = new ProductIndex(properties);
+    }
+
+    @Test
+    void tokensAreLowercaseWithoutAccents() {
+        assertThat(ProductIndex.tokens("Cámara NIKON-D750, cámara")).containsExactly("camara", "nikon", "d750");
+    }
+
+    @Test
+    void keywordsMustAllAppearInTheName() {
+        index.update(List.of(product(1, "Nikon D750 cámara", "$500.00"),
+                product(2, "Nikon lente", "$100.00"),
+                product(3, "Canon cámara", "$400.00")));
+
+        assertThat(names(index.query(query("camara nikon", null, null, ProductSort.NEWEST, null, 10))))
+                .containsExactly("Nikon D750 cámara");
+        assertThat(index.query(query("sony", null, null, ProductSort.NEWEST, null, 10)).getProducts()).isEmpty();
+    }
+
+    @Test
+    void filtersAndSortsByPrice() {
+        index.update(List.of(product(1, "A", "$5.00"), product(2, "B", "$1.00"),
+                product(3, "C", "$3.00"), product(4, "D", "Consultar")));
+
+        assertThat(names(index.query(query(null, 200L, null, ProductSort.PRICE_ASC, null, 10))))
+                .containsExactly("C", "A");
+        assertThat(names(index.query(query(null, null, null, ProductSort.PRICE_DESC, null, 10))))
+                .containsExactly("A", "C", "B");
+    }
+
+    @Test
+    void cursorPagesAreStableWhenProductsAreAdded() {
+        index.update(List.of(product(1, "A", "$1.00"), product(2, "B", "$2.00"), product(3, "C", "$3.00")));
+
+        ProductQueryResult first = index.query(query(null, null, null, ProductSort.NEWEST, null, 2));
+        assertThat(names(first)).containsExactly("C", "B");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        index.update(List.of(product(4, "D", "$4.00")));
+
+        ProductQueryResult second = index.query(query(null, null, null, ProductSort.NEWEST, first.getNextCursor(), 2));
+        assertThat(names(second)).containsExactly("A");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void priceCursorContinuesAfterTiedPrices() {
+        index.update(List.of(product(1, "A", "$1.00"), product(2, "B", "$1.00"), product(3, "C", "$1.00")));
+
+        ProductQueryResult first = index.query(query(null, null, null, ProductSort.PRICE_ASC, null, 2));
+        ProductQueryResult second = index.query(query(null, null, null, ProductSort.PRICE_ASC, first.getNextCursor(), 2));
+
+        assertThat(names(first)).containsExactly("A", "B");
+        assertThat(names(second)).containsExactly("C");
+    }
+
+    @Test
+    void aChangedProductReplacesItsPreviousDocument() {
+        index.update(List.of(product(1, "A", "$1.00")));
+        index.update(List.of(product(1, "A", "$2.00")));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.query(query(null, null, null, ProductSort.NEWEST, null, 10)).getProducts())
+                .extracting(Product::getPrice)
+                .containsExactly("$2.00");
+    }
+
+    @Test
+    void rebuildKeepsTheMostRecentlySeenProductsAndInvalidatesCursors() {
+        properties.getQuery().setMaxProducts(2);
+        index.update(List.of(product(1, "A", "$1.00"), product(2, "B", "$2.00")));
+        String cursor = index.query(query(null, null, null, ProductSort.NEWEST, null, 1)).getNextCursor();
+
+        index.update(List.of(product(1, "A", "$1.00"), product(3, "C", "$3.00")));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(names(index.query(query(null, null, null, ProductSort.NEWEST, null, 10)))).containsExactly("C", "A");
+        assertThatThrownBy(() -> index.query(query(null, null, null, ProductSort.NEWEST, cursor, 1)))
+                .isInstanceOf(InvalidParametersException.class);
+    }
+
+    @Test
+    void rejectsInvalidLimitsAndPriceRanges() {
+        assertThatThrownBy(() -> index.query(query(null, null, null, null, null, 0)))
+                .isInstanceOf(InvalidParametersException.class);
+        assertThatThrownBy(() -> index.query(query(null, 500L, 100L, null, null, 10)))
+                .isInstanceOf(InvalidParametersException.class);
+        assertThatThrownBy(() -> index.query(query(null, null, null, null, "no-es-un-cursor", 10)))
+                .isInstanceOf(InvalidParametersException.class);
+    }
+
+    private static ProductQuery query(String keywords, Long minCents, Long maxCents, ProductSort sort,
+                                      String cursor, int limit) {
+        return new ProductQuery(keywords, minCents, maxCents, sort, cursor, limit);
+    }
+
+    private static List<String> names(ProductQueryResult result) {
+        return result.getProducts().stream().map(Product::getName).toList();
+    }
+
+    private static Product product(long itemId, String name, String price) {
+        return new Product(name, price, "https://www.ebay.com/itm/" + itemId, new Date(0));
+    }
+}
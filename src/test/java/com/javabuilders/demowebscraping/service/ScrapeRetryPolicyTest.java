@@ -0,0 +1,97 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.exception.ChallengePageException;
+import com.javabuilders.demowebscraping.model.FailureType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScrapeRetryPolicyTest {
+
+    private static final String URL = "https://www.ebay.com/sch/i.html?_nkw=camara";
+
+    private ScrapingProperties properties;
+    private HostCircuitBreaker circuitBreaker;
+    private ScrapeRetryPolicy retryPolicy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        properties.getResilience().setMaxAttempts(3);
+        properties.getResilience().setInitialBackoff(Duration.ofMillis(2));
+        properties.getResilience().setMaxBackoff(Duration.ofMillis(10));
+        circuitBreaker = new HostCircuitBreaker(properties, new ScrapingMetrics(new SimpleMeterRegistry(), properties));
+        retryPolicy = new ScrapeRetryPolicy(properties, circuitBreaker);
+    }
+
+    @Test
+    void retriesTransientFailuresUntilOneSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryPolicy.execute(URL, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new TimeoutException("lento");
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void givesUpAfterTheMaximumAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute(URL, () -> {
+            attempts.incrementAndGet();
+            throw new TimeoutException("lento");
+        })).isInstanceOf(TimeoutException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void doesNotRetryPermanentFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute(URL, () -> {
+            attempts.incrementAndGet();
+            throw new ChallengePageException(URL);
+        })).isInstanceOf(ChallengePageException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void stopsRetryingOnceTheCircuitIsOpen() {
+        circuitBreaker.onFailure(URL, FailureType.CHALLENGE);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retryPolicy.execute(URL, () -> {
+            attempts.incrementAndGet();
+            throw new TimeoutException("lento");
+        })).isInstanceOf(TimeoutException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void backoffDoublesWithJitterUpToTheMaximum() {
+        properties.getResilience().setInitialBackoff(Duration.ofMillis(100));
+        properties.getResilience().setMaxBackoff(Duration.ofMillis(1_000));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.backoffMillis(1)).isBetween(50L, 100L);
+            assertThat(retryPolicy.backoffMillis(2)).isBetween(100L, 200L);
+            assertThat(retryPolicy.backoffMillis(3)).isBetween(200L, 400L);
+            assertThat(retryPolicy.backoffMillis(10)).isBetween(500L, 1_000L);
+            assertThat(retryPolicy.backoffMillis(64)).isBetween(500L, 1_000L);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeWatermarkTest {
+
+    @Test
+    void productsAreOnlyKnownOnceTheRunIsCommitted() {
+        ScrapeWatermark watermark = ScrapeWatermark.create(1000);
+        List<Product> page = List.of(product(100001), product(100002));
+
+        watermark.beginRun();
+        assertThat(watermark.retainUnseen(page)).hasSize(2);
+        // Un reintento dentro de la misma ejecución vuelve a ver los mismos productos como nuevos
+        assertThat(watermark.retainUnseen(page)).hasSize(2);
+        assertThat(watermark.isCaughtUp()).isFalse();
+        watermark.commitRun(page);
+
+        watermark.beginRun();
+        assertThat(watermark.retainUnseen(page)).isEmpty();
+        assertThat(watermark.isCaughtUp()).isTrue();
+    }
+
+    @Test
+    void productsDiscardedByTheRunStayUnseen() {
+        ScrapeWatermark watermark = ScrapeWatermark.create(1000);
+        Product kept = product(100001);
+        Product discarded = product(100002);
+
+        watermark.beginRun();
+        watermark.retainUnseen(List.of(kept));
+        watermark.retainUnseen(List.of(discarded));
+        assertThat(watermark.observedProducts()).containsExactly(kept, discarded);
+        watermark.commitRun(List.of(kept));
+
+        watermark.beginRun();
+        assertThat(watermark.observedProducts()).isEmpty();
+        assertThat(watermark.retainUnseen(List.of(kept, discarded))).containsExactly(discarded);
+    }
+
+    @Test
+    void pageHashIsConfirmedOnlyWhenAllItsProductsAreCommitted() {
+        ScrapeWatermark watermark = ScrapeWatermark.create(1000);
+        String url = "https://www.ebay.com/sch/i.html?_nkw=laptop&_pgn=2";
+        List<Product> products = List.of(product(100001), product(100002));
+
+        watermark.beginRun();
+        assertThat(watermark.isPageUnchanged(url, "contenido")).isFalse();
+        watermark.retainUnseen(url, products);
+        watermark.commitRun(List.of());
+
+        watermark.beginRun();
+        assertThat(watermark.isPageUnchanged(url, "contenido")).isFalse();
+        watermark.retainUnseen(url, products);
+        watermark.commitRun(products);
+
+        watermark.beginRun();
+        assertThat(watermark.isPageUnchanged(url, "contenido")).isTrue();
+        assertThat(watermark.isCaughtUp()).isTrue();
+    }
+
+    @Test
+    void forgetsEverythingWhenTheLimitIsExceeded() {
+        ScrapeWatermark watermark = ScrapeWatermark.create(2);
+        watermark.beginRun();
+        watermark.commitRun(List.of(product(100001), product(100002)));
+
+        watermark.beginRun();
+        watermark.commitRun(List.of(product(100003)));
+
+        watermark.beginRun();
+        assertThat(watermark.retainUnseen(List.of(product(100001), product(100003)))).containsExactly(product(100001));
+    }
+
+    @Test
+    void inactiveWatermarkKeepsEverything() {
+        ScrapeWatermark watermark = ScrapeWatermark.none();
+        List<Product> page = List.of(product(100001));
+        watermark.commitRun(page);
+
+        assertThat(watermark.retainUnseen(page)).isSameAs(page);
+        assertThat(watermark.isPageUnchanged("https://www.ebay.com", "contenido")).isFalse();
+    }
+
+    private static Product product(long itemId) {
+        return new Product("Producto " + itemId, "$10.00", "https://www.ebay.com/itm/" + itemId, new Date(0));
+    }
+}
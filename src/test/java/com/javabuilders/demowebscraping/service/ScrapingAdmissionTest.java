@@ -0,0 +1,45 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapingAdmissionTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "HTTPS://WWW.eBay.com/sch/i.html?_nkw=camara, https://www.ebay.com/sch/i.html?_nkw=camara",
+            "https://www.ebay.com:443/sch/i.html, https://www.ebay.com/sch/i.html",
+            "http://example.com:80, http://example.com/",
+            "http://example.com:8080/a, http://example.com:8080/a",
+            "https://www.ebay.com/sch/i.html?_pgn=2&_nkw=camara#top, https://www.ebay.com/sch/i.html?_nkw=camara&_pgn=2",
+    })
+    void normalizeMakesEquivalentUrlsEqual(String url, String expected) {
+        assertThat(ScrapingAdmission.normalize(url)).isEqualTo(expected);
+    }
+
+    @Test
+    void normalizeKeepsTheCaseOfThePathAndQuery() {
+        assertThat(ScrapingAdmission.normalize("https://example.com/Productos?q=Camara"))
+                .isEqualTo("https://example.com/Productos?q=Camara");
+    }
+
+    @Test
+    void normalizeReturnsInvalidOrRelativeUrlsUnchanged() {
+        assertThat(ScrapingAdmission.normalize("no es una url")).isEqualTo("no es una url");
+        assertThat(ScrapingAdmission.normalize("/sch/i.html")).isEqualTo("/sch/i.html");
+    }
+
+    @Test
+    void keyOfSeparatesRequestsWithDifferentPageCounts() {
+        ScrapingParameters twoPages = new ScrapingParameters(" https://www.ebay.com/sch/i.html?b=2&a=1 ", null, 2);
+        ScrapingParameters sameTwoPages = new ScrapingParameters("https://WWW.EBAY.COM/sch/i.html?a=1&b=2", null, 2);
+        ScrapingParameters threePages = new ScrapingParameters("https://www.ebay.com/sch/i.html?a=1&b=2", null, 3);
+
+        assertThat(ScrapingAdmission.keyOf(twoPages)).isEqualTo(ScrapingAdmission.keyOf(sameTwoPages));
+        assertThat(ScrapingAdmission.keyOf(twoPages)).isNotEqualTo(ScrapingAdmission.keyOf(threePages));
+    }
+}
@@ -0,0 +1,52 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.FailureType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapingMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private ScrapingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ScrapingMetrics(registry, new ScrapingProperties());
+    }
+
+    @Test
+    void configuredHostsKeepTheirName() {
+        metrics.countRun("EbayProductExtractor", "https://WWW.EBAY.COM/sch/i.html?_nkw=camara", ScrapingMetrics.OUTCOME_SUCCESS);
+
+        assertThat(registry.get("scraping.runs").tag("host", "www.ebay.com").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherHostsShareASingleSeries() {
+        for (int i = 0; i < 100; i++) {
+            metrics.countFailure("https://sitio-" + i + ".example.com/productos", FailureType.TIMEOUT);
+        }
+
+        assertThat(registry.find("scraping.failures").counters()).hasSize(1);
+        assertThat(registry.get("scraping.failures").tag("host", "other").counter().count()).isEqualTo(100);
+    }
+
+    @Test
+    void urlsWithoutHostAreUnknown() {
+        metrics.countRun("none", null, ScrapingMetrics.OUTCOME_FAILURE);
+
+        assertThat(registry.get("scraping.runs").tag("host", "unknown").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void onlyConfiguredHostsAreTracked() {
+        assertThat(metrics.isTrackedHost("www.ebay.com")).isTrue();
+        assertThat(metrics.isTrackedHost("example.com")).isFalse();
+        assertThat(metrics.isTrackedHost("")).isFalse();
+    }
+}
@@ -0,0 +1,185 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapingResultCacheTest {
+
+    private ScrapingProperties properties;
+    private ScrapingResultCache cache;
+    // Reloj simulado en nanosegundos, que solo avanza con advance()
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScrapingProperties();
+        properties.getCache().setTtl(Duration.ofMillis(100));
+        properties.getCache().setStaleWhileRevalidate(Duration.ofMillis(200));
+        cache = newCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void servesEquivalentRequestsFromTheCacheWithinTheTtl() {
+        AtomicInteger runs = new AtomicInteger();
+
+        ScrapingResult first = cache.get(parameters("https://www.ebay.com/sch/i.html?b=2&a=1"), () -> result(runs, "$1.00"));
+        ScrapingResult second = cache.get(parameters("https://WWW.EBAY.COM/sch/i.html?a=1&b=2"), () -> result(runs, "$2.00"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(second.getProducts()).isEqualTo(first.getProducts());
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void doesNotCacheEmptyResults() {
+        AtomicInteger runs = new AtomicInteger();
+
+        cache.get(parameters("https://www.ebay.com/a"), () -> {
+            runs.incrementAndGet();
+            return new ScrapingResult(List.of());
+        });
+        cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$1.00"));
+
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void servesAStaleResultWhileASingleRefreshRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$1.00"));
+        advance(Duration.ofMillis(100));
+
+        ScrapingResult stale = cache.get(parameters("https://www.ebay.com/a"), () -> blockedResult(runs, "$2.00", release));
+        ScrapingResult alsoStale = cache.get(parameters("https://www.ebay.com/a"), () -> blockedResult(runs, "$3.00", release));
+
+        assertThat(price(stale)).isEqualTo("$1.00");
+        assertThat(price(alsoStale)).isEqualTo("$1.00");
+        release.countDown();
+        assertThat(awaitPrice(parameters("https://www.ebay.com/a"), "$2.00")).isTrue();
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void discardsResultsPastTheStaleWindow() {
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$1.00"));
+        advance(Duration.ofMillis(300));
+
+        ScrapingResult result = cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$2.00"));
+
+        assertThat(price(result)).isEqualTo("$2.00");
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void aOneOffSearchDoesNotEvictAFrequentOne() {
+        properties.getCache().setMaxEntries(1);
+        cache = newCache();
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.get(parameters("https://www.ebay.com/frecuente"), () -> result(runs, "$1.00"));
+        }
+
+        cache.get(parameters("https://www.ebay.com/unica"), () -> result(runs, "$2.00"));
+        cache.get(parameters("https://www.ebay.com/frecuente"), () -> result(runs, "$3.00"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void aSearchRequestedMoreOftenReplacesTheLeastUsedEntry() {
+        properties.getCache().setMaxEntries(1);
+        cache = newCache();
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(parameters("https://www.ebay.com/vieja"), () -> result(runs, "$1.00"));
+        for (int i = 0; i < 3; i++) {
+            cache.get(parameters("https://www.ebay.com/nueva"), () -> result(runs, "$2.00"));
+        }
+
+        cache.get(parameters("https://www.ebay.com/nueva"), () -> result(runs, "$3.00"));
+
+        // La primera vez no entra (se pidió tanto como la vieja); la segunda ya la supera
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void callsTheScrapingEveryTimeWhenDisabled() {
+        properties.getCache().setEnabled(false);
+        AtomicInteger runs = new AtomicInteger();
+
+        cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$1.00"));
+        cache.get(parameters("https://www.ebay.com/a"), () -> result(runs, "$1.00"));
+
+        assertThat(runs).hasValue(2);
+    }
+
+    private static ScrapingParameters parameters(String url) {
+        return new ScrapingParameters(url, null, 1);
+    }
+
+    private static ScrapingResult result(AtomicInteger runs, String price) {
+        runs.incrementAndGet();
+        return new ScrapingResult(List.of(new Product("Producto", price, "https://www.ebay.com/itm/111111", new Date(0))));
+    }
+
+    /**
+     * Scraping que no termina hasta que se abre {@code release}, para que la actualización siga en curso.
+     */
+    private static ScrapingResult blockedResult(AtomicInteger runs, String price, CountDownLatch release) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result(runs, price);
+    }
+
+    /**
+     * Espera a que la actualización en segundo plano guarde su resultado. El reloj no avanza, así que mientras
+     * tanto se sirve el resultado anterior y no se lanza otra actualización.
+     */
+    private boolean awaitPrice(ScrapingParameters parameters, String price) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (price(cache.get(parameters, () -> result(new AtomicInteger(), "$0.00"))).equals(price)) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    private ScrapingResultCache newCache() {
+        return new ScrapingResultCache(properties, new ScrapingMetrics(new SimpleMeterRegistry(), properties), now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static String price(ScrapingResult result) {
+        return result.getProducts().get(0).getPrice();
+    }
+}
@@ -0,0 +1,88 @@
+package com.javabuilders.demowebscraping.service;
+
+import com.javabuilders.demowebscraping.config.ScrapingProperties;
+import com.javabuilders.demowebscraping.model.FailureType;
+import com.javabuilders.demowebscraping.model.Product;
+import com.javabuilders.demowebscraping.model.RunStatus;
+import com.javabuilders.demowebscraping.model.ScrapingParameters;
+import com.javabuilders.demowebscraping.model.ScrapingResult;
+import com.javabuilders.demowebscraping.model.ScrapingRun;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScrapingRunServiceTest {
+
+    private static final ScrapingParameters PARAMETERS =
+            new ScrapingParameters("https://www.ebay.com/sch/i.html?_nkw=camara", "once", 1);
+
+    private IntervalSchedulerService schedulerService;
+    private ScrapingRunService runService;
+
+    @BeforeEach
+    void setUp() {
+        ScrapingProperties properties = new ScrapingProperties();
+        schedulerService = mock(IntervalSchedulerService.class);
+        runService = new ScrapingRunService(schedulerService, properties,
+                new ScrapingMetrics(new SimpleMeterRegistry(), properties));
+    }
+
+    @AfterEach
+    void tearDown() {
+        runService.shutdown();
+    }
+
+    @Test
+    void aReportedFailureMarksTheRunAsFailed() throws InterruptedException {
+        when(schedulerService.handleScrapingRequest(any(), any())).thenAnswer(invocation -> {
+            ScrapeListener listener = invocation.getArgument(1);
+            listener.onFailure(FailureType.TIMEOUT);
+            return new ScrapingResult(List.of());
+        });
+
+        ScrapingRun run = awaitFinished(runService.submit(PARAMETERS));
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.FAILED);
+        assertThat(run.getFailure()).isEqualTo(FailureType.TIMEOUT);
+        assertThat(run.getError()).contains("TIMEOUT");
+    }
+
+    @Test
+    void anEmptySearchCompletesWithoutProducts() throws InterruptedException {
+        when(schedulerService.handleScrapingRequest(any(), any())).thenReturn(new ScrapingResult(List.of()));
+
+        ScrapingRun run = awaitFinished(runService.submit(PARAMETERS));
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.COMPLETED);
+        assertThat(run.getFailure()).isNull();
+        assertThat(runService.getProducts(run.getId(), 0, 10).getProducts()).isEmpty();
+    }
+
+    @Test
+    void aSuccessfulRunKeepsItsProducts() throws InterruptedException {
+        Product product = new Product("Cámara", "$10.00", "https://www.ebay.com/itm/111111", new Date(0));
+        when(schedulerService.handleScrapingRequest(any(), any())).thenReturn(new ScrapingResult(List.of(product)));
+
+        ScrapingRun run = awaitFinished(runService.submit(PARAMETERS));
+
+        assertThat(run.getStatus()).isEqualTo(RunStatus.COMPLETED);
+        assertThat(run.getProductsFound()).isEqualTo(1);
+    }
+
+    private static ScrapingRun awaitFinished(ScrapingRun run) throws InterruptedException {
+        for (int i = 0; i < 500 && !run.isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(run.isFinished()).isTrue();
+        return run;
+    }
+}